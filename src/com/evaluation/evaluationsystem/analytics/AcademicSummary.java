@@ -0,0 +1,39 @@
+package com.evaluation.evaluationsystem.analytics;
+
+/**
+ * A student's academic standing, as maintained by a {@link GradeArchive}.
+ * Counts are over attempts: a subject failed once and passed on the retake adds
+ * its units to the completed units and one to the failed count.
+ */
+public final class AcademicSummary {
+
+    public static final AcademicSummary EMPTY = new AcademicSummary(0, 0, 0, 0, 0);
+
+    private final long gradePoints; // Sum of units * grade in hundredths, over graded attempts
+    private final int gradedUnits;
+    private final int unitsCompleted;
+    private final int failedSubjects;
+    private final int inProgressSubjects;
+
+    AcademicSummary(long gradePoints, int gradedUnits, int unitsCompleted, int failedSubjects, int inProgressSubjects) {
+        this.gradePoints = gradePoints;
+        this.gradedUnits = gradedUnits;
+        this.unitsCompleted = unitsCompleted;
+        this.failedSubjects = failedSubjects;
+        this.inProgressSubjects = inProgressSubjects;
+    }
+
+    // Unit-weighted average over every graded (non-NG) attempt; 0.0 if nothing is graded yet
+    public double getGpa() {
+        return gradedUnits == 0 ? 0.0 : gradePoints / (gradedUnits * 100.0);
+    }
+
+    public int getGradedUnits() { return gradedUnits; }
+    public int getUnitsCompleted() { return unitsCompleted; } // Units of passed attempts
+    public int getFailedSubjects() { return failedSubjects; }
+    public int getInProgressSubjects() { return inProgressSubjects; } // Not graded yet (NG)
+
+    public int getUnitsRemaining(int unitsRequired) {
+        return Math.max(0, unitsRequired - unitsCompleted);
+    }
+}
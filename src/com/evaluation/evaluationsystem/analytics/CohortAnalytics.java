@@ -0,0 +1,207 @@
+package com.evaluation.evaluationsystem.analytics;
+
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.Student;
+import com.evaluation.evaluationsystem.models.Subject;
+import com.evaluation.evaluationsystem.models.Teacher;
+import com.evaluation.evaluationsystem.models.Term;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Pass rates, grade averages and grade histograms per subject, term, department and teacher.
+ * Built on the {@link GradeStore}: the first report runs one scan over its grade columns and caches
+ * the statistics of each subject (overall and per term); the other groupings are merged from those
+ * on request. After that, grade writes only mark their subjects stale (through DataStorage's roster
+ * listener), and the next report rescans just the rows of the stale subjects.
+ * Reports hand out copies, never the cached statistics themselves.
+ */
+public final class CohortAnalytics {
+
+    private static final CohortAnalytics INSTANCE = new CohortAnalytics();
+
+    // One subject's statistics, overall and by term code; replaced as a whole when the subject changes
+    private static final class SubjectEntry {
+        final String code;
+        final GradeStats total = new GradeStats();
+        final Map<Integer, GradeStats> byTerm = new HashMap<>();
+
+        SubjectEntry(String code) {
+            this.code = code;
+        }
+
+        void add(int term, int units, int gradeHundredths) {
+            total.add(units, gradeHundredths);
+            byTerm.computeIfAbsent(term, k -> new GradeStats()).add(units, gradeHundredths);
+        }
+    }
+
+    private final Map<String, SubjectEntry> subjects = new ConcurrentHashMap<>();
+
+    // Written by the listener without taking this lock, like GradeStore
+    private volatile boolean rebuildNeeded = true;
+    private final Set<String> staleSubjects = ConcurrentHashMap.newKeySet();
+
+    private CohortAnalytics() {
+        DataStorage.addRosterListener(this::rosterChanged);
+    }
+
+    public static CohortAnalytics getInstance() {
+        return INSTANCE;
+    }
+
+    private void rosterChanged(String subjectCode) {
+        if (subjectCode == null) {
+            rebuildNeeded = true;
+        } else {
+            staleSubjects.add(subjectKey(subjectCode));
+        }
+    }
+
+    // --- Reports ---
+    // Each returns groups in display order; groups with no enrolled subjects are left out
+
+    // By subject code
+    public synchronized Map<String, GradeStats> bySubject() {
+        refresh();
+        Map<String, GradeStats> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SubjectEntry entry : subjects.values()) {
+            result.put(entry.code, entry.total.copy());
+        }
+        return result;
+    }
+
+    public synchronized GradeStats forSubject(String subjectCode) {
+        refresh();
+        SubjectEntry entry = subjects.get(subjectKey(subjectCode));
+        return entry == null ? new GradeStats() : entry.total.copy();
+    }
+
+    // By "<year level> - <semester>", earliest term first
+    public synchronized Map<String, GradeStats> byTerm() {
+        refresh();
+        Map<Integer, GradeStats> byCode = new TreeMap<>();
+        for (SubjectEntry entry : subjects.values()) {
+            entry.byTerm.forEach((term, stats) -> byCode.computeIfAbsent(term, k -> new GradeStats()).addAll(stats));
+        }
+        Map<String, GradeStats> result = new LinkedHashMap<>();
+        byCode.forEach((term, stats) -> result.put(Term.yearLevel(term) + " - " + Term.semester(term), stats));
+        return result;
+    }
+
+    // By the department of each subject in the subject list ("(No department)" for unknown subjects)
+    public synchronized Map<String, GradeStats> byDepartment() {
+        refresh();
+        Map<String, String> departments = new HashMap<>();
+        for (Subject subject : DataStorage.getAllSubjects()) {
+            departments.put(subjectKey(subject.getCode()), subject.getDepartment());
+        }
+        Map<String, GradeStats> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        subjects.forEach((key, entry) -> {
+            String department = departments.getOrDefault(key, "(No department)");
+            result.computeIfAbsent(department, k -> new GradeStats()).addAll(entry.total);
+        });
+        return result;
+    }
+
+    // By teacher ("First Last (id)"), over the subjects assigned to each
+    public synchronized Map<String, GradeStats> byTeacher() {
+        refresh();
+        Map<String, GradeStats> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Teacher teacher : DataStorage.getAllTeachers()) {
+            GradeStats stats = new GradeStats();
+            for (String code : teacher.getAssignedSubjectCodes()) {
+                SubjectEntry entry = subjects.get(subjectKey(code));
+                if (entry != null) {
+                    stats.addAll(entry.total);
+                }
+            }
+            if (stats.getCount() > 0) {
+                result.put(teacher.getFirstName() + " " + teacher.getLastName() + " (" + teacher.getId() + ")", stats);
+            }
+        }
+        return result;
+    }
+
+    // --- Maintenance ---
+
+    private void refresh() {
+        if (rebuildNeeded) {
+            rebuild();
+            return;
+        }
+        Set<String> stale = new HashSet<>();
+        for (Iterator<String> it = staleSubjects.iterator(); it.hasNext(); ) {
+            stale.add(it.next());
+            it.remove(); // Before reading, so a write from here on marks it again
+        }
+        if (!stale.isEmpty()) {
+            recompute(stale);
+        }
+    }
+
+    // Every subject, in one scan of the grade store
+    private void rebuild() {
+        rebuildNeeded = false;
+        staleSubjects.clear(); // Changes from here on are picked up by the next refresh
+        try {
+            Map<String, SubjectEntry> rebuilt = scan(null);
+            subjects.clear();
+            subjects.putAll(rebuilt);
+        } catch (RuntimeException e) {
+            rebuildNeeded = true; // Try again on the next report
+            throw e;
+        }
+    }
+
+    // Only the given subjects (by key), in one scan; subjects left without rows are dropped
+    private void recompute(Set<String> keys) {
+        Map<String, SubjectEntry> recomputed = scan(keys);
+        for (String key : keys) {
+            SubjectEntry entry = recomputed.get(key);
+            if (entry == null) {
+                subjects.remove(key);
+            } else {
+                subjects.put(key, entry);
+            }
+        }
+    }
+
+    // Statistics of the given subjects (null = all) by key; enrollments of removed students are
+    // skipped, as they are in class lists
+    private static Map<String, SubjectEntry> scan(Set<String> keys) {
+        GradeStore store = GradeStore.getInstance();
+        Set<String> studentIds = DataStorage.getAllStudents().stream().map(Student::getId).collect(Collectors.toSet());
+        Map<Integer, SubjectEntry> bySubject = new HashMap<>(); // Store subject index -> entry; null = not wanted
+        Map<Integer, Boolean> current = new HashMap<>(); // Store student index -> still a student
+        store.scan(null, (student, subject, term, units, grade) -> {
+            SubjectEntry entry = bySubject.computeIfAbsent(subject, index -> {
+                String code = store.subjectCode(index);
+                return keys == null || keys.contains(subjectKey(code)) ? new SubjectEntry(code) : null;
+            });
+            if (entry != null && current.computeIfAbsent(student, index -> studentIds.contains(store.studentId(index)))) {
+                entry.add(store.termCode(term), units, grade);
+            }
+        });
+        Map<String, SubjectEntry> result = new HashMap<>();
+        for (SubjectEntry entry : bySubject.values()) {
+            if (entry != null && entry.total.getCount() > 0) {
+                result.put(subjectKey(entry.code), entry);
+            }
+        }
+        return result;
+    }
+
+    private static String subjectKey(String code) {
+        return code == null ? "" : code.toUpperCase(Locale.ROOT); // As the repository keys its class lists
+    }
+}
@@ -0,0 +1,32 @@
+package com.evaluation.evaluationsystem.analytics;
+
+import java.util.Map;
+
+/**
+ * Read API over every student's grade history, for transcript and GPA computations.
+ * Two implementations:
+ * - {@link GradeStore}: the on-heap columnar store (default)
+ * - {@link OffHeapGradeMatrix}: a student x subject matrix outside the Java heap, for large
+ *   multi-year archives (-Devaluation.archive=offheap)
+ * Both follow DataStorage changes on their own. Grades are in hundredths, as in {@link GradeStore}.
+ */
+public interface GradeArchive {
+
+    /** Visits one subject of a student's history, combining all attempts at it. */
+    interface SubjectVisitor {
+        // best/worst are the lowest/highest graded attempt (NO_GRADE if none is graded)
+        void visit(String subjectCode, int units, int bestGrade, int worstGrade, int attempts);
+    }
+
+    // GPA and unit progress of one student, kept up to date on every change; EMPTY without history
+    AcademicSummary summary(String studentId);
+
+    // The same for every student with history, by student id
+    Map<String, AcademicSummary> summaries();
+
+    void forEachSubject(String studentId, SubjectVisitor visitor);
+
+    static GradeArchive getInstance() {
+        return OffHeapGradeMatrix.ENABLED ? OffHeapGradeMatrix.getInstance() : GradeStore.getInstance();
+    }
+}
@@ -0,0 +1,92 @@
+package com.evaluation.evaluationsystem.analytics;
+
+import com.evaluation.evaluationsystem.models.EnrolledSubject;
+
+/**
+ * Grade statistics of one group of enrolled subjects (a subject, term, department or teacher's
+ * subjects), as computed by {@link CohortAnalytics}: pass/fail/in-progress counts, mean and
+ * unit-weighted grade, and a histogram. Grades are in hundredths, as in {@link GradeStore}.
+ * Filled in while a report is built and never changed afterwards.
+ */
+public final class GradeStats {
+
+    // Histogram buckets: a quarter point each from 1.00 to 3.00, then everything failing
+    public static final String[] HISTOGRAM_LABELS = {
+            "1.00", "1.25", "1.50", "1.75", "2.00", "2.25", "2.50", "2.75", "3.00", "Failed"
+    };
+
+    private int count;
+    private int passed;
+    private int failed;
+    private long gradeSum; // Over graded rows
+    private int gradedUnits;
+    private long weightedGrades; // Sum of units * grade, over graded rows
+    private final int[] histogram = new int[HISTOGRAM_LABELS.length];
+
+    GradeStats() {
+    }
+
+    void add(int units, int gradeHundredths) {
+        count++;
+        if (gradeHundredths == EnrolledSubject.NO_GRADE) {
+            return;
+        }
+        if (gradeHundredths <= GradeStore.PASSING_GRADE) {
+            passed++;
+            histogram[Math.max(0, (gradeHundredths - 100) / 25)]++; // Grades below 1.00 count as 1.00
+        } else {
+            failed++;
+            histogram[histogram.length - 1]++;
+        }
+        gradeSum += gradeHundredths;
+        gradedUnits += units;
+        weightedGrades += (long) units * gradeHundredths;
+    }
+
+    // A copy for callers, so the statistics cached by CohortAnalytics never leave it
+    GradeStats copy() {
+        GradeStats copy = new GradeStats();
+        copy.addAll(this);
+        return copy;
+    }
+
+    void addAll(GradeStats other) {
+        count += other.count;
+        passed += other.passed;
+        failed += other.failed;
+        gradeSum += other.gradeSum;
+        gradedUnits += other.gradedUnits;
+        weightedGrades += other.weightedGrades;
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    // Enrolled subjects in the group, graded or not
+    public int getCount() { return count; }
+    public int getPassed() { return passed; }
+    public int getFailed() { return failed; }
+    public int getInProgress() { return count - passed - failed; } // Not graded yet (NG)
+
+    // Share of graded subjects that passed, 0.0 if none is graded
+    public double getPassRate() {
+        int graded = passed + failed;
+        return graded == 0 ? 0.0 : (double) passed / graded;
+    }
+
+    // Plain average of the graded subjects' grades, 0.0 if none is graded
+    public double getMeanGrade() {
+        int graded = passed + failed;
+        return graded == 0 ? 0.0 : gradeSum / (graded * 100.0);
+    }
+
+    // Unit-weighted average (GPA), 0.0 if none is graded
+    public double getWeightedGpa() {
+        return gradedUnits == 0 ? 0.0 : weightedGrades / (gradedUnits * 100.0);
+    }
+
+    // Graded subjects per bucket of HISTOGRAM_LABELS
+    public int getHistogramCount(int bucket) {
+        return histogram[bucket];
+    }
+}
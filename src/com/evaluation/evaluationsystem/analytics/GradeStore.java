@@ -0,0 +1,369 @@
+package com.evaluation.evaluationsystem.analytics;
+
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.EnrolledSubject;
+import com.evaluation.evaluationsystem.models.Enrollment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Column-oriented copy of every enrolled subject, for reports across whole cohorts.
+ * Each row (one subject in one enrollment) is spread over parallel primitive arrays:
+ * student index, subject index, term index, units and grade in hundredths. Scans walk the
+ * arrays directly, so aggregating tens of thousands of students allocates nothing per row.
+ *
+ * Built from DataStorage on first use and kept in sync through its enrollment listener:
+ * a change only marks the student as stale, and that student's rows are replaced on the next scan.
+ * Students, subjects and terms get dense indexes; see studentId/subjectCode/termCode to map them back.
+ * Indexes stay valid until the store is rebuilt, so map them back right after a scan.
+ * Cohort reports ({@link CohortAnalytics}) aggregate through {@link #scan}.
+ */
+public final class GradeStore implements GradeArchive {
+
+    private static final GradeStore INSTANCE = new GradeStore();
+
+    // Passing mark on the 1.0-5.0 scale, in hundredths
+    public static final int PASSING_GRADE = 300;
+
+    // Above this many stale students a full rebuild is cheaper than patching
+    private static final int MAX_PATCHED_STUDENTS = 256;
+
+    /** Visits one row of a scan; indexes are the dense ones of this store. */
+    public interface RowVisitor {
+        void visit(int student, int subject, int term, int units, int gradeHundredths);
+    }
+
+    // Dictionaries: value -> dense index, and back
+    private final Map<String, Integer> studentIndex = new HashMap<>();
+    private final List<String> studentIds = new ArrayList<>();
+    private final Map<String, Integer> subjectIndex = new HashMap<>();
+    private final List<String> subjectCodes = new ArrayList<>();
+    private final Map<Integer, Integer> termIndex = new HashMap<>();
+    private int[] termCodes = new int[8];
+
+    // Row columns; a removed row has rowStudent == -1 until the next compaction
+    private int[] rowStudent = new int[1024];
+    private int[] rowSubject = new int[1024];
+    private int[] rowTerm = new int[1024];
+    private short[] rowUnits = new short[1024];
+    private short[] rowGrade = new short[1024];
+    private int[] rowNext = new int[1024]; // Next row of the same student, -1 at the end
+    private int rows = 0;
+    private int removedRows = 0;
+
+    private int[] firstRow = new int[64]; // Per student index; -1 if the student has no rows
+
+    // Per-student totals, adjusted as rows are added and removed so a summary is a lookup
+    private long[] gradePoints = new long[64]; // Sum of units * grade over graded rows
+    private int[] gradedUnits = new int[64];
+    private int[] passedUnits = new int[64];
+    private int[] failedRows = new int[64];
+    private int[] ungradedRows = new int[64];
+
+    // Written by the listener without taking this lock, since it may run while the repository is locked
+    private volatile boolean rebuildNeeded = true;
+    private final Queue<String> changedStudents = new ConcurrentLinkedQueue<>();
+
+    private GradeStore() {
+        DataStorage.addEnrollmentListener(this::enrollmentsChanged);
+    }
+
+    public static GradeStore getInstance() {
+        return INSTANCE;
+    }
+
+    private void enrollmentsChanged(String studentId) {
+        if (studentId == null) {
+            rebuildNeeded = true;
+        } else if (!rebuildNeeded) {
+            changedStudents.add(studentId);
+        }
+    }
+
+    // --- Scans ---
+
+    /** Calls the visitor for every row, optionally only rows of one term (a Term code; null = all terms). */
+    public synchronized void scan(Integer term, RowVisitor visitor) {
+        refresh();
+        int onlyTerm = term == null ? -1 : termIndex.getOrDefault(term, -2);
+        if (onlyTerm == -2) {
+            return; // Nobody was enrolled in that term
+        }
+        for (int row = 0; row < rows; row++) {
+            int student = rowStudent[row];
+            if (student >= 0 && (onlyTerm < 0 || rowTerm[row] == onlyTerm)) {
+                visitor.visit(student, rowSubject[row], rowTerm[row], rowUnits[row], rowGrade[row]);
+            }
+        }
+    }
+
+    // --- Per-student history (GradeArchive) ---
+
+    public synchronized AcademicSummary summary(String studentId) {
+        refresh();
+        Integer student = studentIndex.get(studentId);
+        return student == null ? AcademicSummary.EMPTY : summaryOf(student);
+    }
+
+    public synchronized Map<String, AcademicSummary> summaries() {
+        refresh();
+        Map<String, AcademicSummary> result = new HashMap<>(studentIds.size() * 2);
+        for (int student = 0; student < studentIds.size(); student++) {
+            if (firstRow[student] >= 0) {
+                result.put(studentIds.get(student), summaryOf(student));
+            }
+        }
+        return result;
+    }
+
+    private AcademicSummary summaryOf(int student) {
+        return new AcademicSummary(gradePoints[student], gradedUnits[student], passedUnits[student],
+                failedRows[student], ungradedRows[student]);
+    }
+
+    public synchronized void forEachSubject(String studentId, SubjectVisitor visitor) {
+        // subject index -> {units, best, worst, attempts}
+        Map<Integer, int[]> bySubject = new LinkedHashMap<>();
+        for (int row = firstRowOf(studentId); row >= 0; row = rowNext[row]) {
+            int[] cell = bySubject.computeIfAbsent(rowSubject[row],
+                    k -> new int[]{0, EnrolledSubject.NO_GRADE, EnrolledSubject.NO_GRADE, 0});
+            cell[0] = rowUnits[row];
+            int grade = rowGrade[row];
+            if (grade != EnrolledSubject.NO_GRADE) {
+                cell[1] = cell[1] == EnrolledSubject.NO_GRADE ? grade : Math.min(cell[1], grade);
+                cell[2] = Math.max(cell[2], grade); // NO_GRADE is below every grade
+            }
+            cell[3]++;
+        }
+        for (Map.Entry<Integer, int[]> entry : bySubject.entrySet()) {
+            int[] cell = entry.getValue();
+            visitor.visit(subjectCodes.get(entry.getKey()), cell[0], cell[1], cell[2], cell[3]);
+        }
+    }
+
+    private int firstRowOf(String studentId) {
+        refresh();
+        Integer student = studentIndex.get(studentId);
+        return student == null ? -1 : firstRow[student];
+    }
+
+    // --- Dictionaries ---
+
+    public synchronized int studentCount() {
+        refresh();
+        return studentIds.size();
+    }
+
+    public synchronized String studentId(int student) {
+        return studentIds.get(student);
+    }
+
+    public synchronized String subjectCode(int subject) {
+        return subjectCodes.get(subject);
+    }
+
+    public synchronized int termCode(int term) {
+        return termCodes[term];
+    }
+
+    // -1 if the student has no rows
+    public synchronized int studentIndexOf(String studentId) {
+        refresh();
+        return studentIndex.getOrDefault(studentId, -1);
+    }
+
+    // Subject codes are matched case-insensitively, as everywhere else
+    public synchronized int subjectIndexOf(String subjectCode) {
+        refresh();
+        return subjectIndex.getOrDefault(subjectKey(subjectCode), -1);
+    }
+
+    // --- Maintenance ---
+
+    private void refresh() {
+        if (rebuildNeeded) {
+            rebuild();
+            return;
+        }
+        if (changedStudents.isEmpty()) {
+            return;
+        }
+        Set<String> stale = new LinkedHashSet<>();
+        for (String studentId; (studentId = changedStudents.poll()) != null; ) {
+            stale.add(studentId);
+        }
+        if (stale.size() > MAX_PATCHED_STUDENTS) {
+            rebuild();
+            return;
+        }
+        for (String studentId : stale) {
+            int student = studentIndex(studentId);
+            removeRows(student);
+            for (Enrollment enrollment : DataStorage.getEnrollmentsForStudent(studentId)) {
+                addRows(student, enrollment);
+            }
+        }
+        if (removedRows > rows / 2) {
+            compact();
+        }
+    }
+
+    private void rebuild() {
+        rebuildNeeded = false;
+        changedStudents.clear(); // Changes from here on are patched in by the next refresh
+        studentIndex.clear();
+        studentIds.clear();
+        subjectIndex.clear();
+        subjectCodes.clear();
+        termIndex.clear();
+        rows = 0;
+        removedRows = 0;
+        try {
+            for (Enrollment enrollment : DataStorage.getAllEnrollments()) {
+                addRows(studentIndex(enrollment.getStudentId()), enrollment);
+            }
+        } catch (RuntimeException e) {
+            rebuildNeeded = true; // Try again on the next scan
+            throw e;
+        }
+    }
+
+    private void addRows(int student, Enrollment enrollment) {
+        int term = termIndex(enrollment.getTermCode());
+        for (EnrolledSubject subject : enrollment.getSubjects()) {
+            if (rows == rowStudent.length) {
+                grow();
+            }
+            rowStudent[rows] = student;
+            rowSubject[rows] = subjectIndex(subject.getCode());
+            rowTerm[rows] = term;
+            rowUnits[rows] = (short) subject.getUnits();
+            rowGrade[rows] = subject.getGradeHundredths();
+            rowNext[rows] = firstRow[student];
+            firstRow[student] = rows;
+            count(student, rows, 1);
+            rows++;
+        }
+    }
+
+    // Adds (sign 1) or removes (sign -1) a row from its student's totals
+    private void count(int student, int row, int sign) {
+        int grade = rowGrade[row];
+        int units = rowUnits[row];
+        if (grade == EnrolledSubject.NO_GRADE) {
+            ungradedRows[student] += sign;
+            return;
+        }
+        gradePoints[student] += sign * (long) units * grade;
+        gradedUnits[student] += sign * units;
+        if (grade <= PASSING_GRADE) {
+            passedUnits[student] += sign * units;
+        } else {
+            failedRows[student] += sign;
+        }
+    }
+
+    private void removeRows(int student) {
+        for (int row = firstRow[student]; row >= 0; row = rowNext[row]) {
+            count(student, row, -1);
+            rowStudent[row] = -1;
+            removedRows++;
+        }
+        firstRow[student] = -1;
+    }
+
+    // Drops removed rows and relinks every student's chain
+    private void compact() {
+        Arrays.fill(firstRow, -1);
+        int kept = 0;
+        for (int row = 0; row < rows; row++) {
+            int student = rowStudent[row];
+            if (student < 0) {
+                continue;
+            }
+            rowStudent[kept] = student;
+            rowSubject[kept] = rowSubject[row];
+            rowTerm[kept] = rowTerm[row];
+            rowUnits[kept] = rowUnits[row];
+            rowGrade[kept] = rowGrade[row];
+            rowNext[kept] = firstRow[student];
+            firstRow[student] = kept;
+            kept++;
+        }
+        rows = kept;
+        removedRows = 0;
+    }
+
+    private void grow() {
+        int capacity = rowStudent.length * 2;
+        rowStudent = Arrays.copyOf(rowStudent, capacity);
+        rowSubject = Arrays.copyOf(rowSubject, capacity);
+        rowTerm = Arrays.copyOf(rowTerm, capacity);
+        rowUnits = Arrays.copyOf(rowUnits, capacity);
+        rowGrade = Arrays.copyOf(rowGrade, capacity);
+        rowNext = Arrays.copyOf(rowNext, capacity);
+    }
+
+    private int studentIndex(String studentId) {
+        Integer index = studentIndex.get(studentId);
+        if (index == null) {
+            index = studentIds.size();
+            studentIndex.put(studentId, index);
+            studentIds.add(studentId);
+            if (index == firstRow.length) {
+                int oldLength = firstRow.length;
+                firstRow = Arrays.copyOf(firstRow, oldLength * 2);
+                gradePoints = Arrays.copyOf(gradePoints, oldLength * 2);
+                gradedUnits = Arrays.copyOf(gradedUnits, oldLength * 2);
+                passedUnits = Arrays.copyOf(passedUnits, oldLength * 2);
+                failedRows = Arrays.copyOf(failedRows, oldLength * 2);
+                ungradedRows = Arrays.copyOf(ungradedRows, oldLength * 2);
+            }
+            firstRow[index] = -1;
+            gradePoints[index] = 0;
+            gradedUnits[index] = 0;
+            passedUnits[index] = 0;
+            failedRows[index] = 0;
+            ungradedRows[index] = 0;
+        }
+        return index;
+    }
+
+    private int subjectIndex(String code) {
+        String key = subjectKey(code);
+        Integer index = subjectIndex.get(key);
+        if (index == null) {
+            index = subjectCodes.size();
+            subjectIndex.put(key, index);
+            subjectCodes.add(code);
+        }
+        return index;
+    }
+
+    private int termIndex(int termCode) {
+        Integer index = termIndex.get(termCode);
+        if (index == null) {
+            index = termIndex.size();
+            termIndex.put(termCode, index);
+            if (index == termCodes.length) {
+                termCodes = Arrays.copyOf(termCodes, index * 2);
+            }
+            termCodes[index] = termCode;
+        }
+        return index;
+    }
+
+    private static String subjectKey(String code) {
+        return code == null ? "" : code.toUpperCase(Locale.ROOT);
+    }
+}
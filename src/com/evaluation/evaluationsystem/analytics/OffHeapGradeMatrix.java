@@ -0,0 +1,283 @@
+package com.evaluation.evaluationsystem.analytics;
+
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.EnrolledSubject;
+import com.evaluation.evaluationsystem.models.Enrollment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Student x subject grade matrix kept outside the Java heap (Foreign Memory API, JDK 22+), so a
+ * multi-year archive of every student's grades does not add to the heap or to GC pauses.
+ * Enable with -Devaluation.archive=offheap; add -Devaluation.archive.file=path to back the
+ * matrix with a memory-mapped file instead of anonymous memory, so the OS can page it out.
+ *
+ * Layout: one fixed-size row per student, one fixed-size cell per subject.
+ *   row header (24 bytes): long sum of units * grade over graded attempts, int graded units, int passed units,
+ *                          int failed attempts, int ungraded attempts (the student's AcademicSummary)
+ *   cell (8 bytes):        short best grade, short worst grade, short units, short attempts (0 = never taken)
+ * Only the id -> row/column dictionaries stay on the heap. A changed student's row is rewritten
+ * in place on the next read; new students or subjects beyond the spare capacity cause a rebuild.
+ */
+public final class OffHeapGradeMatrix implements GradeArchive {
+
+    static final boolean ENABLED = "offheap".equalsIgnoreCase(System.getProperty("evaluation.archive"));
+
+    private static OffHeapGradeMatrix instance;
+
+    private static final long HEADER_BYTES = 24; // long + 4 ints, see the layout above
+    private static final long CELL_BYTES = 8; // 4 shorts
+
+    // Same pattern as GradeStore: past this many changed students a rebuild is cheaper
+    private static final int MAX_PATCHED_STUDENTS = 256;
+
+    private final Path file; // null = anonymous memory
+
+    private final Map<String, Integer> studentRow = new HashMap<>();
+    private final Map<String, Integer> subjectColumn = new HashMap<>();
+    private final List<String> subjectCodes = new ArrayList<>();
+    private int rowCapacity = 0;
+    private int columnCapacity = 0;
+    private long rowBytes = 0;
+
+    private Arena arena;
+    private MemorySegment matrix;
+
+    private volatile boolean rebuildNeeded = true;
+    private final Queue<String> changedStudents = new ConcurrentLinkedQueue<>();
+
+    private OffHeapGradeMatrix(Path file) {
+        this.file = file;
+        DataStorage.addEnrollmentListener(this::enrollmentsChanged);
+    }
+
+    static synchronized OffHeapGradeMatrix getInstance() {
+        if (instance == null) {
+            String file = System.getProperty("evaluation.archive.file");
+            instance = new OffHeapGradeMatrix(file != null ? Paths.get(file).toAbsolutePath() : null);
+        }
+        return instance;
+    }
+
+    private void enrollmentsChanged(String studentId) {
+        if (studentId == null) {
+            rebuildNeeded = true;
+        } else if (!rebuildNeeded) {
+            changedStudents.add(studentId);
+        }
+    }
+
+    // --- Reads ---
+
+    public synchronized AcademicSummary summary(String studentId) {
+        long row = rowOffset(studentId);
+        return row < 0 ? AcademicSummary.EMPTY : summaryAt(row);
+    }
+
+    public synchronized Map<String, AcademicSummary> summaries() {
+        refresh();
+        Map<String, AcademicSummary> result = new HashMap<>(studentRow.size() * 2);
+        for (Map.Entry<String, Integer> entry : studentRow.entrySet()) {
+            AcademicSummary summary = summaryAt(entry.getValue() * rowBytes);
+            if (summary.getGradedUnits() > 0 || summary.getFailedSubjects() > 0 || summary.getInProgressSubjects() > 0) {
+                result.put(entry.getKey(), summary); // Rows of removed students stay allocated but empty
+            }
+        }
+        return result;
+    }
+
+    private AcademicSummary summaryAt(long row) {
+        return new AcademicSummary(matrix.get(ValueLayout.JAVA_LONG_UNALIGNED, row),
+                matrix.get(ValueLayout.JAVA_INT_UNALIGNED, row + 8), matrix.get(ValueLayout.JAVA_INT_UNALIGNED, row + 12),
+                matrix.get(ValueLayout.JAVA_INT_UNALIGNED, row + 16), matrix.get(ValueLayout.JAVA_INT_UNALIGNED, row + 20));
+    }
+
+    public synchronized void forEachSubject(String studentId, SubjectVisitor visitor) {
+        long row = rowOffset(studentId);
+        if (row < 0) {
+            return;
+        }
+        for (int column = 0; column < subjectCodes.size(); column++) {
+            long cell = row + HEADER_BYTES + column * CELL_BYTES;
+            int attempts = matrix.get(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 6);
+            if (attempts > 0) {
+                visitor.visit(subjectCodes.get(column), matrix.get(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 4),
+                        matrix.get(ValueLayout.JAVA_SHORT_UNALIGNED, cell),
+                        matrix.get(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 2), attempts);
+            }
+        }
+    }
+
+    // Byte offset of the student's row, or -1 if the student has no history
+    private long rowOffset(String studentId) {
+        refresh();
+        Integer row = studentRow.get(studentId);
+        return row == null ? -1 : row * rowBytes;
+    }
+
+    // --- Maintenance ---
+
+    private void refresh() {
+        if (rebuildNeeded) {
+            rebuild();
+            return;
+        }
+        if (changedStudents.isEmpty()) {
+            return;
+        }
+        Set<String> stale = new LinkedHashSet<>();
+        for (String studentId; (studentId = changedStudents.poll()) != null; ) {
+            stale.add(studentId);
+        }
+        if (stale.size() > MAX_PATCHED_STUDENTS) {
+            rebuild();
+            return;
+        }
+        for (String studentId : stale) {
+            if (!rewriteRow(studentId, DataStorage.getEnrollmentsForStudent(studentId))) {
+                rebuild(); // Out of spare rows or columns
+                return;
+            }
+        }
+    }
+
+    private void rebuild() {
+        rebuildNeeded = false;
+        changedStudents.clear(); // Changes from here on are patched in by the next refresh
+        try {
+            Map<String, List<Enrollment>> byStudent = new HashMap<>();
+            studentRow.clear();
+            subjectColumn.clear();
+            subjectCodes.clear();
+            for (Enrollment enrollment : DataStorage.getAllEnrollments()) {
+                byStudent.computeIfAbsent(enrollment.getStudentId(), k -> new ArrayList<>()).add(enrollment);
+                studentRow.putIfAbsent(enrollment.getStudentId(), studentRow.size());
+                for (EnrolledSubject subject : enrollment.getSubjects()) {
+                    column(subject.getCode(), Integer.MAX_VALUE);
+                }
+            }
+            allocate(studentRow.size() + studentRow.size() / 4 + 16, subjectCodes.size() + subjectCodes.size() / 4 + 8);
+            for (Map.Entry<String, List<Enrollment>> entry : byStudent.entrySet()) {
+                rewriteRow(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            rebuildNeeded = true; // Try again on the next read
+            throw e;
+        }
+    }
+
+    // Replaces (or adds) the student's row; false if that needs more rows or columns than allocated
+    private boolean rewriteRow(String studentId, List<Enrollment> enrollments) {
+        Integer row = studentRow.get(studentId);
+        if (row == null) {
+            if (enrollments.isEmpty()) {
+                return true; // Nothing to store
+            }
+            if (studentRow.size() == rowCapacity) {
+                return false;
+            }
+            row = studentRow.size();
+            studentRow.put(studentId, row);
+        }
+        long offset = row * rowBytes;
+        matrix.asSlice(offset, rowBytes).fill((byte) 0);
+
+        long weighted = 0;
+        int gradedUnits = 0;
+        int passedUnits = 0;
+        int failed = 0;
+        int ungraded = 0;
+        for (Enrollment enrollment : enrollments) {
+            for (EnrolledSubject subject : enrollment.getSubjects()) {
+                int column = column(subject.getCode(), columnCapacity);
+                if (column < 0) {
+                    return false;
+                }
+                long cell = offset + HEADER_BYTES + column * CELL_BYTES;
+                short attempts = matrix.get(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 6);
+                short best = attempts == 0 ? EnrolledSubject.NO_GRADE : matrix.get(ValueLayout.JAVA_SHORT_UNALIGNED, cell);
+                short worst = attempts == 0 ? EnrolledSubject.NO_GRADE : matrix.get(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 2);
+                short grade = subject.getGradeHundredths();
+                if (subject.isGraded()) {
+                    best = best == EnrolledSubject.NO_GRADE ? grade : (short) Math.min(best, grade);
+                    worst = (short) Math.max(worst, grade); // NO_GRADE is below every grade
+                    weighted += (long) subject.getUnits() * grade;
+                    gradedUnits += subject.getUnits();
+                    if (grade <= GradeStore.PASSING_GRADE) {
+                        passedUnits += subject.getUnits();
+                    } else {
+                        failed++;
+                    }
+                } else {
+                    ungraded++;
+                }
+                matrix.set(ValueLayout.JAVA_SHORT_UNALIGNED, cell, best);
+                matrix.set(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 2, worst);
+                matrix.set(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 4, (short) subject.getUnits());
+                matrix.set(ValueLayout.JAVA_SHORT_UNALIGNED, cell + 6, (short) (attempts + 1));
+            }
+        }
+        matrix.set(ValueLayout.JAVA_LONG_UNALIGNED, offset, weighted);
+        matrix.set(ValueLayout.JAVA_INT_UNALIGNED, offset + 8, gradedUnits);
+        matrix.set(ValueLayout.JAVA_INT_UNALIGNED, offset + 12, passedUnits);
+        matrix.set(ValueLayout.JAVA_INT_UNALIGNED, offset + 16, failed);
+        matrix.set(ValueLayout.JAVA_INT_UNALIGNED, offset + 20, ungraded);
+        return true;
+    }
+
+    // Column of a subject (case-insensitive code), added if there is room; -1 if there is none
+    private int column(String code, int capacity) {
+        String key = code == null ? "" : code.toUpperCase(Locale.ROOT);
+        Integer column = subjectColumn.get(key);
+        if (column == null) {
+            if (subjectCodes.size() >= capacity) {
+                return -1;
+            }
+            column = subjectCodes.size();
+            subjectColumn.put(key, column);
+            subjectCodes.add(code);
+        }
+        return column;
+    }
+
+    // Frees the old matrix and maps a zeroed one of the given size
+    private void allocate(int rows, int columns) {
+        if (arena != null) {
+            arena.close();
+        }
+        rowCapacity = rows;
+        columnCapacity = columns;
+        rowBytes = HEADER_BYTES + columns * CELL_BYTES;
+        long size = rows * rowBytes;
+        arena = Arena.ofShared();
+        if (file == null) {
+            matrix = arena.allocate(size, 8); // Zero-filled
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            matrix = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena); // Stays mapped after the channel closes
+        } catch (IOException e) {
+            arena.close();
+            arena = null;
+            throw new UncheckedIOException("Could not map grade archive " + file, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.evaluation.evaluationsystem.analytics;
+
+/**
+ * One student's place in a {@link RankingService} ranking. Tied students share a rank,
+ * and the next rank skips past them (1, 2, 2, 4).
+ */
+public final class RankedStudent {
+
+    private final String studentId;
+    private final String name;
+    private final String yearLevel;
+    private final double gpa;
+    private final int gradedUnits;
+    private final int rank;
+    private final int rankedCount;
+
+    RankedStudent(String studentId, String name, String yearLevel, double gpa, int gradedUnits, int rank, int rankedCount) {
+        this.studentId = studentId;
+        this.name = name;
+        this.yearLevel = yearLevel;
+        this.gpa = gpa;
+        this.gradedUnits = gradedUnits;
+        this.rank = rank;
+        this.rankedCount = rankedCount;
+    }
+
+    public String getStudentId() { return studentId; }
+    public String getName() { return name; }
+    public String getYearLevel() { return yearLevel; }
+    public double getGpa() { return gpa; }
+    public int getGradedUnits() { return gradedUnits; }
+    public int getRank() { return rank; }
+    public int getRankedCount() { return rankedCount; } // Students ranked in the same year level
+}
@@ -0,0 +1,58 @@
+package com.evaluation.evaluationsystem.analytics;
+
+/**
+ * Who may be ranked by the {@link RankingService} and how ties at the cut-off are treated.
+ */
+public final class RankingCriteria {
+
+    // Everyone with a graded subject; students tied at the cut-off are all listed
+    public static final RankingCriteria CLASS_RANK = new RankingCriteria(1, 5.0, true, true);
+
+    // GPA of 1.75 or better over at least 15 graded units, with no failed subject
+    public static final RankingCriteria DEANS_LIST = new RankingCriteria(15, 1.75, false, true);
+
+    private final int minGradedUnits;
+    private final double maxGpa;
+    private final boolean allowFailures;
+    private final boolean includeTies;
+
+    /**
+     * @param minGradedUnits Fewest graded units a student needs to be ranked.
+     * @param maxGpa         Worst GPA that still qualifies (1.0 is the best grade).
+     * @param allowFailures  Whether students with a failed subject qualify.
+     * @param includeTies    Whether a top-k list also takes everyone tied with the k-th student.
+     */
+    public RankingCriteria(int minGradedUnits, double maxGpa, boolean allowFailures, boolean includeTies) {
+        this.minGradedUnits = minGradedUnits;
+        this.maxGpa = maxGpa;
+        this.allowFailures = allowFailures;
+        this.includeTies = includeTies;
+    }
+
+    public int getMinGradedUnits() { return minGradedUnits; }
+    public double getMaxGpa() { return maxGpa; }
+    public boolean isAllowFailures() { return allowFailures; }
+    public boolean isIncludeTies() { return includeTies; }
+
+    boolean qualifies(AcademicSummary summary) {
+        return summary.getGradedUnits() > 0
+                && summary.getGradedUnits() >= minGradedUnits
+                && summary.getGpa() <= maxGpa
+                && (allowFailures || summary.getFailedSubjects() == 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RankingCriteria)) {
+            return false;
+        }
+        RankingCriteria other = (RankingCriteria) o;
+        return minGradedUnits == other.minGradedUnits && Double.compare(maxGpa, other.maxGpa) == 0
+                && allowFailures == other.allowFailures && includeTies == other.includeTies;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((minGradedUnits * 31 + Double.hashCode(maxGpa)) * 31 + (allowFailures ? 1 : 0)) * 31 + (includeTies ? 1 : 0);
+    }
+}
@@ -0,0 +1,207 @@
+package com.evaluation.evaluationsystem.analytics;
+
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Class ranks and honors lists by cumulative GPA within each year level, using the same GPA as
+ * the student dashboard (unit-weighted over graded subjects, from the {@link GradeArchive}).
+ * Lower is better: 1.0 is the top grade.
+ *
+ * Top-k lists keep a bounded heap of k students per year level while a parallel stream walks
+ * every student. For single-student lookups the sorted GPAs of each year level are kept per
+ * {@link RankingCriteria}, so a rank is a binary search; they are dropped on any grade change and
+ * on any student edit (a new year level moves the student to another group).
+ */
+public final class RankingService {
+
+    private static final RankingService INSTANCE = new RankingService();
+
+    // Best first; equal GPAs in student id order so lists are stable
+    private static final Comparator<Candidate> BEST_FIRST =
+            Comparator.comparingDouble((Candidate c) -> c.gpa).thenComparing(c -> c.student.getId());
+
+    private static final class Candidate {
+        final Student student;
+        final AcademicSummary summary;
+        final double gpa;
+
+        Candidate(Student student, AcademicSummary summary) {
+            this.student = student;
+            this.summary = summary;
+            this.gpa = summary.getGpa();
+        }
+    }
+
+    // The k best of one year level; the worst kept student is at the head of the heap
+    private static final class TopK {
+        final int k;
+        final PriorityQueue<Candidate> heap;
+
+        TopK(int k) {
+            this.k = k;
+            this.heap = new PriorityQueue<>(Math.min(k, 1024), BEST_FIRST.reversed()); // k may be "everyone"
+        }
+
+        void offer(Candidate candidate) {
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (BEST_FIRST.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        TopK merge(TopK other) {
+            other.heap.forEach(this::offer);
+            return this;
+        }
+    }
+
+    // Year level -> GPAs of the qualifying students, ascending (best first), and the generation it was read in
+    private static final class Standings {
+        final long generation;
+        final Map<String, double[]> byYear;
+
+        Standings(long generation, Map<String, double[]> byYear) {
+            this.generation = generation;
+            this.byYear = byYear;
+        }
+    }
+
+    private final Map<RankingCriteria, Standings> standings = new ConcurrentHashMap<>();
+
+    // Bumped on every change; a table computed from data read before the bump is never served
+    private final AtomicLong generation = new AtomicLong();
+
+    private RankingService() {
+        DataStorage.addEnrollmentListener(studentId -> invalidate());
+        DataStorage.addStudentListener(studentId -> invalidate());
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        standings.clear();
+    }
+
+    public static RankingService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The k best students of each year level who meet the criteria, best first, by year level.
+     * With ties included, a list runs past k when several students share the k-th place.
+     */
+    public Map<String, List<RankedStudent>> topK(int k, RankingCriteria criteria) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        long readIn = generation.get(); // Before reading, so a change during the read is not cached
+        List<Candidate> candidates = candidates(criteria);
+        Map<String, TopK> tops = candidates.parallelStream().collect(HashMap::new,
+                (map, candidate) -> map.computeIfAbsent(candidate.student.getYearLevel(), y -> new TopK(k)).offer(candidate),
+                (left, right) -> right.forEach((year, top) -> left.merge(year, top, TopK::merge)));
+        Map<String, double[]> table = standings(criteria, candidates, readIn);
+
+        Map<String, List<RankedStudent>> result = new TreeMap<>();
+        tops.forEach((year, top) -> {
+            List<Candidate> selected = new ArrayList<>(top.heap);
+            if (criteria.isIncludeTies() && top.heap.size() == k) {
+                double cutOff = top.heap.peek().gpa;
+                candidates.parallelStream()
+                        .filter(c -> c.gpa == cutOff && year.equals(c.student.getYearLevel()) && !top.heap.contains(c))
+                        .collect(Collectors.toList())
+                        .forEach(selected::add);
+            }
+            selected.sort(BEST_FIRST);
+            double[] yearGpas = table.get(year);
+            List<RankedStudent> ranked = new ArrayList<>(selected.size());
+            for (Candidate candidate : selected) {
+                ranked.add(ranked(candidate, yearGpas));
+            }
+            result.put(year, ranked);
+        });
+        return result;
+    }
+
+    // The student's place within their year level, or empty if they do not meet the criteria
+    public Optional<RankedStudent> rankOf(String studentId, RankingCriteria criteria) {
+        Optional<Student> student = DataStorage.getStudentById(studentId);
+        if (!student.isPresent()) {
+            return Optional.empty();
+        }
+        Candidate candidate = new Candidate(student.get(), GradeArchive.getInstance().summary(studentId));
+        if (!criteria.qualifies(candidate.summary)) {
+            return Optional.empty();
+        }
+        double[] yearGpas = standings(criteria, null, generation.get()).get(student.get().getYearLevel());
+        return Optional.of(ranked(candidate, yearGpas != null ? yearGpas : new double[]{candidate.gpa}));
+    }
+
+    private static RankedStudent ranked(Candidate candidate, double[] yearGpas) {
+        Student student = candidate.student;
+        return new RankedStudent(student.getId(), student.getFirstName() + " " + student.getLastName(),
+                student.getYearLevel(), candidate.gpa, candidate.summary.getGradedUnits(),
+                1 + countBetter(yearGpas, candidate.gpa), yearGpas.length);
+    }
+
+    // Number of GPAs strictly better (lower) than this one
+    private static int countBetter(double[] sorted, double gpa) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < gpa) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Reuses the candidate list when the caller already has one (read in the given generation)
+    private Map<String, double[]> standings(RankingCriteria criteria, List<Candidate> known, long readIn) {
+        Standings cached = standings.get(criteria);
+        if (cached != null && cached.generation == generation.get()) {
+            return cached.byYear;
+        }
+        List<Candidate> candidates = known != null ? known : candidates(criteria);
+        Map<String, double[]> table = new HashMap<>();
+        candidates.stream()
+                .collect(Collectors.groupingBy(candidate -> candidate.student.getYearLevel()))
+                .forEach((year, group) -> {
+                    double[] gpas = group.stream().mapToDouble(candidate -> candidate.gpa).toArray();
+                    Arrays.sort(gpas);
+                    table.put(year, gpas);
+                });
+        // A table read in an older generation is still right for this caller, but is only kept if
+        // nothing changed since; otherwise the next lookup reads again
+        if (readIn == generation.get()) {
+            standings.put(criteria, new Standings(readIn, table));
+        }
+        return table;
+    }
+
+    // Every student who meets the criteria
+    private static List<Candidate> candidates(RankingCriteria criteria) {
+        Map<String, AcademicSummary> summaries = GradeArchive.getInstance().summaries();
+        return DataStorage.getAllStudents().parallelStream()
+                .map(student -> new Candidate(student, summaries.getOrDefault(student.getId(), AcademicSummary.EMPTY)))
+                .filter(candidate -> criteria.qualifies(candidate.summary))
+                .collect(Collectors.toList());
+    }
+}
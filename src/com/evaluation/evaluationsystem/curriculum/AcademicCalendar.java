@@ -0,0 +1,74 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+/**
+ * Term progression rules shared by single-student enrollment and the batch jobs.
+ */
+public final class AcademicCalendar {
+
+    // Most units a student may enroll in for one term
+    public static final int MAX_UNITS_PER_SEMESTER = 26;
+
+    private AcademicCalendar() {
+    }
+
+    /**
+     * The term that follows the given one. Prints nothing, so batch jobs can call it for every student;
+     * callers report a null themselves.
+     * @return {nextYear, nextSemester}, or null if there is none (after 4th Year) or the term is unknown.
+     */
+    public static String[] nextTerm(String currentYear, String currentSemester) {
+        String nextYear = currentYear;
+        String nextSemester = currentSemester; // Start with current as fallback
+
+        if (currentSemester == null || currentYear == null) {
+            return null; // Cannot determine next term
+        }
+
+        // Logic based on common progression
+        if (currentSemester.equals("1st Semester")) {
+            nextSemester = "2nd Semester";
+            // Year stays the same
+        } else if (currentSemester.equals("2nd Semester")) {
+            nextSemester = "1st Semester"; // Moving to next year's first sem
+            switch (currentYear) {
+                case "1st Year": nextYear = "2nd Year"; break;
+                case "2nd Year": nextYear = "3rd Year"; break;
+                case "3rd Year": nextYear = "4th Year"; break;
+                case "4th Year":
+                    // What happens after 4th year, 2nd sem? Graduation or stop?
+                    return null; // Or handle graduation state
+                default:
+                    return null; // Cannot determine next year
+            }
+        } else if (currentSemester.equals("Summer")) {
+            // Assuming Summer comes after 2nd Sem, leads into next year's 1st Sem
+            // This might need adjustment based on specific rules
+            nextSemester = "1st Semester";
+            switch (currentYear) {
+                // Assuming summer might happen after 1st, 2nd, or 3rd year
+                case "1st Year": nextYear = "2nd Year"; break;
+                case "2nd Year": nextYear = "3rd Year"; break;
+                case "3rd Year": nextYear = "4th Year"; break;
+                case "4th Year": // Unlikely to have summer after 4th year 2nd sem
+                    return null;
+                default:
+                    return null;
+            }
+        } else {
+            return null; // Cannot determine next term
+        }
+
+        return new String[]{nextYear, nextSemester};
+    }
+
+    // The year level after this one, past 4th Year too ("5th Year", ...); null if it is not of that form
+    public static String yearAfter(String yearLevel) {
+        if (yearLevel == null || !yearLevel.matches("\\d+(st|nd|rd|th) Year")) {
+            return null;
+        }
+        int next = Integer.parseInt(yearLevel.substring(0, yearLevel.indexOf(' ')).replaceAll("\\D", "")) + 1;
+        String suffix = next % 100 >= 11 && next % 100 <= 13 ? "th"
+                : next % 10 == 1 ? "st" : next % 10 == 2 ? "nd" : next % 10 == 3 ? "rd" : "th";
+        return next + suffix + " Year";
+    }
+}
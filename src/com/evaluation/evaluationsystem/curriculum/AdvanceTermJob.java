@@ -0,0 +1,223 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import com.evaluation.evaluationsystem.analytics.AcademicSummary;
+import com.evaluation.evaluationsystem.analytics.GradeArchive;
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.EnrolledSubject;
+import com.evaluation.evaluationsystem.models.Enrollment;
+import com.evaluation.evaluationsystem.models.Student;
+import com.evaluation.evaluationsystem.models.Subject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Moves every student to their next term at once, as each would by enrolling from the dashboard:
+ * mandatory retakes first, then eligible subjects in curriculum order up to the unit cap.
+ * {@link #plan()} reads every student's history once, works out the plans in parallel (a fork-join
+ * parallel stream) on those copies and changes nothing, so its report doubles as a dry run; {@link #apply()} then saves all new enrollments and
+ * student terms as one unit of work, i.e. a single write of each data file. Subjects with sections
+ * take a seat through the {@link SeatLedger}; when every section is full the student is put on the
+ * subject's waitlist instead.
+ */
+public final class AdvanceTermJob {
+
+    /** What the job does for one student: the subjects to enroll in, or why the student is skipped. */
+    public static final class StudentPlan {
+        private final Student student;
+        private final int fromTerm;
+        private final String nextYear;
+        private final String nextSemester;
+        private final List<Subject> subjects;
+        private final List<Subject> leftOut;
+        private final int retakeCount;
+        private final String skipReason;
+
+        private StudentPlan(Student student, String nextYear, String nextSemester, List<Subject> subjects,
+                            List<Subject> leftOut, int retakeCount, String skipReason) {
+            this.student = student;
+            this.fromTerm = student.getTermCode();
+            this.nextYear = nextYear;
+            this.nextSemester = nextSemester;
+            this.subjects = subjects;
+            this.leftOut = leftOut;
+            this.retakeCount = retakeCount;
+            this.skipReason = skipReason;
+        }
+
+        private static StudentPlan skipped(Student student, String reason) {
+            return new StudentPlan(student, null, null, Collections.emptyList(), Collections.emptyList(), 0, reason);
+        }
+
+        public String getStudentId() { return student.getId(); }
+        public String getStudentName() { return student.getFirstName() + " " + student.getLastName(); }
+        public String getNextYear() { return nextYear; }
+        public String getNextSemester() { return nextSemester; }
+        public List<Subject> getSubjects() { return subjects; } // Mandatory retakes first
+        public List<Subject> getLeftOut() { return leftOut; } // Eligible but over the unit cap
+        public int getRetakeCount() { return retakeCount; }
+        public String getSkipReason() { return skipReason; }
+        public boolean isSkipped() { return skipReason != null; }
+
+        public int getUnits() {
+            return subjects.stream().mapToInt(Subject::getUnits).sum();
+        }
+    }
+
+    private final List<StudentPlan> plans;
+
+    private AdvanceTermJob(List<StudentPlan> plans) {
+        this.plans = plans;
+    }
+
+    // Works out the next term of every student; nothing is saved
+    public static AdvanceTermJob plan() {
+        SubjectCatalog catalog = SubjectCatalog.current();
+        GradeArchive archive = GradeArchive.getInstance();
+        // Read everything up front: the archive and the repository serve one caller at a time,
+        // so the parallel part below only works on these copies
+        List<Student> students = DataStorage.getAllStudents();
+        Map<String, AcademicSummary> summaries = archive.summaries();
+        Map<String, StudentProgress.History> histories = new HashMap<>();
+        for (Student student : students) {
+            histories.put(student.getId(), StudentProgress.History.read(archive, student.getId()));
+        }
+        List<StudentPlan> plans = students.parallelStream()
+                .map(student -> planFor(student, catalog,
+                        summaries.getOrDefault(student.getId(), AcademicSummary.EMPTY), histories.get(student.getId())))
+                .collect(Collectors.toList());
+        return new AdvanceTermJob(plans);
+    }
+
+    private static StudentPlan planFor(Student student, SubjectCatalog catalog, AcademicSummary summary,
+                                       StudentProgress.History history) {
+        if (summary.getInProgressSubjects() > 0) {
+            return StudentPlan.skipped(student, "has subjects without a grade yet");
+        }
+        String[] nextTerm = AcademicCalendar.nextTerm(student.getYearLevel(), student.getSemester());
+        if (nextTerm == null) {
+            return StudentPlan.skipped(student, "no term after " + student.getYearLevel() + " - " + student.getSemester());
+        }
+        Eligibility eligibility = Eligibility.forTerm(StudentProgress.of(catalog, history), nextTerm[0], nextTerm[1]);
+
+        List<Subject> subjects = new ArrayList<>(eligibility.getMandatoryRetakes());
+        int units = subjects.stream().mapToInt(Subject::getUnits).sum();
+        if (units > AcademicCalendar.MAX_UNITS_PER_SEMESTER) {
+            return StudentPlan.skipped(student, "mandatory retakes (" + units + " units) exceed the maximum of "
+                    + AcademicCalendar.MAX_UNITS_PER_SEMESTER);
+        }
+        List<Subject> leftOut = new ArrayList<>();
+        for (Subject subject : eligibility.getEligible()) {
+            if (units + subject.getUnits() <= AcademicCalendar.MAX_UNITS_PER_SEMESTER) {
+                subjects.add(subject);
+                units += subject.getUnits();
+            } else {
+                leftOut.add(subject); // A smaller subject later on may still fit
+            }
+        }
+        if (subjects.isEmpty()) {
+            return StudentPlan.skipped(student, "no subjects to take in " + nextTerm[0] + " - " + nextTerm[1]);
+        }
+        return new StudentPlan(student, nextTerm[0], nextTerm[1], subjects, leftOut,
+                eligibility.getMandatoryRetakes().size(), null);
+    }
+
+    public List<StudentPlan> getPlans() {
+        return Collections.unmodifiableList(plans);
+    }
+
+    public int getEnrollCount() {
+        return (int) plans.stream().filter(plan -> !plan.isSkipped()).count();
+    }
+
+    public int getSkipCount() {
+        return plans.size() - getEnrollCount();
+    }
+
+    /**
+     * Saves the planned enrollments and the students' new terms in one unit of work.
+     * Students whose term changed since {@link #plan()} are left alone, as are students for whom
+     * every planned subject is full.
+     * @return The number of students enrolled.
+     */
+    public int apply() {
+        SeatLedger ledger = SeatLedger.getInstance();
+        List<StudentPlan> waitlisted = new ArrayList<>();
+        List<Subject> fullSubjects = new ArrayList<>(); // Parallel to waitlisted
+        int enrolled = DataStorage.callInTransaction(() -> {
+            int count = 0;
+            for (StudentPlan plan : plans) {
+                if (plan.isSkipped()) {
+                    continue;
+                }
+                Optional<Student> current = DataStorage.getStudentById(plan.getStudentId());
+                if (!current.isPresent() || current.get().getTermCode() != plan.fromTerm) {
+                    System.err.println("Skipping " + plan.getStudentId() + ": student changed since the plan was made.");
+                    continue;
+                }
+                List<EnrolledSubject> subjectsToEnroll = new ArrayList<>();
+                List<SeatLedger.Hold> holds = new ArrayList<>();
+                List<Subject> full = new ArrayList<>();
+                for (Subject subject : plan.subjects) {
+                    SeatLedger.Hold hold = ledger.reserve(subject.getCode(), plan.nextYear, plan.nextSemester);
+                    if (hold == null) {
+                        full.add(subject);
+                        continue;
+                    }
+                    holds.add(hold);
+                    subjectsToEnroll.add(new EnrolledSubject(subject.getCode(), subject.getName(), subject.getUnits(),
+                            0.0, hold.getSection()));
+                }
+                if (subjectsToEnroll.isEmpty()) {
+                    System.err.println("Skipping " + plan.getStudentId() + ": every section of the planned subjects is full.");
+                    continue;
+                }
+                ledger.enroll(new Enrollment(plan.getStudentId(), plan.nextYear, plan.nextSemester,
+                        "Enrolled", subjectsToEnroll), holds, current.get());
+                for (Subject subject : full) {
+                    waitlisted.add(plan);
+                    fullSubjects.add(subject);
+                }
+                count++;
+            }
+            return count;
+        });
+        // After the unit is saved, so the enrollments the waitlists add to exist
+        for (int i = 0; i < waitlisted.size(); i++) {
+            StudentPlan plan = waitlisted.get(i);
+            ledger.joinWaitlist(plan.getStudentId(), fullSubjects.get(i).getCode(), plan.nextYear, plan.nextSemester);
+        }
+        System.out.println("Advance term: enrolled " + enrolled + " student(s), " + waitlisted.size() + " waitlisted for full subjects.");
+        return enrolled;
+    }
+
+    // Plain-text summary of the plan, one line per student
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Students to enroll: ").append(getEnrollCount())
+                .append("\nStudents skipped: ").append(getSkipCount()).append("\n\n");
+        for (StudentPlan plan : plans) {
+            report.append(plan.getStudentId()).append(" - ").append(plan.getStudentName()).append(": ");
+            if (plan.isSkipped()) {
+                report.append("skipped, ").append(plan.getSkipReason()).append("\n");
+                continue;
+            }
+            report.append(plan.getNextYear()).append(" - ").append(plan.getNextSemester()).append(", ")
+                    .append(plan.getSubjects().size()).append(" subject(s), ").append(plan.getUnits()).append(" units");
+            if (plan.getRetakeCount() > 0) {
+                report.append(", ").append(plan.getRetakeCount()).append(" retake(s)");
+            }
+            if (!plan.getLeftOut().isEmpty()) {
+                report.append(", over the unit cap: ")
+                        .append(plan.getLeftOut().stream().map(Subject::getCode).collect(Collectors.joining(", ")));
+            }
+            report.append("\n");
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import com.evaluation.evaluationsystem.models.Subject;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A student's remaining subjects laid out term by term, as made by {@link DegreePlanner}.
+ */
+public final class DegreePlan {
+
+    /** The subjects planned for one term; empty when nothing can be taken that term. */
+    public static final class PlannedTerm {
+        private final String yearLevel;
+        private final String semester;
+        private final List<Subject> subjects;
+
+        PlannedTerm(String yearLevel, String semester, List<Subject> subjects) {
+            this.yearLevel = yearLevel;
+            this.semester = semester;
+            this.subjects = Collections.unmodifiableList(subjects);
+        }
+
+        public String getYearLevel() { return yearLevel; }
+        public String getSemester() { return semester; }
+        public List<Subject> getSubjects() { return subjects; }
+
+        public int getUnits() {
+            return subjects.stream().mapToInt(Subject::getUnits).sum();
+        }
+    }
+
+    private final String studentId;
+    private final List<PlannedTerm> terms;
+    private final List<Subject> unplaceable;
+    private final int criticalPathTerms;
+
+    DegreePlan(String studentId, List<PlannedTerm> terms, List<Subject> unplaceable, int criticalPathTerms) {
+        this.studentId = studentId;
+        this.terms = Collections.unmodifiableList(terms);
+        this.unplaceable = Collections.unmodifiableList(unplaceable);
+        this.criticalPathTerms = criticalPathTerms;
+    }
+
+    public String getStudentId() { return studentId; }
+    public List<PlannedTerm> getTerms() { return terms; }
+
+    // Subjects that can never be scheduled: a prerequisite is not in the catalog, or they are never offered
+    public List<Subject> getUnplaceable() { return unplaceable; }
+
+    // Longest remaining prerequisite chain, in terms: no plan can take fewer terms than this
+    public int getCriticalPathTerms() { return criticalPathTerms; }
+
+    public boolean isComplete() {
+        return unplaceable.isEmpty();
+    }
+
+    public int getRemainingUnits() {
+        return terms.stream().mapToInt(PlannedTerm::getUnits).sum();
+    }
+
+    // The last planned term, e.g. "4th Year - 2nd Semester"; null if nothing is left to plan
+    public String getFinalTerm() {
+        if (terms.isEmpty()) {
+            return null;
+        }
+        PlannedTerm last = terms.get(terms.size() - 1);
+        return last.getYearLevel() + " - " + last.getSemester();
+    }
+
+    // Plain-text plan, one block per term
+    public String describe() {
+        StringBuilder text = new StringBuilder();
+        if (terms.isEmpty() && unplaceable.isEmpty()) {
+            return "All subjects are completed or in progress.\n";
+        }
+        text.append("Remaining units: ").append(getRemainingUnits())
+                .append(" over ").append(terms.size()).append(" term(s)")
+                .append(" (longest prerequisite chain: ").append(criticalPathTerms).append(" term(s))\n");
+        if (getFinalTerm() != null) {
+            text.append("Earliest finish: ").append(getFinalTerm()).append("\n");
+        }
+        for (PlannedTerm term : terms) {
+            text.append("\n").append(term.getYearLevel()).append(" - ").append(term.getSemester())
+                    .append(" (").append(term.getUnits()).append(" units)\n");
+            if (term.getSubjects().isEmpty()) {
+                text.append("  (nothing can be taken this term)\n");
+            }
+            for (Subject subject : term.getSubjects()) {
+                text.append("  ").append(subject.getCode()).append(" - ").append(subject.getName())
+                        .append(" (").append(subject.getUnits()).append(")\n");
+            }
+        }
+        if (!unplaceable.isEmpty()) {
+            text.append("\nCannot be scheduled (missing prerequisite or never offered):\n");
+            for (Subject subject : unplaceable) {
+                text.append("  ").append(subject.getCode()).append(" - ").append(subject.getName()).append("\n");
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.Student;
+import com.evaluation.evaluationsystem.models.Subject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lays out the fastest route to graduation: each remaining subject goes in the earliest term
+ * whose semester offers it, after every prerequisite is done, with at most
+ * {@link AcademicCalendar#MAX_UNITS_PER_SEMESTER} units per term. When not everything fits,
+ * subjects at the head of the longest prerequisite chains go first, since they decide how many
+ * terms are left. Chain lengths are memoized once per catalog, so a plan is a cheap greedy pass
+ * and whole cohorts can be planned at once ({@link #planAll()}). A Summer term is added after a
+ * 2nd Semester only if a Summer subject can be taken then.
+ */
+public final class DegreePlanner {
+
+    private static volatile DegreePlanner current;
+
+    // A plan longer than this means the data is inconsistent; stop instead of looping
+    private static final int MAX_TERMS = 40;
+
+    private final SubjectCatalog catalog;
+    private final SubjectSet subjects; // Indexes that have a subject (not just a prerequisite code)
+    private final int[] chainLength; // Terms from taking a subject to finishing all its dependents
+
+    private DegreePlanner(SubjectCatalog catalog) {
+        this.catalog = catalog;
+        this.subjects = catalog.emptySet();
+        this.chainLength = new int[catalog.size()];
+        for (int i = 0; i < catalog.size(); i++) {
+            if (catalog.hasSubject(i)) {
+                subjects.add(i);
+            }
+            chainLength(i);
+        }
+    }
+
+    // The planner for the current catalog
+    public static DegreePlanner current() {
+        SubjectCatalog catalog = SubjectCatalog.current();
+        DegreePlanner planner = current;
+        if (planner == null || planner.catalog != catalog) {
+            planner = new DegreePlanner(catalog);
+            current = planner;
+        }
+        return planner;
+    }
+
+    // Memoized longest path down the dependents; 0 marks "not known yet", -1 "being computed"
+    private int chainLength(int index) {
+        if (chainLength[index] > 0) {
+            return chainLength[index];
+        }
+        if (chainLength[index] < 0) {
+            return 0; // Back on a prerequisite cycle (bad data); count the chain only once
+        }
+        chainLength[index] = -1;
+        int longest = 0;
+        SubjectSet dependents = catalog.dependentSet(index);
+        for (int d = dependents.next(0); d >= 0; d = dependents.next(d + 1)) {
+            longest = Math.max(longest, chainLength(d));
+        }
+        chainLength[index] = longest + 1;
+        return chainLength[index];
+    }
+
+    // Plans every student's remaining subjects in parallel, by student id
+    public static Map<String, DegreePlan> planAll() {
+        DegreePlanner planner = current();
+        return DataStorage.getAllStudents().parallelStream()
+                .collect(Collectors.toMap(Student::getId, planner::plan, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    // Plans the terms after the student's current one; subjects in progress count as done
+    public DegreePlan plan(Student student) {
+        StudentProgress progress = StudentProgress.of(catalog, student.getId());
+        SubjectSet done = progress.passedSet().or(progress.getInProgress());
+        SubjectSet remaining = subjects.andNot(done);
+        SubjectSet failed = progress.failedSet();
+
+        int criticalPath = 0;
+        for (int i = remaining.next(0); i >= 0; i = remaining.next(i + 1)) {
+            criticalPath = Math.max(criticalPath, chainLength[i]);
+        }
+
+        List<DegreePlan.PlannedTerm> terms = new ArrayList<>();
+        String[] term = following(student.getYearLevel(), student.getSemester(), false);
+        int idleTerms = 0;
+        while (term != null && !remaining.isEmpty() && idleTerms < 3 && terms.size() < MAX_TERMS) {
+            List<Integer> picked = pick(remaining, done, failed, term[1]);
+            List<Subject> termSubjects = new ArrayList<>();
+            for (int index : picked) {
+                remaining.remove(index);
+                termSubjects.add(catalog.subject(index));
+            }
+            for (int index : picked) {
+                done.add(index); // Only usable as a prerequisite from the next term on
+            }
+            terms.add(new DegreePlan.PlannedTerm(term[0], term[1], termSubjects));
+            idleTerms = picked.isEmpty() ? idleTerms + 1 : 0;
+
+            boolean summer = "2nd Semester".equals(term[1]) && !pick(remaining, done, failed, "Summer").isEmpty();
+            term = following(term[0], term[1], summer);
+        }
+        while (!terms.isEmpty() && terms.get(terms.size() - 1).getSubjects().isEmpty()) {
+            terms.remove(terms.size() - 1); // Waiting terms at the end lead nowhere
+        }
+
+        List<Subject> unplaceable = new ArrayList<>();
+        for (int i = remaining.next(0); i >= 0; i = remaining.next(i + 1)) {
+            unplaceable.add(catalog.subject(i));
+        }
+        return new DegreePlan(student.getId(), terms, unplaceable, criticalPath);
+    }
+
+    // Subjects for one term: retakes first, then the longest chains, filled up to the unit cap
+    private List<Integer> pick(SubjectSet remaining, SubjectSet done, SubjectSet failed, String semester) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = remaining.next(0); i >= 0; i = remaining.next(i + 1)) {
+            if (catalog.isOfferedIn(i, semester) && catalog.prerequisiteSet(i).isSubsetOf(done)) {
+                candidates.add(i);
+            }
+        }
+        candidates.sort(Comparator.<Integer>comparingInt(i -> failed.contains(i) ? 0 : 1)
+                .thenComparing(Comparator.<Integer>comparingInt(i -> chainLength[i]).reversed())
+                .thenComparing(Comparator.<Integer>comparingInt(catalog::units).reversed())
+                .thenComparingInt(i -> i));
+
+        List<Integer> picked = new ArrayList<>();
+        int units = 0;
+        for (int index : candidates) {
+            if (units + catalog.units(index) <= AcademicCalendar.MAX_UNITS_PER_SEMESTER) {
+                picked.add(index);
+                units += catalog.units(index);
+            }
+        }
+        return picked;
+    }
+
+    // The term after this one; like AcademicCalendar.nextTerm, but it can stop at Summer and goes past 4th Year
+    private static String[] following(String yearLevel, String semester, boolean summer) {
+        if ("1st Semester".equals(semester)) {
+            return new String[]{yearLevel, "2nd Semester"};
+        }
+        if ("2nd Semester".equals(semester) && summer) {
+            return new String[]{yearLevel, "Summer"};
+        }
+        if ("2nd Semester".equals(semester) || "Summer".equals(semester)) {
+            String nextYear = AcademicCalendar.yearAfter(yearLevel);
+            return nextYear == null ? null : new String[]{nextYear, "1st Semester"};
+        }
+        return null;
+    }
+}
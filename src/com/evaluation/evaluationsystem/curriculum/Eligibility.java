@@ -0,0 +1,90 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import com.evaluation.evaluationsystem.models.Subject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a student may enroll in for a term: the subjects scheduled for that term plus failed
+ * subjects offered in the same semester, sorted into
+ * - mandatory retakes: failed and not passed since
+ * - eligible: not taken yet, every prerequisite passed
+ * - ineligible: not taken yet, with the prerequisites still missing
+ * Subjects already passed are left out. Shared by the enrollment dialog and the batch jobs.
+ */
+public final class Eligibility {
+
+    private final String yearLevel;
+    private final String semester;
+    private final List<Subject> eligible = new ArrayList<>();
+    private final List<Subject> ineligible = new ArrayList<>();
+    private final List<Subject> mandatoryRetakes = new ArrayList<>();
+    private final Map<String, List<String>> missingPrerequisites = new LinkedHashMap<>();
+    private final SubjectSet eligibleSet;
+    private final SubjectSet retakeSet;
+
+    private Eligibility(StudentProgress progress, String yearLevel, String semester) {
+        this.yearLevel = yearLevel;
+        this.semester = semester;
+        SubjectCatalog catalog = progress.getCatalog();
+        SubjectSet passed = progress.passedSet();
+        SubjectSet failed = progress.failedSet();
+
+        // Failed subjects come back in any year level, but only in the semester they are offered
+        SubjectSet retakes = catalog.emptySet();
+        for (int i = failed.next(0); i >= 0; i = failed.next(i + 1)) {
+            if (catalog.isOfferedIn(i, semester)) {
+                retakes.add(i);
+            }
+        }
+        SubjectSet scheduled = catalog.subjectsInTerm(yearLevel, semester);
+        SubjectSet open = scheduled.andNot(passed).andNot(failed);
+        eligibleSet = catalog.emptySet();
+        retakeSet = retakes;
+
+        for (int i = open.next(0); i >= 0; i = open.next(i + 1)) {
+            SubjectSet missing = catalog.prerequisiteSet(i).andNot(passed);
+            if (missing.isEmpty()) {
+                eligibleSet.add(i);
+                eligible.add(catalog.subject(i));
+            } else {
+                ineligible.add(catalog.subject(i));
+                List<String> codes = new ArrayList<>();
+                for (int m = missing.next(0); m >= 0; m = missing.next(m + 1)) {
+                    codes.add(catalog.code(m));
+                }
+                missingPrerequisites.put(catalog.code(i), codes);
+            }
+        }
+        for (int i = retakes.next(0); i >= 0; i = retakes.next(i + 1)) {
+            mandatoryRetakes.add(catalog.subject(i));
+        }
+    }
+
+    public static Eligibility forTerm(StudentProgress progress, String yearLevel, String semester) {
+        return new Eligibility(progress, yearLevel, semester);
+    }
+
+    public String getYearLevel() { return yearLevel; }
+    public String getSemester() { return semester; }
+    public List<Subject> getEligible() { return eligible; }
+    public List<Subject> getIneligible() { return ineligible; }
+    public List<Subject> getMandatoryRetakes() { return mandatoryRetakes; }
+
+    // As index sets of the student's catalog, for batch jobs
+    public SubjectSet getEligibleSet() { return eligibleSet.copy(); }
+    public SubjectSet getRetakeSet() { return retakeSet.copy(); }
+
+    // Prerequisite codes not passed yet, for a subject in getIneligible(); empty for any other
+    public List<String> getMissingPrerequisites(String subjectCode) {
+        return missingPrerequisites.getOrDefault(subjectCode, Collections.emptyList());
+    }
+
+    public boolean isEmpty() {
+        return eligible.isEmpty() && ineligible.isEmpty() && mandatoryRetakes.isEmpty();
+    }
+}
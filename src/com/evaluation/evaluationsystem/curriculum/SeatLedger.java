@@ -0,0 +1,550 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.EnrolledSubject;
+import com.evaluation.evaluationsystem.models.Enrollment;
+import com.evaluation.evaluationsystem.models.RosterEntry;
+import com.evaluation.evaluationsystem.models.Section;
+import com.evaluation.evaluationsystem.models.Student;
+import com.evaluation.evaluationsystem.models.Subject;
+import com.evaluation.evaluationsystem.models.Term;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Seats in the sections of subjects that have them ({@link Subject#getSections()}), counted per
+ * term (year level and semester). A student takes a seat in the term of the enrollment that lists
+ * the subject, whether or not it is graded yet, for as long as that is the student's current term;
+ * seats of a term free up when its students drop the subject or move on to the next term.
+ *
+ * Each section has one counter of taken and held seats, changed only by compare-and-set, so any
+ * number of enrollments (dialogs, batch jobs) can reserve seats at once without a shared lock and
+ * a section never goes over its capacity. {@link #reserve} holds a seat; {@link #enroll} saves the
+ * enrollment and turns its holds into taken seats in the same unit of work, and {@link #release}
+ * gives back a hold that is not needed.
+ *
+ * Counts are read from the class list the first time a subject is used. After that the ledger's
+ * own enrollments update them directly; other changes (grades, edited enrollments, deleted students,
+ * edited sections) only mark the subject through DataStorage's listeners, and it is recounted under
+ * the storage lock before its next use. A student moved to a new term by {@link #enroll(Enrollment,
+ * Collection, Student)} has their seats moved along directly; other student edits mark the subjects
+ * of that student's enrollments. Reading the seats ({@link #describeSeats}) never changes data.
+ *
+ * Students who find every section full can join the subject's waitlist. Whenever a change to the
+ * ledger finds seats free, waitlisted students are moved in, in order, before anyone else gets them.
+ * Waitlists are kept in memory only.
+ */
+public final class SeatLedger {
+
+    private static final SeatLedger INSTANCE = new SeatLedger();
+
+    // One section's counter: taken seats in bits 32-62, held seats in bits 0-31, and RETIRED once
+    // the subject's sections were replaced (reservers then move to the new counters)
+    private static final long TAKEN = 1L << 32;
+    private static final long HELD_MASK = TAKEN - 1;
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    // Set while this thread saves an enrollment of its own, whose seat changes the ledger applies itself
+    private static final ThreadLocal<Boolean> OWN_WRITE = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Boolean> FILLING = ThreadLocal.withInitial(() -> false);
+
+    /** A seat held for an enrollment that is not saved yet; section is null for subjects without sections. */
+    public static final class Hold {
+        private final String subjectKey;
+        private final String subjectCode;
+        private final int term;
+        private final String section;
+        private final AtomicBoolean open;
+
+        private Hold(String subjectKey, String subjectCode, int term, String section) {
+            this.subjectKey = subjectKey;
+            this.subjectCode = subjectCode;
+            this.term = term;
+            this.section = section;
+            this.open = new AtomicBoolean(section != null);
+        }
+
+        public String getSubjectCode() { return subjectCode; }
+        public String getSection() { return section; }
+    }
+
+    // The sections of one subject and their counters per term code; replaced as a whole on every recount
+    private static final class SubjectSeats {
+        final List<Section> sections;
+        final Map<Integer, AtomicLongArray> counters = new HashMap<>(); // Filled before it is published
+
+        SubjectSeats(List<Section> sections) {
+            this.sections = sections;
+        }
+
+        int indexOf(String sectionName) {
+            for (int i = 0; i < sections.size(); i++) {
+                if (sections.get(i).getName().equalsIgnoreCase(sectionName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class WaitlistEntry {
+        final String studentId;
+        final int term; // The enrollment the subject is to be added to
+
+        WaitlistEntry(String studentId, int term) {
+            this.studentId = studentId;
+            this.term = term;
+        }
+    }
+
+    private final Map<String, SubjectSeats> seats = new ConcurrentHashMap<>();
+    private final Map<String, Deque<WaitlistEntry>> waitlists = new ConcurrentHashMap<>();
+
+    // Written by the listeners without taking any lock, like GradeStore
+    private final Set<String> staleSubjects = ConcurrentHashMap.newKeySet();
+
+    // Subjects found with free seats by a read-only recount; their waitlists move at the next change
+    private final Set<String> unfilledSubjects = ConcurrentHashMap.newKeySet();
+
+    // Students edited behind the ledger's back; their subjects are marked stale before the next use
+    private final Set<String> changedStudents = ConcurrentHashMap.newKeySet();
+
+    private SeatLedger() {
+        DataStorage.addRosterListener(this::rosterChanged);
+        DataStorage.addStudentListener(this::studentChanged);
+        DataStorage.addSubjectListener(() -> staleSubjects.addAll(seats.keySet()));
+    }
+
+    public static SeatLedger getInstance() {
+        return INSTANCE;
+    }
+
+    private void rosterChanged(String subjectCode) {
+        if (OWN_WRITE.get()) {
+            return;
+        }
+        if (subjectCode == null) {
+            staleSubjects.addAll(seats.keySet());
+        } else {
+            staleSubjects.add(subjectKey(subjectCode));
+        }
+    }
+
+    private void studentChanged(String studentId) {
+        if (OWN_WRITE.get()) {
+            return;
+        }
+        if (studentId == null) {
+            staleSubjects.addAll(seats.keySet());
+        } else {
+            changedStudents.add(studentId); // Their enrollments cannot be read here without the storage lock
+        }
+    }
+
+    // A student whose term changed takes seats in the subjects of one term and gives up the others'
+    private void markChangedStudents() {
+        for (String studentId : changedStudents) {
+            changedStudents.remove(studentId); // Before reading, so a change from here on marks it again
+            for (Enrollment enrollment : DataStorage.getEnrollmentsForStudent(studentId)) {
+                for (EnrolledSubject subject : enrollment.getSubjects()) {
+                    String key = subjectKey(subject.getCode());
+                    if (subject.getSection() != null && seats.containsKey(key)) {
+                        staleSubjects.add(key);
+                    }
+                }
+            }
+        }
+    }
+
+    // --- Seats ---
+
+    /**
+     * Holds a seat, for an enrollment in the given term, in the section of the subject with the most
+     * free seats in that term.
+     * @return The hold (with no section for subjects without sections), or null if every section is full.
+     */
+    public Hold reserve(String subjectCode, String yearLevel, String semester) {
+        return reserve(subjectCode, Term.of(yearLevel, semester));
+    }
+
+    private Hold reserve(String subjectCode, int term) {
+        String key = subjectKey(subjectCode);
+        while (true) {
+            SubjectSeats current = seatsFor(key, subjectCode, term, true);
+            if (current.sections.isEmpty()) {
+                return new Hold(key, subjectCode, term, null);
+            }
+            AtomicLongArray counters = current.counters.get(term);
+            int best = -1;
+            long bestCounter = 0;
+            int bestFree = 0;
+            boolean retired = false;
+            for (int i = 0; i < current.sections.size(); i++) {
+                long counter = counters.get(i);
+                if ((counter & RETIRED) != 0) {
+                    retired = true;
+                    break;
+                }
+                int free = current.sections.get(i).getCapacity() - taken(counter) - held(counter);
+                if (free > bestFree) {
+                    best = i;
+                    bestCounter = counter;
+                    bestFree = free;
+                }
+            }
+            if (retired) {
+                Thread.onSpinWait(); // The new sections are being put in place
+                continue;
+            }
+            if (best < 0) {
+                return null;
+            }
+            if (counters.compareAndSet(best, bestCounter, bestCounter + 1)) {
+                return new Hold(key, subjectCode, term, current.sections.get(best).getName());
+            }
+            // Another reservation got there first; look again
+        }
+    }
+
+    // Gives back a seat that will not be used; does nothing for a hold that was already used or released
+    public void release(Hold hold) {
+        if (!hold.open.compareAndSet(true, false)) {
+            return;
+        }
+        adjust(hold.subjectKey, hold.term, hold.section, -1);
+        fillFromWaitlist(hold.subjectCode);
+    }
+
+    /**
+     * Saves the enrollment (replacing the student's enrollment for that term, if any) and takes the
+     * seats of its subjects that have a section, in its term, using up the holds. Subjects given a
+     * section without a hold still take their seat, even past the capacity; they take none while
+     * the enrollment's term is not the student's current term.
+     * If saving fails the holds are released and the exception is rethrown.
+     */
+    public void enroll(Enrollment enrollment, Collection<Hold> holds) {
+        enroll(enrollment, holds, null);
+    }
+
+    /**
+     * Like {@link #enroll(Enrollment, Collection)}, and also moves the student to the enrollment's
+     * term and saves them in the same unit of work. The seats of the term they leave are given back.
+     */
+    public void enroll(Enrollment enrollment, Collection<Hold> holds, Student student) {
+        Set<String> freed = new HashSet<>();
+        try {
+            DataStorage.runInTransaction(() -> {
+                int term = enrollment.getTermCode();
+                int currentTerm = DataStorage.getStudentById(enrollment.getStudentId()).map(Student::getTermCode).orElse(-1);
+                int newTerm = student != null ? term : currentTerm;
+
+                // Seats counted now (enrollments of the current term) against seats counted afterwards
+                Map<String, Integer> changes = new HashMap<>();
+                if (term == newTerm) {
+                    seatCounts(enrollment).forEach((seat, count) -> changes.merge(seat, count, Integer::sum));
+                }
+                DataStorage.getEnrollmentsForStudent(enrollment.getStudentId()).stream()
+                        .filter(existing -> existing.getTermCode() == currentTerm
+                                && (existing.getTermCode() == term || currentTerm != newTerm))
+                        .findFirst()
+                        .ifPresent(left -> seatCounts(left).forEach((seat, count) -> changes.merge(seat, -count, Integer::sum)));
+
+                OWN_WRITE.set(true);
+                try {
+                    DataStorage.saveEnrollment(enrollment);
+                    if (student != null) {
+                        student.setYearLevel(enrollment.getYearLevel());
+                        student.setSemester(enrollment.getSemester());
+                        DataStorage.saveStudent(student);
+                    }
+                } finally {
+                    OWN_WRITE.set(false);
+                }
+
+                changes.forEach((seat, change) -> {
+                    String[] parts = seat.split("\n", 3);
+                    adjust(parts[0], Integer.parseInt(parts[1]), parts[2], change * TAKEN);
+                    if (change < 0) {
+                        freed.add(parts[0]);
+                    }
+                });
+                for (Hold hold : holds) {
+                    if (hold.open.compareAndSet(true, false)) {
+                        adjust(hold.subjectKey, hold.term, hold.section, -1);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            holds.forEach(this::release);
+            throw e;
+        }
+        freed.forEach(this::fillFromWaitlist);
+    }
+
+    // Free seats per section in the term, e.g. "A: 3 of 40 free, B: full"; empty for subjects without
+    // sections. Only reads: waitlisted students are not moved in from here
+    public String describeSeats(String subjectCode, String yearLevel, String semester) {
+        int term = Term.of(yearLevel, semester);
+        SubjectSeats current = seatsFor(subjectKey(subjectCode), subjectCode, term, false);
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < current.sections.size(); i++) {
+            Section section = current.sections.get(i);
+            long counter = current.counters.get(term).get(i);
+            int free = Math.max(0, section.getCapacity() - taken(counter) - held(counter));
+            parts.add(section.getName() + ": " + (free == 0 ? "full" : free + " of " + section.getCapacity() + " free"));
+        }
+        return String.join(", ", parts);
+    }
+
+    // Seats taken by saved enrollments in one section in the term; -1 if the subject has no such section
+    public int getTakenSeats(String subjectCode, String yearLevel, String semester, String sectionName) {
+        int term = Term.of(yearLevel, semester);
+        SubjectSeats current = seatsFor(subjectKey(subjectCode), subjectCode, term, false);
+        int index = current.indexOf(sectionName);
+        return index < 0 ? -1 : taken(current.counters.get(term).get(index));
+    }
+
+    // --- Waitlists ---
+
+    /**
+     * Puts the student in line for the subject, to be added to their enrollment for the given term
+     * when a seat frees up.
+     * @return The student's place in line (1 is next); their current place if they were already waiting.
+     */
+    public int joinWaitlist(String studentId, String subjectCode, String yearLevel, String semester) {
+        Deque<WaitlistEntry> waitlist = waitlists.computeIfAbsent(subjectKey(subjectCode), k -> new ConcurrentLinkedDeque<>());
+        synchronized (waitlist) { // Keeps one entry per student; moving students off the list does not lock
+            int position = getWaitlistPosition(studentId, subjectCode);
+            if (position > 0) {
+                return position;
+            }
+            waitlist.addLast(new WaitlistEntry(studentId, Term.of(yearLevel, semester)));
+        }
+        int position = getWaitlistPosition(studentId, subjectCode);
+        fillFromWaitlist(subjectCode); // In case a seat freed up in the meantime
+        return position;
+    }
+
+    // The student's place in line for the subject (1 is next), or 0 if not waiting
+    public int getWaitlistPosition(String studentId, String subjectCode) {
+        Deque<WaitlistEntry> waitlist = waitlists.get(subjectKey(subjectCode));
+        if (waitlist == null) {
+            return 0;
+        }
+        int position = 1;
+        for (WaitlistEntry entry : waitlist) {
+            if (entry.studentId.equals(studentId)) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    // Ids of the students waiting for the subject, next first
+    public List<String> getWaitlist(String subjectCode) {
+        Deque<WaitlistEntry> waitlist = waitlists.get(subjectKey(subjectCode));
+        if (waitlist == null) {
+            return Collections.emptyList();
+        }
+        return waitlist.stream().map(entry -> entry.studentId).collect(Collectors.toList());
+    }
+
+    /**
+     * Adds waitlisted students to the subject, in order, while their term has free seats. Students
+     * whose enrollment for that term no longer exists, who already take the subject, or who would go
+     * over the unit limit are dropped from the list. Students leave the list only once the unit of
+     * work that moves them in is saved (the caller's, if one is open); if it fails they keep their places.
+     * @return The ids of the students moved in.
+     */
+    public List<String> fillFromWaitlist(String subjectCode) {
+        Deque<WaitlistEntry> waitlist = waitlists.get(subjectKey(subjectCode));
+        if (waitlist == null || waitlist.isEmpty() || FILLING.get()) {
+            return Collections.emptyList();
+        }
+        List<String> moved = new ArrayList<>();
+        FILLING.set(true);
+        try {
+            DataStorage.runInTransaction(() -> {
+                Optional<Subject> subject = DataStorage.getSubjectByCode(subjectCode);
+                Set<Integer> fullTerms = new HashSet<>();
+                List<WaitlistEntry> done = new ArrayList<>(); // Moved in or dropped
+                for (WaitlistEntry entry : waitlist) {
+                    String studentId = entry.studentId;
+                    int term = entry.term;
+                    if (fullTerms.contains(term)) {
+                        continue; // Keeps its place
+                    }
+                    Optional<Enrollment> target = DataStorage.getEnrollmentsForStudent(studentId).stream()
+                            .filter(enrollment -> enrollment.getTermCode() == term)
+                            .findFirst();
+                    if (!subject.isPresent() || !target.isPresent()) {
+                        System.out.println("Dropping " + studentId + " from the " + subjectCode + " waitlist: no enrollment for that term.");
+                        done.add(entry);
+                        continue;
+                    }
+                    List<EnrolledSubject> subjects = new ArrayList<>(target.get().getSubjects());
+                    int units = subjects.stream().mapToInt(EnrolledSubject::getUnits).sum();
+                    if (subjects.stream().anyMatch(s -> subjectKey(s.getCode()).equals(subjectKey(subjectCode)))
+                            || units + subject.get().getUnits() > AcademicCalendar.MAX_UNITS_PER_SEMESTER) {
+                        System.out.println("Dropping " + studentId + " from the " + subjectCode + " waitlist: already enrolled or over the unit limit.");
+                        done.add(entry);
+                        continue;
+                    }
+                    Hold hold = reserve(subjectCode, term);
+                    if (hold == null) {
+                        fullTerms.add(term); // Later students waiting for this term keep their places too
+                        continue;
+                    }
+                    subjects.add(new EnrolledSubject(subject.get().getCode(), subject.get().getName(),
+                            subject.get().getUnits(), 0.0, hold.getSection()));
+                    enroll(new Enrollment(studentId, target.get().getYearLevel(), target.get().getSemester(),
+                            target.get().getStatus(), subjects), List.of(hold));
+                    System.out.println("Moved " + studentId + " off the " + subjectCode + " waitlist into section " + hold.getSection() + ".");
+                    done.add(entry);
+                    moved.add(studentId);
+                }
+                DataStorage.afterCommit(() -> done.forEach(waitlist::removeFirstOccurrence));
+            });
+        } finally {
+            FILLING.set(false);
+        }
+        return moved;
+    }
+
+    // --- Counting ---
+
+    // The subject's seats, recounted first if anything changed them behind the ledger's back or the
+    // term is not counted yet. With fill, waitlisted students are moved into seats found free
+    private SubjectSeats seatsFor(String key, String subjectCode, int term, boolean fill) {
+        if (!changedStudents.isEmpty()) {
+            markChangedStudents();
+        }
+        SubjectSeats current = seats.get(key);
+        if (current == null || staleSubjects.contains(key) || !current.counters.containsKey(term)) {
+            current = DataStorage.callInTransaction(() -> recount(key, subjectCode, term));
+        }
+        if (fill && !FILLING.get() && unfilledSubjects.remove(key)) {
+            fillFromWaitlist(subjectCode);
+        }
+        return current;
+    }
+
+    // Runs under the storage lock, so no enrollment is saved while the class list is read
+    private SubjectSeats recount(String key, String subjectCode, int term) {
+        staleSubjects.remove(key); // Before reading, so a change from here on marks it again
+        List<Section> sections = DataStorage.getSubjectByCode(subjectCode).map(Subject::getSections).orElse(Collections.emptyList());
+        SubjectSeats current = seats.get(key);
+        SubjectSeats counted = new SubjectSeats(sections);
+        Map<Integer, int[]> taken = new HashMap<>();
+        taken.put(term, new int[sections.size()]);
+        if (current != null) {
+            current.counters.keySet().forEach(t -> taken.putIfAbsent(t, new int[sections.size()]));
+        }
+        for (RosterEntry row : DataStorage.getRosterForSubject(subjectCode)) {
+            int rowTerm = Term.of(row.getYearLevel(), row.getSemester());
+            if (row.getStudent().getTermCode() != rowTerm || row.getSubject().getSection() == null) {
+                continue; // A past term's class, or no seat
+            }
+            int index = counted.indexOf(row.getSubject().getSection());
+            if (index >= 0) {
+                taken.computeIfAbsent(rowTerm, t -> new int[sections.size()])[index]++;
+            }
+        }
+        taken.forEach((t, counts) -> {
+            AtomicLongArray counters = new AtomicLongArray(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                counters.set(i, counts[i] * TAKEN);
+            }
+            counted.counters.put(t, counters);
+        });
+
+        if (current != null) {
+            // Retire the old counters, carry their holds over by term and section name, and note
+            // whether any section now has room it did not have before
+            boolean seatsFreed = false;
+            for (Map.Entry<Integer, AtomicLongArray> entry : current.counters.entrySet()) {
+                AtomicLongArray counters = counted.counters.get(entry.getKey());
+                long[] old = new long[current.sections.size()];
+                for (int i = 0; i < old.length; i++) {
+                    old[i] = entry.getValue().getAndUpdate(i, c -> c | RETIRED);
+                    int index = counted.indexOf(current.sections.get(i).getName());
+                    if (index >= 0) {
+                        counters.addAndGet(index, held(old[i]));
+                    }
+                }
+                for (int i = 0; i < sections.size(); i++) {
+                    int oldIndex = current.indexOf(sections.get(i).getName());
+                    int oldRoom = oldIndex < 0 ? 0 : current.sections.get(oldIndex).getCapacity() - taken(old[oldIndex]);
+                    seatsFreed |= sections.get(i).getCapacity() - taken(counters.get(i)) > oldRoom;
+                }
+            }
+            if (seatsFreed) {
+                unfilledSubjects.add(key);
+            }
+        }
+        seats.put(key, counted);
+        return counted;
+    }
+
+    // Adds to one section's counter in the term, following the subject to its new counters if they were replaced
+    private void adjust(String key, int term, String sectionName, long change) {
+        while (true) {
+            SubjectSeats current = seats.get(key);
+            AtomicLongArray counters = current == null ? null : current.counters.get(term);
+            int index = counters == null || sectionName == null ? -1 : current.indexOf(sectionName);
+            if (index < 0) {
+                return; // Not counted (yet): the next recount reads it from the class list
+            }
+            long counter = counters.get(index);
+            if ((counter & RETIRED) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (counters.compareAndSet(index, counter, counter + change)) {
+                return;
+            }
+        }
+    }
+
+    // Subjects with a section, graded or not, by subject key + "\n" + term code + "\n" + upper-cased
+    // section name; a subject listed twice counts once, as on the class list
+    private static Map<String, Integer> seatCounts(Enrollment enrollment) {
+        Map<String, Integer> counts = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (EnrolledSubject subject : enrollment.getSubjects()) {
+            String key = subjectKey(subject.getCode());
+            if (seen.add(key) && subject.getSection() != null) {
+                counts.merge(key + "\n" + enrollment.getTermCode() + "\n" + subject.getSection().toUpperCase(Locale.ROOT), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static int taken(long counter) {
+        return (int) ((counter & ~RETIRED) >>> 32);
+    }
+
+    private static int held(long counter) {
+        return (int) (counter & HELD_MASK);
+    }
+
+    private static String subjectKey(String code) {
+        return code == null ? "" : code.toUpperCase(Locale.ROOT); // As the repository keys its class lists
+    }
+}
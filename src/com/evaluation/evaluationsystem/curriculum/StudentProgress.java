@@ -0,0 +1,124 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import com.evaluation.evaluationsystem.analytics.GradeArchive;
+import com.evaluation.evaluationsystem.analytics.GradeStore;
+import com.evaluation.evaluationsystem.models.EnrolledSubject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A student's history as subject sets of one {@link SubjectCatalog}: the subjects passed
+ * (best graded attempt <= 3.0), those failed without a passing attempt since, and those
+ * taken for the first time and not graded yet.
+ * Subjects the catalog does not know are left out; see {@link #getPassedCodes()} for those.
+ */
+public final class StudentProgress {
+
+    private final SubjectCatalog catalog;
+    private final SubjectSet passed;
+    private final SubjectSet failed;
+    private final SubjectSet inProgress;
+    private final Set<String> passedCodes = new LinkedHashSet<>();
+
+    private StudentProgress(SubjectCatalog catalog) {
+        this.catalog = catalog;
+        this.passed = catalog.emptySet();
+        this.failed = catalog.emptySet();
+        this.inProgress = catalog.emptySet();
+    }
+
+    // Reads the student's history from the grade archive, which combines all attempts per subject
+    public static StudentProgress of(SubjectCatalog catalog, String studentId) {
+        return of(catalog, visitor -> GradeArchive.getInstance().forEachSubject(studentId, visitor));
+    }
+
+    // The same from a history read out earlier, without going back to the archive
+    public static StudentProgress of(SubjectCatalog catalog, History history) {
+        return of(catalog, history::replay);
+    }
+
+    private static StudentProgress of(SubjectCatalog catalog, Consumer<GradeArchive.SubjectVisitor> history) {
+        StudentProgress progress = new StudentProgress(catalog);
+        history.accept((code, units, best, worst, attempts) -> {
+            boolean hasPassed = best != EnrolledSubject.NO_GRADE && best <= GradeStore.PASSING_GRADE;
+            if (hasPassed) {
+                progress.passedCodes.add(code);
+            }
+            int index = catalog.indexOf(code);
+            if (index < 0) {
+                return;
+            }
+            if (hasPassed) {
+                progress.passed.add(index);
+            } else if (worst > GradeStore.PASSING_GRADE) {
+                progress.failed.add(index);
+            } else {
+                progress.inProgress.add(index); // Enrolled, no grade yet
+            }
+        });
+        return progress;
+    }
+
+    /**
+     * One student's subjects as the grade archive reported them, copied out so progress can be worked
+     * out later on plain data (e.g. for every student in parallel, without queuing on the archive's lock).
+     */
+    public static final class History {
+        private final List<String> codes = new ArrayList<>();
+        private final List<int[]> grades = new ArrayList<>(); // {units, best, worst, attempts} per code
+
+        public static History read(GradeArchive archive, String studentId) {
+            History history = new History();
+            archive.forEachSubject(studentId, (code, units, best, worst, attempts) -> {
+                history.codes.add(code);
+                history.grades.add(new int[]{units, best, worst, attempts});
+            });
+            return history;
+        }
+
+        private void replay(GradeArchive.SubjectVisitor visitor) {
+            for (int i = 0; i < codes.size(); i++) {
+                int[] g = grades.get(i);
+                visitor.visit(codes.get(i), g[0], g[1], g[2], g[3]);
+            }
+        }
+    }
+
+    public SubjectCatalog getCatalog() { return catalog; }
+    public SubjectSet getPassed() { return passed.copy(); }
+    public SubjectSet getFailed() { return failed.copy(); }
+    public SubjectSet getInProgress() { return inProgress.copy(); }
+
+    // Codes of every passed subject, including ones no longer in the catalog
+    public Set<String> getPassedCodes() { return new LinkedHashSet<>(passedCodes); }
+
+    public boolean hasPassed(int index) { return passed.contains(index); }
+    public boolean hasFailed(int index) { return failed.contains(index); }
+
+    // True if every prerequisite of the subject has been passed
+    public boolean meetsPrerequisites(int index) {
+        return catalog.prerequisiteSet(index).isSubsetOf(passed);
+    }
+
+    // Prerequisites of the subject not passed yet
+    public SubjectSet missingPrerequisites(int index) {
+        return catalog.prerequisiteSet(index).andNot(passed);
+    }
+
+    // Subjects not passed yet that need a failed subject first, directly or through others
+    public SubjectSet getBlocked() {
+        SubjectSet blocked = catalog.emptySet();
+        for (int i = failed.next(0); i >= 0; i = failed.next(i + 1)) {
+            blocked.addAll(catalog.allDependentSet(i));
+        }
+        return blocked.andNot(passed);
+    }
+
+    // Without copying, for the checks in this package
+    SubjectSet passedSet() { return passed; }
+    SubjectSet failedSet() { return failed; }
+}
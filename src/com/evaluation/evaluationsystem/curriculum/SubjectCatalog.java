@@ -0,0 +1,391 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.Subject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The subject list compiled into a prerequisite graph with dense subject indexes.
+ * Each subject's prerequisites are kept both as index lists (the DAG edges) and as a
+ * {@link SubjectSet}, so eligibility checks are bit operations instead of code lookups.
+ * The reverse edges (dependents) and the transitive closures both ways are compiled too,
+ * so "what requires this subject" and "what does a failure block" are lookups.
+ * Subjects are also indexed by term and by department; the lists those return are
+ * unmodifiable and shared by every caller, so treat their subjects as read-only.
+ * A catalog never changes once compiled; {@link #current()} compiles a new one after
+ * subjects are saved or deleted. Subject codes are matched case-insensitively.
+ *
+ * Prerequisite codes with no subject of their own still get an index (after the real
+ * subjects), so a student who passed a since-removed subject keeps meeting it.
+ */
+public final class SubjectCatalog {
+
+    private static volatile SubjectCatalog current;
+
+    // Bumped on every subject change; a catalog compiled before the latest bump is stale
+    private static final AtomicInteger VERSION = new AtomicInteger();
+
+    static {
+        DataStorage.addSubjectListener(VERSION::incrementAndGet);
+    }
+
+    private final int version;
+
+    private final Subject[] subjects; // Only the first subjectCount indexes have one
+    private final int subjectCount;
+    private final String[] codes;
+    private final Map<String, Integer> indexByCode;
+    private final int[][] prerequisiteIndexes;
+    private final SubjectSet[] prerequisiteSets;
+    private final SubjectSet[] dependentSets;
+    private final SubjectSet[] allPrerequisites; // Transitive closures
+    private final SubjectSet[] allDependents;
+    private final int[] termKeys;
+    private final Map<Integer, SubjectSet> termSets = new HashMap<>();
+    private final Map<Integer, List<Subject>> subjectsByTerm = new HashMap<>();
+    private final Map<String, List<Subject>> subjectsByDepartment = new HashMap<>();
+    private final Map<String, Integer> yearKeys = new HashMap<>();
+    private final Map<String, Integer> semesterKeys = new HashMap<>();
+
+    private SubjectCatalog(List<Subject> subjectList, int version) {
+        this.version = version;
+        Map<String, Integer> index = new HashMap<>(subjectList.size() * 2);
+        List<String> codeList = new ArrayList<>(subjectList.size());
+        List<Subject> kept = new ArrayList<>(subjectList.size());
+        for (Subject subject : subjectList) {
+            if (index.putIfAbsent(key(subject.getCode()), codeList.size()) == null) {
+                codeList.add(subject.getCode());
+                kept.add(subject);
+            }
+        }
+        subjectCount = kept.size();
+        for (Subject subject : kept) {
+            for (String prerequisite : subject.getPrerequisites()) {
+                if (index.putIfAbsent(key(prerequisite), codeList.size()) == null) {
+                    codeList.add(prerequisite);
+                }
+            }
+        }
+
+        int size = codeList.size();
+        subjects = kept.toArray(new Subject[size]);
+        codes = codeList.toArray(new String[0]);
+        indexByCode = index;
+        prerequisiteIndexes = new int[size][];
+        prerequisiteSets = new SubjectSet[size];
+        termKeys = new int[size];
+        for (int i = 0; i < size; i++) {
+            SubjectSet required = new SubjectSet(size);
+            if (i < subjectCount) {
+                for (String prerequisite : subjects[i].getPrerequisites()) {
+                    required.add(index.get(key(prerequisite)));
+                }
+                termKeys[i] = termKey(subjects[i].getYearLevel(), subjects[i].getSemester(), true);
+            } else {
+                termKeys[i] = -1;
+            }
+            prerequisiteSets[i] = required;
+            prerequisiteIndexes[i] = toArray(required);
+        }
+
+        dependentSets = new SubjectSet[size];
+        for (int i = 0; i < size; i++) {
+            dependentSets[i] = new SubjectSet(size);
+        }
+        for (int i = 0; i < size; i++) {
+            for (int prerequisite : prerequisiteIndexes[i]) {
+                dependentSets[prerequisite].add(i);
+            }
+        }
+        allPrerequisites = new SubjectSet[size];
+        allDependents = new SubjectSet[size];
+        compileClosures();
+        compileIndexes();
+    }
+
+    // Term and department lookups, in subject list order
+    private void compileIndexes() {
+        Map<Integer, List<Subject>> byTerm = new HashMap<>();
+        Map<String, List<Subject>> byDepartment = new HashMap<>();
+        for (int i = 0; i < subjectCount; i++) {
+            termSets.computeIfAbsent(termKeys[i], k -> emptySet()).add(i);
+            byTerm.computeIfAbsent(termKeys[i], k -> new ArrayList<>()).add(subjects[i]);
+            byDepartment.computeIfAbsent(key(subjects[i].getDepartment()), k -> new ArrayList<>()).add(subjects[i]);
+        }
+        byTerm.forEach((term, list) -> subjectsByTerm.put(term, Collections.unmodifiableList(list)));
+        byDepartment.forEach((department, list) -> subjectsByDepartment.put(department, Collections.unmodifiableList(list)));
+    }
+
+    // Walks the graph prerequisites-first, so each closure is the union of its neighbours' closures;
+    // subjects caught in a prerequisite cycle (bad data) get theirs by a plain search instead
+    private void compileClosures() {
+        int size = codes.length;
+        int[] order = new int[size];
+        int ordered = 0;
+        int[] waitingFor = new int[size];
+        for (int i = 0; i < size; i++) {
+            waitingFor[i] = prerequisiteIndexes[i].length;
+            if (waitingFor[i] == 0) {
+                order[ordered++] = i;
+            }
+        }
+        for (int head = 0; head < ordered; head++) {
+            SubjectSet dependents = dependentSets[order[head]];
+            for (int d = dependents.next(0); d >= 0; d = dependents.next(d + 1)) {
+                if (--waitingFor[d] == 0) {
+                    order[ordered++] = d;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (waitingFor[i] > 0) {
+                allPrerequisites[i] = reachable(i, prerequisiteSets);
+                allDependents[i] = reachable(i, dependentSets);
+            }
+        }
+        for (int n = 0; n < ordered; n++) {
+            int i = order[n];
+            SubjectSet closure = new SubjectSet(size);
+            for (int prerequisite : prerequisiteIndexes[i]) {
+                closure.add(prerequisite);
+                closure.addAll(allPrerequisites[prerequisite]);
+            }
+            allPrerequisites[i] = closure;
+        }
+        for (int n = ordered - 1; n >= 0; n--) {
+            int i = order[n];
+            SubjectSet dependents = dependentSets[i];
+            SubjectSet closure = dependents.copy();
+            for (int d = dependents.next(0); d >= 0; d = dependents.next(d + 1)) {
+                closure.addAll(allDependents[d]);
+            }
+            allDependents[i] = closure;
+        }
+    }
+
+    // Every subject reachable from start along the given edges
+    private SubjectSet reachable(int start, SubjectSet[] edges) {
+        SubjectSet seen = new SubjectSet(codes.length);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            SubjectSet next = edges[queue.poll()];
+            for (int i = next.next(0); i >= 0; i = next.next(i + 1)) {
+                if (!seen.contains(i)) {
+                    seen.add(i);
+                    queue.add(i);
+                }
+            }
+        }
+        return seen;
+    }
+
+    // The catalog of the subjects as they are now, compiled on first use after a change
+    public static SubjectCatalog current() {
+        SubjectCatalog catalog = current;
+        int version = VERSION.get();
+        if (catalog == null || catalog.version != version) {
+            // Read the version first: a change during the compile leaves this catalog stale for the next call
+            catalog = new SubjectCatalog(DataStorage.getAllSubjects(), version);
+            current = catalog;
+        }
+        return catalog;
+    }
+
+    // --- Subjects ---
+
+    // Number of indexes, including prerequisite codes that have no subject
+    public int size() {
+        return codes.length;
+    }
+
+    // Index of a subject or prerequisite code, or -1 if the catalog does not know it
+    public int indexOf(String code) {
+        Integer index = code == null ? null : indexByCode.get(key(code));
+        return index == null ? -1 : index;
+    }
+
+    public String code(int index) {
+        return codes[index];
+    }
+
+    // False for prerequisite codes that have no subject
+    public boolean hasSubject(int index) {
+        return index < subjectCount;
+    }
+
+    // A copy of the subject at this index, or null if there is none
+    public Subject subject(int index) {
+        if (!hasSubject(index)) {
+            return null;
+        }
+        Subject subject = subjects[index];
+        return new Subject(subject.getCode(), subject.getName(), subject.getUnits(), subject.getDepartment(),
+                subject.getYearLevel(), subject.getSemester(), subject.getPrerequisites(), subject.getSections());
+    }
+
+    public int units(int index) {
+        return hasSubject(index) ? subjects[index].getUnits() : 0;
+    }
+
+    public SubjectSet emptySet() {
+        return new SubjectSet(codes.length);
+    }
+
+    // --- Prerequisite Graph ---
+
+    // Direct prerequisites; do not modify the returned array
+    int[] prerequisiteIndexes(int index) {
+        return prerequisiteIndexes[index];
+    }
+
+    public SubjectSet prerequisites(int index) {
+        return prerequisiteSets[index].copy();
+    }
+
+    // Without copying, for the checks in this package
+    SubjectSet prerequisiteSet(int index) {
+        return prerequisiteSets[index];
+    }
+
+    // Subjects that list this one as a direct prerequisite
+    public SubjectSet dependents(int index) {
+        return dependentSets[index].copy();
+    }
+
+    // Without copying, for the checks in this package
+    SubjectSet dependentSet(int index) {
+        return dependentSets[index];
+    }
+
+    public boolean hasDependents(int index) {
+        return !dependentSets[index].isEmpty();
+    }
+
+    // Every subject needed, directly or through others, before this one
+    public SubjectSet allPrerequisites(int index) {
+        return allPrerequisites[index].copy();
+    }
+
+    // Every subject that needs this one, directly or through others: all a failure here blocks
+    public SubjectSet allDependents(int index) {
+        return allDependents[index].copy();
+    }
+
+    // Without copying, for the checks in this package
+    SubjectSet allDependentSet(int index) {
+        return allDependents[index];
+    }
+
+    // The prerequisite cycle that giving the subject these prerequisites would create, as codes
+    // where each requires the next (first and last are the subject); empty if there is none
+    public List<String> findCycle(String code, Collection<String> prerequisites) {
+        int subject = indexOf(code);
+        for (String prerequisite : prerequisites) {
+            int required = indexOf(prerequisite);
+            if (required < 0) {
+                continue; // Unknown codes cannot lead back
+            }
+            if (required == subject) {
+                return Arrays.asList(code, code);
+            }
+            if (subject >= 0 && allDependents[subject].contains(required)) {
+                return cycleThrough(subject, required);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    // subject, required, then back down the dependents chain from subject to required
+    private List<String> cycleThrough(int subject, int required) {
+        int[] reachedFrom = new int[codes.length];
+        Arrays.fill(reachedFrom, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(subject);
+        while (!queue.isEmpty() && reachedFrom[required] < 0) {
+            int current = queue.poll();
+            SubjectSet dependents = dependentSets[current];
+            for (int d = dependents.next(0); d >= 0; d = dependents.next(d + 1)) {
+                if (reachedFrom[d] < 0 && d != subject) {
+                    reachedFrom[d] = current;
+                    queue.add(d);
+                }
+            }
+        }
+        List<String> cycle = new ArrayList<>();
+        cycle.add(codes[subject]);
+        for (int i = required; i != subject; i = reachedFrom[i]) {
+            cycle.add(codes[i]);
+        }
+        cycle.add(codes[subject]);
+        return cycle;
+    }
+
+    // The codes of a set's subjects, in index order
+    public List<String> codes(SubjectSet set) {
+        List<String> result = new ArrayList<>(set.size());
+        for (int i = set.next(0); i >= 0; i = set.next(i + 1)) {
+            result.add(codes[i]);
+        }
+        return result;
+    }
+
+    // --- Terms ---
+
+    // Subjects scheduled for the term (year level and semester compared case-insensitively)
+    public SubjectSet subjectsInTerm(String yearLevel, String semester) {
+        SubjectSet result = termSets.get(termKey(yearLevel, semester, false));
+        return result == null ? emptySet() : result.copy();
+    }
+
+    // The same as a shared, unmodifiable list of subjects
+    public List<Subject> getSubjectsForTerm(String yearLevel, String semester) {
+        return subjectsByTerm.getOrDefault(termKey(yearLevel, semester, false), Collections.emptyList());
+    }
+
+    // Shared, unmodifiable list of a department's subjects (compared case-insensitively)
+    public List<Subject> getSubjectsInDepartment(String department) {
+        return subjectsByDepartment.getOrDefault(key(department), Collections.emptyList());
+    }
+
+    // True if the subject is offered in this semester of any year
+    public boolean isOfferedIn(int index, String semester) {
+        Integer semesterKey = semesterKeys.get(key(semester));
+        return hasSubject(index) && semesterKey != null && (termKeys[index] & 0xFFFF) == semesterKey;
+    }
+
+    // Year level and semester as one int for comparisons; -1 for a term no subject is in
+    private int termKey(String yearLevel, String semester, boolean add) {
+        Integer year = lookup(yearKeys, yearLevel, add);
+        Integer sem = lookup(semesterKeys, semester, add);
+        return year == null || sem == null ? -1 : year << 16 | sem;
+    }
+
+    private static Integer lookup(Map<String, Integer> keys, String value, boolean add) {
+        String key = key(value);
+        return add ? keys.computeIfAbsent(key, k -> keys.size()) : keys.get(key);
+    }
+
+    static String key(String code) {
+        return code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static int[] toArray(SubjectSet set) {
+        int[] result = new int[set.size()];
+        int n = 0;
+        for (int i = set.next(0); i >= 0; i = set.next(i + 1)) {
+            result[n++] = i;
+        }
+        return result;
+    }
+}
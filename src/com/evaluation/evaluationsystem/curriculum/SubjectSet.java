@@ -0,0 +1,154 @@
+package com.evaluation.evaluationsystem.curriculum;
+
+import java.util.Arrays;
+
+/**
+ * Set of subjects of one {@link SubjectCatalog}, one bit per dense subject index.
+ * Set operations work a 64-bit word at a time, so checking a subject's prerequisites
+ * against a student's passed subjects is a few AND-NOTs, not a string lookup per code.
+ * Only combine sets built for the same catalog.
+ */
+public final class SubjectSet {
+
+    private final long[] words;
+
+    SubjectSet(int capacity) {
+        this.words = new long[(capacity + 63) >>> 6];
+    }
+
+    private SubjectSet(long[] words) {
+        this.words = words;
+    }
+
+    void add(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    void remove(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    // Adds every subject of the other set to this one
+    void addAll(SubjectSet other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.word(i);
+        }
+    }
+
+    public boolean contains(int index) {
+        return index >= 0 && (index >>> 6) < words.length && (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    // True if every subject of this set is also in the other one
+    public boolean isSubsetOf(SubjectSet other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & ~other.word(i)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean intersects(SubjectSet other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.word(i)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // New set: the subjects of this set that are not in the other one
+    public SubjectSet andNot(SubjectSet other) {
+        long[] result = words.clone();
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= ~other.word(i);
+        }
+        return new SubjectSet(result);
+    }
+
+    // New set: the subjects in both sets
+    public SubjectSet and(SubjectSet other) {
+        long[] result = words.clone();
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= other.word(i);
+        }
+        return new SubjectSet(result);
+    }
+
+    // New set: the subjects in either set
+    public SubjectSet or(SubjectSet other) {
+        long[] result = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            result[i] |= other.words[i];
+        }
+        return new SubjectSet(result);
+    }
+
+    // Index of the first subject at or after from, or -1; loop with next(i + 1)
+    public int next(int from) {
+        int w = from >>> 6;
+        if (from < 0 || w >= words.length) {
+            return -1;
+        }
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    SubjectSet copy() {
+        return new SubjectSet(words.clone());
+    }
+
+    // Missing words read as empty, so sets of different lengths still combine
+    private long word(int i) {
+        return i < words.length ? words[i] : 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SubjectSet)) {
+            return false;
+        }
+        SubjectSet other = (SubjectSet) o;
+        for (int i = 0; i < Math.max(words.length, other.words.length); i++) {
+            if (word(i) != other.word(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < words.length; i++) {
+            hash += (i + 1) * Long.hashCode(words[i]); // Empty words add nothing, as equals ignores them
+        }
+        return hash;
+    }
+}
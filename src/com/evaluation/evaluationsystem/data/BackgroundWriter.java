@@ -0,0 +1,57 @@
+package com.evaluation.evaluationsystem.data;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounced trigger for the asynchronous persistence mode.
+ * The repository marks what changed and calls {@link #schedule()}; a single daemon thread then
+ * runs the flush once changes stop arriving for DEBOUNCE_MS, so a burst of edits to the same
+ * file becomes one write. MAX_DELAY_MS caps how long a steady stream of edits can postpone it.
+ * A shutdown hook runs a last flush when the application exits.
+ */
+class BackgroundWriter {
+
+    private static final long DEBOUNCE_MS = Long.getLong("evaluation.persistence.debounceMillis", 250L);
+    private static final long MAX_DELAY_MS = Long.getLong("evaluation.persistence.maxDelayMillis", 2000L);
+
+    private final Runnable flush;
+    private final ScheduledExecutorService executor;
+
+    private ScheduledFuture<?> pending;
+    private long firstChangeAt;
+
+    /**
+     * @param flush writes everything marked so far; must take the repository lock itself
+     */
+    BackgroundWriter(Runnable flush) {
+        this.flush = flush;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(flush, "data-writer-shutdown"));
+    }
+
+    // Called after each change: (re)starts the debounce timer, without passing the max delay
+    synchronized void schedule() {
+        long now = System.currentTimeMillis();
+        if (pending == null) {
+            firstChangeAt = now;
+        } else {
+            pending.cancel(false);
+        }
+        long delay = Math.max(0, Math.min(DEBOUNCE_MS, firstChangeAt + MAX_DELAY_MS - now));
+        pending = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void run() {
+        synchronized (this) {
+            pending = null;
+        }
+        flush.run();
+    }
+}
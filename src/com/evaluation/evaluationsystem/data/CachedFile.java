@@ -0,0 +1,318 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.utils.JsonReader;
+import com.evaluation.evaluationsystem.utils.JsonUtils;
+import com.evaluation.evaluationsystem.utils.JsonWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Holds the parsed contents of one data file as typed model objects.
+ * The file is parsed on first access and again only when its modification time
+ * or size changes on disk (e.g. someone edited the JSON by hand while the app is running).
+ * Records are kept in a map keyed by their primary key (insertion order = file order),
+ * so the map doubles as the primary-key index: lookups and upserts are O(1).
+ * Mutations are made on the live map and written through with {@link #save()}.
+ */
+class CachedFile<T> {
+
+    private final String filename;
+    private final Function<T, String> keyOf;
+    private final ItemReader<T> reader;
+    private final String rootKey;
+    private final ItemWriter<T> writer;
+
+    private LoadListener<T> loadListener;
+    private Runnable saveListener;
+    private boolean optional = false;
+    private SnapshotFile<T> snapshot;
+    private String sequenceKey;
+
+    private LinkedHashMap<String, T> items;
+    private long version = 0;
+    private long sequence = 0;
+    private long preparedSequence = 0;
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+
+    CachedFile(String filename, Function<T, String> keyOf,
+               ItemReader<T> reader, String rootKey, ItemWriter<T> writer) {
+        this.filename = filename;
+        this.keyOf = keyOf;
+        this.reader = reader;
+        this.rootKey = rootKey;
+        this.writer = writer;
+    }
+
+    // Binds one record (the reader is positioned at its object) straight into a model object;
+    // returns null to skip the record
+    interface ItemReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    // Streams one record into the file being written
+    interface ItemWriter<T> {
+        void write(JsonWriter out, T item) throws IOException;
+    }
+
+    // Called with the freshly parsed records after every (re)load, before anyone can read them
+    interface LoadListener<T> {
+        void loaded(LinkedHashMap<String, T> items);
+    }
+
+    void setLoadListener(LoadListener<T> listener) {
+        this.loadListener = listener;
+    }
+
+    // Called after the full file was written successfully
+    void setSaveListener(Runnable listener) {
+        this.saveListener = listener;
+    }
+
+    // Files that only exist while they hold records (e.g. enrollment shards): a missing file reads as
+    // empty without a warning, and saving an empty one deletes it
+    void setOptional(boolean optional) {
+        this.optional = optional;
+    }
+
+    // Binary copy used to skip JSON parsing when it matches the file (see SnapshotFile)
+    void setSnapshot(SnapshotFile<T> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    // Numbers the saves: the file stores how many times it was written under this top-level key,
+    // so something kept next to it (e.g. the enrollment journal) can tell which save it belongs to
+    void setSequenceKey(String key) {
+        this.sequenceKey = key;
+    }
+
+    // Save sequence of the loaded file (0 for a file that never stored one)
+    long sequence() {
+        return sequence;
+    }
+
+    boolean isLoaded() {
+        return items != null;
+    }
+
+    // Returns the live map (key -> record), reloading it first if the file changed on disk
+    LinkedHashMap<String, T> get() {
+        if (items == null || isStale()) {
+            reload();
+        }
+        return items;
+    }
+
+    // Inserts or replaces a record, keeping its original position when it already exists.
+    // Returns the record it replaced, if any. Does not re-check the file; callers go through get() first.
+    T put(T item) {
+        return (items != null ? items : get()).put(keyOf.apply(item), item);
+    }
+
+    String keyOf(T item) {
+        return keyOf.apply(item);
+    }
+
+    // Incremented on every (re)load so derived indexes know when to rebuild
+    long version() {
+        return version;
+    }
+
+    // Writes the current in-memory contents back to the file as {"rootKey": [records...]}, after the save sequence if numbered.
+    // If the write fails the cache is dropped, so the next read reflects what is really on disk.
+    void save() {
+        commitSave(prepareSave());
+    }
+
+    /**
+     * First half of a save: writes the contents to a temp file, leaving the data file untouched.
+     * Returns null when there is nothing to write (not loaded, or an empty optional file, which
+     * commitSave deletes instead). Used by UnitOfWork to write several files as one unit.
+     */
+    Path prepareSave() {
+        if (items == null || (optional && items.isEmpty())) {
+            return null;
+        }
+        Collection<T> records = items.values();
+        preparedSequence = sequence + 1;
+        try {
+            return JsonUtils.prepareJSON(filename, out -> {
+                out.beginObject();
+                if (sequenceKey != null) {
+                    out.name(sequenceKey).value(preparedSequence);
+                }
+                out.name(rootKey).beginArray();
+                for (T item : records) {
+                    writer.write(out, item);
+                }
+                out.endArray().endObject();
+            });
+        } catch (IOException e) {
+            invalidate();
+            throw new UncheckedIOException("Could not save " + filename + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Second half of a save: moves the prepared file into place
+    void commitSave(Path prepared) {
+        commitSave(prepared, true);
+    }
+
+    // With notify = false the save listener is left to a later saved() call (after the rest of a unit of work)
+    void commitSave(Path prepared, boolean notify) {
+        if (items == null) {
+            return; // Nothing loaded, nothing to write
+        }
+        if (prepared == null) {
+            delete(); // Optional file without records
+        } else {
+            try {
+                JsonUtils.commitJSON(prepared, filename);
+            } catch (IOException e) {
+                invalidate();
+                throw new UncheckedIOException("Could not save " + filename + ": " + e.getMessage(), e);
+            }
+            recordStamp();
+            if (sequenceKey != null) {
+                sequence = preparedSequence;
+            }
+            if (snapshot != null) {
+                snapshot.write(items.values(), sequence, loadedModified, loadedSize);
+            }
+        }
+        if (notify) {
+            saved();
+        }
+    }
+
+    void saved() {
+        if (saveListener != null) {
+            saveListener.run();
+        }
+    }
+
+    String getFilename() {
+        return filename;
+    }
+
+    // Empties the cache and removes the file; a missing file reads as empty
+    void delete() {
+        try {
+            Files.deleteIfExists(JsonUtils.getDataFile(filename));
+        } catch (IOException e) {
+            invalidate();
+            throw new UncheckedIOException("Could not delete " + filename + ": " + e.getMessage(), e);
+        }
+        items = new LinkedHashMap<>();
+        recordStamp();
+        if (snapshot != null) {
+            snapshot.delete();
+        }
+    }
+
+    // Forces the next access to re-read the file
+    void invalidate() {
+        items = null;
+    }
+
+    private void reload() {
+        recordStamp(); // Stamp before reading so a concurrent external edit is picked up next time
+        LinkedHashMap<String, T> loaded = new LinkedHashMap<>();
+        List<T> records = null;
+        sequence = 0;
+        if (loadedModified == -1) {
+            records = optional ? new ArrayList<>() : null; // Missing file: let readRecords report it
+        } else if (snapshot != null) {
+            SnapshotFile.Contents<T> contents = snapshot.read(loadedModified, loadedSize);
+            if (contents != null) {
+                records = contents.records;
+                sequence = contents.sequence;
+            }
+        }
+        if (records == null) {
+            records = readRecords();
+            if (records == null) {
+                records = new ArrayList<>(); // Unreadable file loads as empty
+            } else if (snapshot != null && loadedModified != -1) {
+                snapshot.write(records, sequence, loadedModified, loadedSize); // Next start can skip the parse
+            }
+        }
+        for (T item : records) {
+            // Duplicate keys in the file: the first record wins, as lookups always returned the first match
+            loaded.putIfAbsent(keyOf.apply(item), item);
+        }
+        if (loadListener != null) {
+            loadListener.loaded(loaded);
+        }
+        items = loaded;
+        version++;
+    }
+
+    // Streams the records of {"rootKey": [...]} (and the save sequence) straight into model objects;
+    // other members are skipped.
+    // Returns null if the file is missing or could not be read completely.
+    private List<T> readRecords() {
+        List<T> records = new ArrayList<>();
+        boolean complete = JsonUtils.readJSON(filename, in -> {
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (name.equals(sequenceKey) && in.peek() == JsonReader.Token.NUMBER) {
+                    sequence = in.nextLong();
+                    continue;
+                }
+                if (!name.equals(rootKey) || in.peek() != JsonReader.Token.BEGIN_ARRAY) {
+                    in.skipValue();
+                    continue;
+                }
+                records.clear(); // A repeated root key replaces the earlier one
+                in.beginArray();
+                while (in.hasNext()) {
+                    if (in.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                        in.skipValue(); // Not a record
+                        continue;
+                    }
+                    T item = reader.read(in);
+                    if (item != null) {
+                        records.add(item);
+                    }
+                }
+                in.endArray();
+            }
+            in.endObject();
+        });
+        return complete ? records : null;
+    }
+
+    private boolean isStale() {
+        BasicFileAttributes attrs = readAttributes();
+        if (attrs == null) {
+            return loadedModified != -1; // File disappeared since it was loaded
+        }
+        return attrs.lastModifiedTime().toMillis() != loadedModified || attrs.size() != loadedSize;
+    }
+
+    private void recordStamp() {
+        BasicFileAttributes attrs = readAttributes();
+        loadedModified = attrs != null ? attrs.lastModifiedTime().toMillis() : -1;
+        loadedSize = attrs != null ? attrs.size() : -1;
+    }
+
+    private BasicFileAttributes readAttributes() {
+        Path path = JsonUtils.getDataFile(filename);
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null; // Missing file is treated the same as an empty one
+        }
+    }
+}
@@ -0,0 +1,958 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.*;
+import com.evaluation.evaluationsystem.utils.JsonReader;
+import com.evaluation.evaluationsystem.utils.JsonUtils;
+import com.evaluation.evaluationsystem.utils.JsonWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * JSON backend of {@link StorageBackend}, the default storage behind {@link DataStorage}.
+ * Each of the five data files is parsed once into model objects and served from memory;
+ * every mutation updates the in-memory records and is written through to disk immediately.
+ * Grade changes and enrollment saves are appended to {@link EnrollmentJournal} instead of
+ * rewriting enrollments.json; the journal is replayed on load and compacted in the background.
+ * With -Devaluation.enrollments.sharded=true enrollments are instead kept in one file per student
+ * ({@link EnrollmentShards}), migrated from enrollments.json on first start.
+ * Point lookups and upserts go through primary-key indexes (student id, teacher id,
+ * case-insensitive subject code, and studentId + yearLevel + semester for enrollments).
+ * Callers always receive copies, so editing a returned object never changes the cache
+ * until it is passed back through a save method.
+ */
+class DataRepository implements StorageBackend {
+
+    private static final DataRepository INSTANCE = new DataRepository();
+
+    // Each cached file is keyed by its primary key, which doubles as the lookup index
+    private final CachedFile<User> users = new CachedFile<>("users.json", User::getUsername,
+            DataRepository::readUser,
+            "users", DataRepository::writeUser);
+    private final CachedFile<Student> students = new CachedFile<>("students.json", Student::getId,
+            DataRepository::readStudent,
+            "students", DataRepository::writeStudent);
+    private final CachedFile<Teacher> teachers = new CachedFile<>("teachers.json", Teacher::getId,
+            DataRepository::readTeacher,
+            "teachers", DataRepository::writeTeacher);
+    private final CachedFile<Subject> subjects = new CachedFile<>("subjects.json", s -> subjectKey(s.getCode()),
+            DataRepository::readSubject,
+            "subjects", DataRepository::writeSubject);
+    private final CachedFile<Enrollment> enrollments = new CachedFile<>("enrollments.json",
+            e -> enrollmentKey(e.getStudentId(), e.getTermCode()),
+            DataRepository::readEnrollment,
+            "enrollments", DataRepository::writeEnrollment);
+
+    // Open unit of work; while set, writes are deferred to its commit
+    private UnitOfWork transaction;
+
+    // Asynchronous persistence: changes are only marked here and written by the background writer
+    private boolean asyncWrites = "async".equalsIgnoreCase(System.getProperty("evaluation.persistence"));
+    private BackgroundWriter backgroundWriter;
+    private final Set<CachedFile<?>> dirty = new LinkedHashSet<>();
+    private final List<EnrollmentJournal.Record> pendingJournal = new ArrayList<>();
+    private RuntimeException lastWriteFailure;
+    private Consumer<RuntimeException> writeFailureHandler;
+
+    // Write-ahead log for enrollments.json; compaction writes the snapshot, which resets the journal
+    private final EnrollmentJournal journal = new EnrollmentJournal("enrollments.journal", enrollments::sequence, this::compactJournal);
+
+    // Optional per-student layout; null when all enrollments live in enrollments.json
+    private final EnrollmentShards shards;
+
+    // Secondary indexes over enrollments, rebuilt when the file is (re)loaded and maintained on every write:
+    // studentId -> that student's enrollments in file order
+    private Map<String, List<Enrollment>> enrollmentsByStudent = new HashMap<>();
+    // subject key -> every (enrollment, enrolled subject) pair that lists the subject
+    private Map<String, List<RosterRef>> rosterBySubject = new HashMap<>();
+    private long enrollmentIndexVersion = -1;
+
+    // Points at the live cached objects, so grade updates are visible without touching the index
+    private static class RosterRef {
+        final Enrollment enrollment;
+        final EnrolledSubject subject;
+
+        RosterRef(Enrollment enrollment, EnrolledSubject subject) {
+            this.enrollment = enrollment;
+            this.subject = subject;
+        }
+    }
+
+    private DataRepository() {
+        UnitOfWork.recover(); // Before anything is read: a crash may have left a unit half-applied
+        if (SnapshotFile.ENABLED) {
+            // Binary copies of the large files so startup does not have to parse their JSON
+            students.setSnapshot(new SnapshotFile<>("students.json", SnapshotCodecs.STUDENT));
+            subjects.setSnapshot(new SnapshotFile<>("subjects.json", SnapshotCodecs.SUBJECT));
+            enrollments.setSnapshot(new SnapshotFile<>("enrollments.json", SnapshotCodecs.ENROLLMENT));
+        }
+        enrollments.setSequenceKey("saveSequence"); // Tells the journal which snapshot it continues
+        enrollments.setLoadListener(this::replayJournal);
+        enrollments.setSaveListener(journal::reset);
+        shards = Boolean.getBoolean("evaluation.enrollments.sharded") ? openShards() : null;
+    }
+
+    // Opens the per-student layout, splitting enrollments.json (and its journal) into it on first use
+    private EnrollmentShards openShards() {
+        EnrollmentShards sharded = new EnrollmentShards("enrollments", enrollments::keyOf,
+                DataRepository::readEnrollment,
+                DataRepository::writeEnrollment);
+        if (sharded.exists()) {
+            sharded.renameLegacyFiles();
+            return sharded;
+        }
+        try {
+            sharded.migrate(enrollments.get().values());
+            journal.reset();
+            Path single = JsonUtils.getDataFile("enrollments.json");
+            if (Files.exists(single)) {
+                // Kept as a backup; the single-file layout is no longer read once the shards exist
+                Files.move(single, single.resolveSibling("enrollments.json.pre-sharding"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            enrollments.invalidate();
+            System.out.println("Migrated enrollments.json to one file per student in data/enrollments/");
+            return sharded;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not migrate enrollments to the sharded layout, using enrollments.json: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static DataRepository getInstance() {
+        return INSTANCE;
+    }
+
+    // Subject codes are compared case-insensitively everywhere
+    static String subjectKey(String code) {
+        return code == null ? "" : code.toUpperCase(Locale.ROOT);
+    }
+
+    // Composite primary key of an enrollment: one record per student per term (a Term code)
+    static String enrollmentKey(String studentId, int term) {
+        return studentId + '\u001F' + term;
+    }
+
+    // --- Units of work ---
+
+    /**
+     * Runs several operations as one unit: each data file they change is written once at the end,
+     * and if the work or the write fails no file is changed (see {@link UnitOfWork#commit}) and the
+     * cached data is re-read from disk.
+     * The repository stays locked for the whole unit. Nested calls join the enclosing unit.
+     */
+    public synchronized <T> T inTransaction(Supplier<T> work) {
+        if (transaction != null) {
+            return work.get();
+        }
+        // A rollback re-reads every touched file, so changes still waiting for the background
+        // writer must be on disk first or they would be dropped along with the unit's own
+        flushPendingWrites();
+        UnitOfWork unit = new UnitOfWork();
+        transaction = unit;
+        T result;
+        try {
+            result = work.get();
+            transaction = null;
+            unit.commit();
+        } catch (RuntimeException | Error e) {
+            transaction = null;
+            unit.rollback();
+            throw e;
+        }
+        unit.runAfterCommit();
+        return result;
+    }
+
+    public synchronized void afterCommit(Runnable action) {
+        if (transaction != null) {
+            transaction.afterCommit(action);
+        } else {
+            action.run();
+        }
+    }
+
+    // Writes a changed file now, at commit when a unit of work is open, or soon on the background writer
+    private void persist(CachedFile<?> file) {
+        if (transaction != null) {
+            transaction.add(file);
+        } else if (asyncWrites) {
+            dirty.add(file);
+            backgroundWriter().schedule();
+        } else {
+            file.save();
+        }
+    }
+
+    // --- Asynchronous persistence ---
+
+    /**
+     * In asynchronous mode mutations update memory and return immediately; a background thread
+     * writes each changed file once per burst of changes. Turning it off writes what is pending.
+     */
+    public synchronized void setAsyncWrites(boolean async) {
+        if (!async) {
+            flushPendingWrites();
+        }
+        asyncWrites = async;
+    }
+
+    // Blocks until every change made so far is written (and forced to disk); rethrows a failed background write
+    public synchronized void awaitWrites() {
+        flushPendingWrites();
+        JsonUtils.syncPending();
+        RuntimeException failure = lastWriteFailure;
+        lastWriteFailure = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Runs on the background writer (and at exit): journal batch first, then every dirty file once
+    private synchronized void flushPendingWrites() {
+        if (!pendingJournal.isEmpty()) {
+            List<EnrollmentJournal.Record> batch = new ArrayList<>(pendingJournal);
+            pendingJournal.clear();
+            if (!dirty.contains(enrollments)) { // Otherwise the snapshot below already contains them
+                try {
+                    writeJournal(batch);
+                } catch (RuntimeException e) {
+                    recordWriteFailure(e);
+                }
+            }
+        }
+        for (CachedFile<?> file : new ArrayList<>(dirty)) {
+            dirty.remove(file);
+            try {
+                file.save();
+            } catch (RuntimeException e) {
+                recordWriteFailure(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void setWriteFailureHandler(Consumer<RuntimeException> handler) {
+        writeFailureHandler = handler;
+    }
+
+    private void recordWriteFailure(RuntimeException e) {
+        // save() has already dropped the cache, so memory now matches what is on disk again
+        System.err.println("Background save failed, the change was not saved: " + e.getMessage());
+        lastWriteFailure = e;
+        if (writeFailureHandler != null) {
+            writeFailureHandler.accept(e);
+        }
+    }
+
+    private BackgroundWriter backgroundWriter() {
+        if (backgroundWriter == null) {
+            backgroundWriter = new BackgroundWriter(this::flushPendingWrites);
+        }
+        return backgroundWriter;
+    }
+
+    // --- Users ---
+
+    public synchronized Optional<User> findUser(String username, String password, String role) {
+        User user = users.get().get(username);
+        if (user != null && user.getPassword().equals(password) && user.getRole().equalsIgnoreCase(role)) {
+            return Optional.of(user); // User is immutable, no copy needed
+        }
+        return Optional.empty();
+    }
+
+    public synchronized List<User> getAllUsers() {
+        return new ArrayList<>(users.get().values()); // User is immutable, no copies needed
+    }
+
+    public synchronized boolean addUser(User user) {
+        if (users.get().containsKey(user.getUsername())) {
+            return false;
+        }
+        users.put(user);
+        persist(users);
+        return true;
+    }
+
+    public synchronized boolean updateUserPassword(String username, String newPassword) {
+        User existing = users.get().get(username);
+        if (existing == null) {
+            return false;
+        }
+        users.put(new User(existing.getUsername(), newPassword, existing.getRole()));
+        persist(users);
+        return true;
+    }
+
+    public synchronized void deleteUser(String username) {
+        if (users.get().remove(username) != null) {
+            persist(users);
+        }
+    }
+
+    // --- Students ---
+
+    public synchronized List<Student> getAllStudents() {
+        List<Student> result = new ArrayList<>();
+        for (Student student : students.get().values()) {
+            result.add(copy(student));
+        }
+        return result;
+    }
+
+    public synchronized Optional<Student> getStudentById(String id) {
+        Student student = students.get().get(id);
+        return student != null ? Optional.of(copy(student)) : Optional.empty();
+    }
+
+    public synchronized void saveStudent(Student student) {
+        students.put(copy(student));
+        persist(students);
+    }
+
+    public synchronized void deleteStudent(String id) {
+        students.get().remove(id);
+        persist(students);
+    }
+
+    // --- Teachers ---
+
+    public synchronized List<Teacher> getAllTeachers() {
+        List<Teacher> result = new ArrayList<>();
+        for (Teacher teacher : teachers.get().values()) {
+            result.add(copy(teacher));
+        }
+        return result;
+    }
+
+    public synchronized Optional<Teacher> getTeacherById(String id) {
+        Teacher teacher = teachers.get().get(id);
+        return teacher != null ? Optional.of(copy(teacher)) : Optional.empty();
+    }
+
+    public synchronized void saveTeacher(Teacher teacher) {
+        teachers.put(copy(teacher));
+        persist(teachers);
+    }
+
+    public synchronized void deleteTeacher(String id) {
+        teachers.get().remove(id);
+        persist(teachers);
+    }
+
+    // --- Subjects ---
+
+    public synchronized List<Subject> getAllSubjects() {
+        List<Subject> result = new ArrayList<>();
+        for (Subject subject : subjects.get().values()) {
+            result.add(copy(subject));
+        }
+        return result;
+    }
+
+    public synchronized Optional<Subject> getSubjectByCode(String code) {
+        Subject subject = subjects.get().get(subjectKey(code));
+        return subject != null ? Optional.of(copy(subject)) : Optional.empty();
+    }
+
+    public synchronized void saveSubject(Subject subject) {
+        subjects.put(copy(subject));
+        persist(subjects);
+    }
+
+    public synchronized void deleteSubject(String code) {
+        subjects.get().remove(subjectKey(code));
+        persist(subjects);
+    }
+
+    // --- Enrollments ---
+
+    public synchronized List<Enrollment> getAllEnrollments() {
+        List<Enrollment> result = new ArrayList<>();
+        for (Enrollment enrollment : allEnrollments()) {
+            result.add(copy(enrollment));
+        }
+        return result;
+    }
+
+    public synchronized List<Enrollment> getEnrollmentsForStudent(String studentId) {
+        List<Enrollment> result = new ArrayList<>();
+        for (Enrollment enrollment : studentEnrollments(studentId)) {
+            result.add(copy(enrollment));
+        }
+        return result;
+    }
+
+    public synchronized void saveEnrollment(Enrollment enrollment) {
+        Enrollment stored = copy(enrollment);
+        studentEnrollments(stored.getStudentId()); // Load (and in the single file, index) before mutating
+        boolean indexed = enrollmentIndexVersion == enrollmentVersion();
+        Enrollment previous = shards != null ? shards.put(stored) : enrollments.put(stored);
+
+        if (indexed) {
+            List<Enrollment> forStudent = enrollmentsByStudent.computeIfAbsent(stored.getStudentId(), k -> new ArrayList<>());
+            int index = previous != null ? forStudent.indexOf(previous) : -1;
+            if (index >= 0) {
+                forStudent.set(index, stored);
+            } else {
+                forStudent.add(stored);
+            }
+            if (previous != null) {
+                removeFromRoster(previous);
+            }
+            addToRoster(stored);
+        }
+
+        if (shards != null) {
+            persist(shards.file(stored.getStudentId()));
+        } else {
+            appendToJournal(Collections.singletonList(out -> {
+                out.beginObject().name("op").value("enrollment").name("enrollment");
+                writeEnrollment(out, stored);
+                out.endObject();
+            }));
+        }
+    }
+
+    public synchronized void deleteEnrollmentsForStudent(String studentId) {
+        List<Enrollment> removed = new ArrayList<>(studentEnrollments(studentId));
+        if (removed.isEmpty()) {
+            return;
+        }
+        if (enrollmentIndexVersion == enrollmentVersion()) {
+            enrollmentsByStudent.remove(studentId);
+            for (Enrollment enrollment : removed) {
+                removeFromRoster(enrollment);
+            }
+        }
+        if (shards != null) {
+            shards.forStudent(studentId).clear();
+            persist(shards.file(studentId));
+        } else {
+            for (Enrollment enrollment : removed) {
+                enrollments.get().remove(enrollments.keyOf(enrollment));
+            }
+            persist(enrollments);
+        }
+    }
+
+    // Updates the grade in the first enrollment of the student that lists the subject
+    public synchronized boolean updateSubjectGrade(String studentId, String subjectCode, double newGrade) {
+        EnrolledSubject subject = findEnrolledSubject(studentId, subjectKey(subjectCode));
+        if (subject == null) {
+            return false;
+        }
+        subject.setGrade(newGrade);
+        if (shards != null) {
+            persist(shards.file(studentId));
+        } else {
+            appendToJournal(Collections.singletonList(gradeRecord(studentId, subjectCode, newGrade)));
+        }
+        return true;
+    }
+
+    // Applies every grade in memory first, then journals the whole batch with a single append
+    // (or, in the sharded layout, writes each touched student's file once)
+    public synchronized List<GradeUpdateResult> updateSubjectGrades(String subjectCode, Map<String, Double> gradesByStudent) {
+        List<GradeUpdateResult> results = new ArrayList<>();
+        List<EnrollmentJournal.Record> records = new ArrayList<>();
+        Set<String> touched = new LinkedHashSet<>();
+        String key = subjectKey(subjectCode);
+
+        for (Map.Entry<String, Double> entry : gradesByStudent.entrySet()) {
+            String studentId = entry.getKey();
+            EnrolledSubject subject = findEnrolledSubject(studentId, key);
+            if (entry.getValue() == null) {
+                results.add(new GradeUpdateResult(studentId, false, "No grade given."));
+            } else if (!EnrolledSubject.isValidGrade(entry.getValue())) {
+                results.add(new GradeUpdateResult(studentId, false, EnrolledSubject.GRADE_RULE));
+            } else if (subject == null) {
+                results.add(new GradeUpdateResult(studentId, false, "Enrollment or subject not found."));
+            } else {
+                subject.setGrade(entry.getValue());
+                results.add(new GradeUpdateResult(studentId, true, ""));
+                records.add(gradeRecord(studentId, subjectCode, entry.getValue()));
+                touched.add(studentId);
+            }
+        }
+
+        if (shards != null) {
+            for (String studentId : touched) {
+                persist(shards.file(studentId));
+            }
+        } else {
+            appendToJournal(records);
+        }
+        return results;
+    }
+
+    // One student's enrollments in file order; in the sharded layout only that student's file is read
+    private Collection<Enrollment> studentEnrollments(String studentId) {
+        if (shards != null) {
+            return shards.forStudent(studentId).values();
+        }
+        return enrollmentsByStudent().getOrDefault(studentId, Collections.emptyList());
+    }
+
+    private Collection<Enrollment> allEnrollments() {
+        return shards != null ? shards.all() : enrollments.get().values();
+    }
+
+    private long enrollmentVersion() {
+        return shards != null ? shards.version() : enrollments.version();
+    }
+
+    // --- Enrollment journal ---
+
+    private static EnrollmentJournal.Record gradeRecord(String studentId, String subjectCode, double grade) {
+        return out -> out.beginObject()
+                .name("op").value("grade")
+                .name("studentId").value(studentId)
+                .name("code").value(subjectCode)
+                .name("grade").value(grade)
+                .endObject();
+    }
+
+    // Inside a unit of work the snapshot is written at commit instead, which also resets the journal
+    private void appendToJournal(List<EnrollmentJournal.Record> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (transaction != null) {
+            transaction.add(enrollments);
+        } else if (asyncWrites) {
+            pendingJournal.addAll(records);
+            backgroundWriter().schedule();
+        } else {
+            writeJournal(records);
+        }
+    }
+
+    // The in-memory change is already made; if the journal cannot take it, fall back to a full snapshot
+    private void writeJournal(List<EnrollmentJournal.Record> records) {
+        try {
+            journal.append(records);
+        } catch (IOException e) {
+            System.err.println("Could not append to the enrollment journal (" + e.getMessage() + "), saving enrollments.json instead.");
+            enrollments.save();
+        }
+    }
+
+    // Re-applies journaled changes on top of a freshly loaded enrollments.json, in the order they were made
+    private void replayJournal(Map<String, Enrollment> loaded) {
+        journal.replay(in -> {
+            String op = "";
+            String studentId = "";
+            String code = "";
+            Double grade = null;
+            Enrollment enrollment = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "op": op = JsonUtils.nextString(in, ""); break;
+                    case "studentId": studentId = JsonUtils.nextString(in, ""); break;
+                    case "code": code = JsonUtils.nextString(in, ""); break;
+                    case "grade": grade = JsonUtils.nextDouble(in, Double.NaN); break;
+                    case "enrollment":
+                        if (in.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                            enrollment = readEnrollment(in);
+                        } else {
+                            in.skipValue();
+                        }
+                        break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (op.equals("grade") && grade != null && !grade.isNaN()) {
+                EnrolledSubject subject = findEnrolledSubject(loaded.values(), studentId, subjectKey(code));
+                if (subject != null) {
+                    subject.setGrade(loadedGrade(grade, studentId, code));
+                }
+            } else if (op.equals("enrollment") && enrollment != null) {
+                loaded.put(enrollments.keyOf(enrollment), enrollment);
+            }
+        });
+    }
+
+    // Runs on the compactor thread: folds the journal into enrollments.json.
+    // If the save fails the cache is dropped and the journal kept, so the next load replays it.
+    private synchronized void compactJournal() {
+        if (journal.size() > 0 && enrollments.isLoaded()) {
+            enrollments.save();
+            // The snapshot includes changes still waiting for the background writer
+            pendingJournal.clear();
+            dirty.remove(enrollments);
+        }
+    }
+
+    // Same matching rule as the roster the grade was picked from
+    private EnrolledSubject findEnrolledSubject(String studentId, String subjectKey) {
+        return findEnrolledSubject(studentEnrollments(studentId), studentId, subjectKey);
+    }
+
+    // First subject with the key in the student's enrollments, in file order
+    private static EnrolledSubject findEnrolledSubject(Iterable<Enrollment> candidates, String studentId, String subjectKey) {
+        for (Enrollment enrollment : candidates) {
+            if (!enrollment.getStudentId().equals(studentId)) {
+                continue;
+            }
+            for (EnrolledSubject subject : enrollment.getSubjects()) {
+                if (subjectKey(subject.getCode()).equals(subjectKey)) {
+                    return subject;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Class list of a subject: one row per enrollment of an existing student that lists the subject
+    public synchronized List<RosterEntry> getRosterForSubject(String subjectCode) {
+        List<RosterEntry> roster = new ArrayList<>();
+        enrollmentsByStudent(); // Make sure the roster index is current
+        for (RosterRef ref : rosterBySubject.getOrDefault(subjectKey(subjectCode), Collections.emptyList())) {
+            Student student = students.get().get(ref.enrollment.getStudentId());
+            if (student == null) {
+                continue; // Orphaned enrollment, the student record was removed
+            }
+            roster.add(new RosterEntry(copy(student), ref.enrollment.getYearLevel(),
+                    ref.enrollment.getSemester(), copy(ref.subject)));
+        }
+        return roster;
+    }
+
+    // Rebuilds the enrollment indexes whenever the enrollments file (or any shard) was (re)loaded
+    private Map<String, List<Enrollment>> enrollmentsByStudent() {
+        Collection<Enrollment> all = allEnrollments();
+        long version = enrollmentVersion();
+        if (version != enrollmentIndexVersion) {
+            enrollmentsByStudent = new HashMap<>();
+            rosterBySubject = new HashMap<>();
+            for (Enrollment enrollment : all) {
+                enrollmentsByStudent.computeIfAbsent(enrollment.getStudentId(), k -> new ArrayList<>()).add(enrollment);
+                addToRoster(enrollment);
+            }
+            enrollmentIndexVersion = version;
+        }
+        return enrollmentsByStudent;
+    }
+
+    private void addToRoster(Enrollment enrollment) {
+        for (EnrolledSubject subject : enrollment.getSubjects()) {
+            List<RosterRef> refs = rosterBySubject.computeIfAbsent(subjectKey(subject.getCode()), k -> new ArrayList<>());
+            // A subject listed twice in one enrollment only appears once on the class list
+            if (refs.isEmpty() || refs.get(refs.size() - 1).enrollment != enrollment) {
+                refs.add(new RosterRef(enrollment, subject));
+            }
+        }
+    }
+
+    private void removeFromRoster(Enrollment enrollment) {
+        for (EnrolledSubject subject : enrollment.getSubjects()) {
+            List<RosterRef> refs = rosterBySubject.get(subjectKey(subject.getCode()));
+            if (refs != null) {
+                refs.removeIf(ref -> ref.enrollment == enrollment);
+            }
+        }
+    }
+
+    private static EnrolledSubject copy(EnrolledSubject s) {
+        return new EnrolledSubject(s.getCode(), s.getName(), s.getUnits(), s.getGrade(), s.getSection());
+    }
+
+    // --- Helpers ---
+
+    private static Student copy(Student s) {
+        return new Student(s.getId(), s.getFirstName(), s.getLastName(), s.getEmail(), s.getYearLevel(), s.getSemester());
+    }
+
+    private static Teacher copy(Teacher t) {
+        return new Teacher(t.getId(), t.getFirstName(), t.getLastName(), t.getEmail(),
+                t.getDepartment(), t.getPosition(), t.getAssignedSubjectCodes());
+    }
+
+    private static Subject copy(Subject s) {
+        return new Subject(s.getCode(), s.getName(), s.getUnits(), s.getDepartment(),
+                s.getYearLevel(), s.getSemester(), s.getPrerequisites(), s.getSections());
+    }
+
+    private static Enrollment copy(Enrollment e) {
+        List<EnrolledSubject> subjects = new ArrayList<>();
+        for (EnrolledSubject s : e.getSubjects()) {
+            subjects.add(copy(s));
+        }
+        return new Enrollment(e.getStudentId(), e.getYearLevel(), e.getSemester(), e.getStatus(), subjects);
+    }
+
+    // --- JSON <-> model mapping (records are streamed both ways, without a JSONObject tree) ---
+
+    private static User readUser(JsonReader in) throws IOException {
+        String username = "", password = "", role = "";
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "username": username = JsonUtils.nextString(in, ""); break;
+                case "password": password = JsonUtils.nextString(in, ""); break;
+                case "role": role = JsonUtils.nextString(in, ""); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new User(username, password, role);
+    }
+
+    private static void writeUser(JsonWriter out, User user) throws IOException {
+        out.beginObject()
+                .name("username").value(user.getUsername())
+                .name("password").value(user.getPassword()) // In real app, hash the password!
+                .name("role").value(user.getRole())
+                .endObject();
+    }
+
+    private static Student readStudent(JsonReader in) throws IOException {
+        String id = "", firstName = "", lastName = "", email = "", yearLevel = "", semester = "";
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id": id = JsonUtils.nextString(in, ""); break;
+                case "firstName": firstName = JsonUtils.nextString(in, ""); break;
+                case "lastName": lastName = JsonUtils.nextString(in, ""); break;
+                case "email": email = JsonUtils.nextString(in, ""); break;
+                case "yearLevel": yearLevel = JsonUtils.nextString(in, ""); break;
+                case "semester": semester = JsonUtils.nextString(in, ""); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Student(id, firstName, lastName, email, yearLevel, semester);
+    }
+
+    private static void writeStudent(JsonWriter out, Student student) throws IOException {
+        out.beginObject()
+                .name("id").value(student.getId())
+                .name("firstName").value(student.getFirstName())
+                .name("lastName").value(student.getLastName())
+                .name("email").value(student.getEmail())
+                .name("yearLevel").value(student.getYearLevel())
+                .name("semester").value(student.getSemester())
+                .endObject();
+    }
+
+    private static Teacher readTeacher(JsonReader in) throws IOException {
+        String id = "", firstName = "", lastName = "", email = "", department = "", position = "";
+        List<String> subjectCodes = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id": id = JsonUtils.nextString(in, ""); break;
+                case "firstName": firstName = JsonUtils.nextString(in, ""); break;
+                case "lastName": lastName = JsonUtils.nextString(in, ""); break;
+                case "email": email = JsonUtils.nextString(in, ""); break;
+                case "department": department = JsonUtils.nextString(in, ""); break;
+                case "position": position = JsonUtils.nextString(in, ""); break;
+                case "assignedSubjects": subjectCodes = JsonUtils.nextStringList(in); break; // Non-string codes are dropped
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Teacher(id, firstName, lastName, email, department, position, subjectCodes);
+    }
+
+    private static void writeTeacher(JsonWriter out, Teacher teacher) throws IOException {
+        out.beginObject()
+                .name("id").value(teacher.getId())
+                .name("firstName").value(teacher.getFirstName())
+                .name("lastName").value(teacher.getLastName())
+                .name("email").value(teacher.getEmail())
+                .name("department").value(teacher.getDepartment())
+                .name("position").value(teacher.getPosition())
+                .name("assignedSubjects").beginArray();
+        for (String code : teacher.getAssignedSubjectCodes()) {
+            out.value(code);
+        }
+        out.endArray().endObject();
+    }
+
+    private static Subject readSubject(JsonReader in) throws IOException {
+        String code = "", name = "", department = "", yearLevel = "", semester = "";
+        int units = 0;
+        List<String> prereqs = new ArrayList<>();
+        List<Section> sections = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "code": code = JsonUtils.nextString(in, ""); break;
+                case "name": name = JsonUtils.nextString(in, ""); break;
+                case "units": units = JsonUtils.nextInt(in, 0); break;
+                case "department": department = JsonUtils.nextString(in, ""); break;
+                case "yearLevel": yearLevel = JsonUtils.nextString(in, ""); break;
+                case "semester": semester = JsonUtils.nextString(in, ""); break;
+                case "prerequisites": prereqs = JsonUtils.nextStringList(in); break;
+                case "sections": sections = readSections(in); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Subject(code, name, units, department, yearLevel, semester, prereqs, sections);
+    }
+
+    // Sections without a name are skipped; older files have no "sections" at all
+    private static List<Section> readSections(JsonReader in) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        if (in.peek() != JsonReader.Token.BEGIN_ARRAY) {
+            in.skipValue();
+            return sections;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                in.skipValue();
+                continue;
+            }
+            String name = "";
+            int capacity = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name": name = JsonUtils.nextString(in, ""); break;
+                    case "capacity": capacity = JsonUtils.nextInt(in, 0); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            if (!name.isEmpty()) {
+                sections.add(new Section(name, capacity));
+            }
+        }
+        in.endArray();
+        return sections;
+    }
+
+    private static void writeSubject(JsonWriter out, Subject subject) throws IOException {
+        out.beginObject()
+                .name("code").value(subject.getCode())
+                .name("name").value(subject.getName())
+                .name("units").value(subject.getUnits())
+                .name("department").value(subject.getDepartment())
+                .name("yearLevel").value(subject.getYearLevel())
+                .name("semester").value(subject.getSemester())
+                .name("prerequisites").beginArray();
+        for (String prereq : subject.getPrerequisites()) {
+            out.value(prereq);
+        }
+        out.endArray();
+        if (!subject.getSections().isEmpty()) { // Left out for subjects without a seat limit
+            out.name("sections").beginArray();
+            for (Section section : subject.getSections()) {
+                out.beginObject()
+                        .name("name").value(section.getName())
+                        .name("capacity").value(section.getCapacity())
+                        .endObject();
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    private static Enrollment readEnrollment(JsonReader in) throws IOException {
+        String studentId = "", yearLevel = "", semester = "", status = "Enrolled";
+        List<EnrolledSubject> enrolledSubjects = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "studentId": studentId = JsonUtils.nextString(in, ""); break;
+                case "yearLevel": yearLevel = JsonUtils.nextString(in, ""); break;
+                case "semester": semester = JsonUtils.nextString(in, ""); break;
+                case "status": status = JsonUtils.nextString(in, "Enrolled"); break;
+                case "subjects": enrolledSubjects = readEnrolledSubjects(in); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        if (studentId.isEmpty()) {
+            return null; // Skip blank records, they cannot belong to any student
+        }
+        return new Enrollment(studentId, yearLevel, semester, status, enrolledSubjects);
+    }
+
+    // A stored grade outside 1.0-5.0 (e.g. a hand edit) is loaded as not graded rather than guessed at
+    static double loadedGrade(double grade, String studentId, String code) {
+        if (EnrolledSubject.isValidGrade(grade)) {
+            return grade;
+        }
+        System.err.println("Warning: Ignoring invalid grade " + grade + " for subject " + code
+                + (studentId != null ? " of student " + studentId : "") + "; treating it as not graded.");
+        return 0.0;
+    }
+
+    private static List<EnrolledSubject> readEnrolledSubjects(JsonReader in) throws IOException {
+        List<EnrolledSubject> subjects = new ArrayList<>();
+        if (in.peek() != JsonReader.Token.BEGIN_ARRAY) {
+            in.skipValue();
+            return subjects;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                in.skipValue();
+                continue;
+            }
+            String code = "", name = "";
+            String section = null;
+            int units = 0;
+            double grade = 0.0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "code": code = JsonUtils.nextString(in, ""); break;
+                    case "name": name = JsonUtils.nextString(in, ""); break;
+                    case "units": units = JsonUtils.nextInt(in, 0); break;
+                    case "grade": grade = JsonUtils.nextDouble(in, 0.0); break;
+                    case "section": section = JsonUtils.nextString(in, null); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            subjects.add(new EnrolledSubject(code, name, units, loadedGrade(grade, null, code), section));
+        }
+        in.endArray();
+        return subjects;
+    }
+
+    private static void writeEnrollment(JsonWriter out, Enrollment enrollment) throws IOException {
+        out.beginObject()
+                .name("studentId").value(enrollment.getStudentId())
+                .name("yearLevel").value(enrollment.getYearLevel())
+                .name("semester").value(enrollment.getSemester())
+                .name("status").value(enrollment.getStatus())
+                .name("subjects").beginArray();
+        for (EnrolledSubject subject : enrollment.getSubjects()) {
+            out.beginObject()
+                    .name("code").value(subject.getCode())
+                    .name("name").value(subject.getName())
+                    .name("units").value(subject.getUnits())
+                    .name("grade").value(subject.getGrade());
+            if (subject.getSection() != null) {
+                out.name("section").value(subject.getSection());
+            }
+            out.endObject();
+        }
+        out.endArray().endObject();
+    }
+}
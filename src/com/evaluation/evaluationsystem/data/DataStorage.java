@@ -1,436 +1,343 @@
 package com.evaluation.evaluationsystem.data;
 
+import com.evaluation.evaluationsystem.curriculum.SubjectCatalog;
 import com.evaluation.evaluationsystem.models.*;
-import com.evaluation.evaluationsystem.utils.JsonUtils;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 public class DataStorage {
 
-    // --- User Management ---
+    // JSON files by default (parsed once, served from memory, written through on every mutation);
+    // -Devaluation.storage=sql switches to the embedded SQL database
+    private static final StorageBackend repository = StorageBackend.open();
 
-    public static Optional<User> authenticateUser(String username, String password, String role) {
-        JSONObject usersData = JsonUtils.loadUsers();
-        JSONArray usersArray = JsonUtils.getJSONArray(usersData, "users");
+    // Told the id of each student whose enrollments or grades changed; null means anything may have changed
+    private static final List<Consumer<String>> enrollmentListeners = new CopyOnWriteArrayList<>();
 
-        for (Object obj : usersArray) {
-            JSONObject userJson = (JSONObject) obj;
-            String storedUsername = JsonUtils.getString(userJson, "username", "");
-            String storedPassword = JsonUtils.getString(userJson, "password", "");
-            String storedRole = JsonUtils.getString(userJson, "role", "");
+    // Told the code of each subject whose class list or grades changed; null means any may have
+    private static final List<Consumer<String>> rosterListeners = new CopyOnWriteArrayList<>();
 
-            if (storedUsername.equals(username) && storedPassword.equals(password) && storedRole.equalsIgnoreCase(role)) {
-                return Optional.of(new User(storedUsername, storedPassword, storedRole));
-            }
+    // Told the id of each student whose record (e.g. year level) was saved or deleted; null means any may have
+    private static final List<Consumer<String>> studentListeners = new CopyOnWriteArrayList<>();
+
+    // Told that subjects were added, changed or deleted
+    private static final List<Runnable> subjectListeners = new CopyOnWriteArrayList<>();
+
+    // Told the message of each background save that failed (asynchronous writes only)
+    private static final List<Consumer<String>> writeFailureListeners = new CopyOnWriteArrayList<>();
+
+    static {
+        repository.setWriteFailureHandler(DataStorage::backgroundWriteFailed);
+    }
+
+    // --- Units of Work ---
+
+    // Runs several changes as one unit: each data file is written once at the end, and if anything
+    // fails no file is changed and the in-memory data is re-read from disk
+    public static void runInTransaction(Runnable work) {
+        callInTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static <T> T callInTransaction(Supplier<T> work) {
+        try {
+            return repository.inTransaction(work);
+        } catch (RuntimeException | Error e) {
+            notifyEnrollmentsChanged(null); // Changes already reported inside the unit were rolled back
+            notifyRosterChanged((String) null);
+            notifyStudentsChanged(null);
+            notifySubjectsChanged();
+            throw e;
         }
-        return Optional.empty();
     }
 
-    public static void addUser(User user) {
-        JSONObject usersData = JsonUtils.loadUsers();
-        JSONArray usersArray = JsonUtils.getJSONArray(usersData, "users");
-
-        // Check if user already exists
-        boolean exists = usersArray.stream().anyMatch(obj ->
-                JsonUtils.getString((JSONObject)obj, "username", "").equals(user.getUsername()));
-
-        if (!exists) {
-            JSONObject newUserJson = new JSONObject();
-            newUserJson.put("username", user.getUsername());
-            newUserJson.put("password", user.getPassword()); // In real app, hash the password!
-            newUserJson.put("role", user.getRole());
-            usersArray.add(newUserJson);
-            usersData.put("users", usersArray);
-            JsonUtils.saveUsers(usersData);
-        } else {
-            System.out.println("User already exists: " + user.getUsername());
-            // Handle appropriately - maybe throw exception or return false
+    // Runs the action once the current unit of work is saved (right away outside one); never if it fails
+    public static void afterCommit(Runnable action) {
+        repository.afterCommit(action);
+    }
+
+    // --- Change Notification ---
+
+    // Lets derived views (e.g. analytics) follow enrollment and grade changes instead of re-reading everything
+    public static void addEnrollmentListener(Consumer<String> listener) {
+        enrollmentListeners.add(listener);
+    }
+
+    public static void removeEnrollmentListener(Consumer<String> listener) {
+        enrollmentListeners.remove(listener);
+    }
+
+    private static void notifyEnrollmentsChanged(String studentId) {
+        for (Consumer<String> listener : enrollmentListeners) {
+            listener.accept(studentId);
         }
     }
 
-    // Add methods for updating/deleting users if needed
+    // Lets per-subject views (e.g. cohort analytics) refresh only the subjects whose grades changed
+    public static void addRosterListener(Consumer<String> listener) {
+        rosterListeners.add(listener);
+    }
 
-    // --- Student Management ---
+    public static void removeRosterListener(Consumer<String> listener) {
+        rosterListeners.remove(listener);
+    }
 
-    public static List<Student> getAllStudents() {
-        List<Student> students = new ArrayList<>();
-        JSONObject studentsData = JsonUtils.loadStudents();
-        JSONArray studentsArray = JsonUtils.getJSONArray(studentsData, "students");
-
-        for (Object obj : studentsArray) {
-            JSONObject studentJson = (JSONObject) obj;
-            students.add(new Student(
-                    JsonUtils.getString(studentJson, "id", ""),
-                    JsonUtils.getString(studentJson, "firstName", ""),
-                    JsonUtils.getString(studentJson, "lastName", ""),
-                    JsonUtils.getString(studentJson, "email", ""),
-                    JsonUtils.getString(studentJson, "yearLevel", ""),
-                    JsonUtils.getString(studentJson, "semester", "")
-            ));
+    private static void notifyRosterChanged(String subjectCode) {
+        for (Consumer<String> listener : rosterListeners) {
+            listener.accept(subjectCode);
         }
-        return students;
     }
 
-    public static Optional<Student> getStudentById(String id) {
-        return getAllStudents().stream()
-                .filter(s -> s.getId().equals(id))
-                .findFirst();
+    private static void notifyRosterChanged(Enrollment enrollment) {
+        for (EnrolledSubject subject : enrollment.getSubjects()) {
+            notifyRosterChanged(subject.getCode());
+        }
     }
 
-    public static void saveStudent(Student student) {
-        JSONObject studentsData = JsonUtils.loadStudents();
-        JSONArray studentsArray = JsonUtils.getJSONArray(studentsData, "students");
-        JSONObject studentJson = findJsonObjectById(studentsArray, "id", student.getId());
-
-        if (studentJson != null) { // Update existing
-            studentJson.put("firstName", student.getFirstName());
-            studentJson.put("lastName", student.getLastName());
-            studentJson.put("email", student.getEmail());
-            studentJson.put("yearLevel", student.getYearLevel());
-            studentJson.put("semester", student.getSemester());
-        } else { // Add new
-            studentJson = new JSONObject();
-            studentJson.put("id", student.getId());
-            studentJson.put("firstName", student.getFirstName());
-            studentJson.put("lastName", student.getLastName());
-            studentJson.put("email", student.getEmail());
-            studentJson.put("yearLevel", student.getYearLevel());
-            studentJson.put("semester", student.getSemester());
-            studentsArray.add(studentJson);
+    // Lets views grouped by student fields (e.g. class ranks by year level) follow student edits
+    public static void addStudentListener(Consumer<String> listener) {
+        studentListeners.add(listener);
+    }
+
+    public static void removeStudentListener(Consumer<String> listener) {
+        studentListeners.remove(listener);
+    }
+
+    private static void notifyStudentsChanged(String studentId) {
+        for (Consumer<String> listener : studentListeners) {
+            listener.accept(studentId);
         }
-        studentsData.put("students", studentsArray);
-        JsonUtils.saveStudents(studentsData);
     }
 
-    public static void deleteStudent(String id) {
-        JSONObject studentsData = JsonUtils.loadStudents();
-        JSONArray studentsArray = JsonUtils.getJSONArray(studentsData, "students");
-        studentsArray.removeIf(obj -> JsonUtils.getString((JSONObject) obj, "id", "").equals(id));
-        studentsData.put("students", studentsArray);
-        JsonUtils.saveStudents(studentsData);
+    // Lets compiled views of the curriculum (e.g. the prerequisite graph) know when to recompile
+    public static void addSubjectListener(Runnable listener) {
+        subjectListeners.add(listener);
+    }
+
+    public static void removeSubjectListener(Runnable listener) {
+        subjectListeners.remove(listener);
+    }
 
-        // Also delete associated user account and enrollments
-        deleteUser(id);
-        deleteEnrollmentsForStudent(id);
+    private static void notifySubjectsChanged() {
+        for (Runnable listener : subjectListeners) {
+            listener.run();
+        }
     }
 
-    // Helper to delete user account
-    private static void deleteUser(String username) {
-        JSONObject usersData = JsonUtils.loadUsers();
-        JSONArray usersArray = JsonUtils.getJSONArray(usersData, "users");
-        usersArray.removeIf(obj -> JsonUtils.getString((JSONObject) obj, "username", "").equals(username));
-        usersData.put("users", usersArray);
-        JsonUtils.saveUsers(usersData);
+    // --- Asynchronous Persistence ---
+
+    // When on, saves return as soon as memory is updated and a background thread writes the files
+    // (bursts of changes to one file become one write); pending writes are flushed on exit
+    public static void setAsyncWrites(boolean async) {
+        repository.setAsyncWrites(async);
     }
 
-    // Helper to delete enrollments
-    private static void deleteEnrollmentsForStudent(String studentId) {
-        JSONObject enrollmentsData = JsonUtils.loadEnrollments();
-        JSONArray enrollmentsArray = JsonUtils.getJSONArray(enrollmentsData, "enrollments");
-        enrollmentsArray.removeIf(obj -> JsonUtils.getString((JSONObject) obj, "studentId", "").equals(studentId));
-        enrollmentsData.put("enrollments", enrollmentsArray);
-        JsonUtils.saveEnrollments(enrollmentsData);
+    // Waits until all changes so far are on disk; throws if a background write failed since the last call
+    public static void awaitWrites() {
+        repository.awaitWrites();
     }
 
-    public static List<Teacher> getAllTeachers() {
-        List<Teacher> teachers = new ArrayList<>();
-        JSONObject teachersData = JsonUtils.loadTeachers();
-        JSONArray teachersArray = JsonUtils.getJSONArray(teachersData, "teachers");
-
-        for (Object obj : teachersArray) {
-            JSONObject teacherJson = (JSONObject) obj;
-
-            // --- MODIFIED PART: Handle list of subject codes ---
-            JSONArray subjectsJson = JsonUtils.getJSONArray(teacherJson, "assignedSubjects"); // Use new key "assignedSubjects"
-            List<String> subjectCodes = new ArrayList<>();
-            if (subjectsJson != null) {
-                for (Object codeObj : subjectsJson) {
-                    if (codeObj instanceof String) { // Ensure it's a string
-                        subjectCodes.add((String) codeObj);
-                    }
+    // Lets the UI tell the user when a change it already reported as saved could not be written.
+    // Called on the background writer thread.
+    public static void addWriteFailureListener(Consumer<String> listener) {
+        writeFailureListeners.add(listener);
+    }
+
+    public static void removeWriteFailureListener(Consumer<String> listener) {
+        writeFailureListeners.remove(listener);
+    }
+
+    private static void backgroundWriteFailed(RuntimeException failure) {
+        // The failed file was re-read from disk, so views derived from the lost change are stale
+        notifyEnrollmentsChanged(null);
+        notifyRosterChanged((String) null);
+        notifyStudentsChanged(null);
+        notifySubjectsChanged();
+        for (Consumer<String> listener : writeFailureListeners) {
+            listener.accept(failure.getMessage());
+        }
+    }
+
+    // --- User Management ---
+
+    public static Optional<User> authenticateUser(String username, String password, String role) {
+        return repository.findUser(username, password, role);
+    }
+
+    public static void addUser(User user) {
+        if (!repository.addUser(user)) {
+            System.out.println("User already exists: " + user.getUsername());
+            // Handle appropriately - maybe throw exception or return false
+        }
+    }
+
+    // Returns false if no account with that username exists
+    public static boolean updateUserPassword(String username, String newPassword) {
+        return repository.updateUserPassword(username, newPassword);
+    }
+
+    // --- Student Management ---
+
+    public static List<Student> getAllStudents() {
+        return repository.getAllStudents();
+    }
+
+    public static Optional<Student> getStudentById(String id) {
+        return repository.getStudentById(id);
+    }
+
+    public static void saveStudent(Student student) {
+        repository.saveStudent(student);
+        notifyStudentsChanged(student.getId());
+    }
+
+    public static void deleteStudent(String id) {
+        runInTransaction(() -> {
+            if (!rosterListeners.isEmpty()) {
+                for (Enrollment enrollment : repository.getEnrollmentsForStudent(id)) {
+                    notifyRosterChanged(enrollment); // Their class lists lose this student
                 }
             }
-            // --- END MODIFIED PART ---
-
-            teachers.add(new Teacher(
-                    JsonUtils.getString(teacherJson, "id", ""),
-                    JsonUtils.getString(teacherJson, "firstName", ""),
-                    JsonUtils.getString(teacherJson, "lastName", ""),
-                    JsonUtils.getString(teacherJson, "email", ""),
-                    JsonUtils.getString(teacherJson, "department", ""),
-                    JsonUtils.getString(teacherJson, "position", ""),
-                    subjectCodes // Pass the list of codes
-            ));
-        }
-        return teachers;
+            repository.deleteStudent(id);
+
+            // Also delete associated user account and enrollments
+            repository.deleteUser(id);
+            repository.deleteEnrollmentsForStudent(id);
+            notifyEnrollmentsChanged(id);
+            notifyStudentsChanged(id);
+        });
+    }
+
+    public static List<Teacher> getAllTeachers() {
+        return repository.getAllTeachers();
     }
 
     public static Optional<Teacher> getTeacherById(String id) {
-        return getAllTeachers().stream()
-                .filter(t -> t.getId().equals(id))
-                .findFirst();
+        return repository.getTeacherById(id);
     }
 
     public static void saveTeacher(Teacher teacher) {
-        JSONObject teachersData = JsonUtils.loadTeachers();
-        JSONArray teachersArray = JsonUtils.getJSONArray(teachersData, "teachers");
-        JSONObject teacherJson = findJsonObjectById(teachersArray, "id", teacher.getId());
-
-        // --- MODIFIED PART: Convert List<String> to JSONArray ---
-        JSONArray subjectsJson = new JSONArray();
-        if (teacher.getAssignedSubjectCodes() != null) {
-            subjectsJson.addAll(teacher.getAssignedSubjectCodes()); // Add all codes from the list
-        }
-        // --- END MODIFIED PART ---
-
-        if (teacherJson != null) { // Update existing teacher
-            teacherJson.put("firstName", teacher.getFirstName());
-            teacherJson.put("lastName", teacher.getLastName());
-            teacherJson.put("email", teacher.getEmail());
-            teacherJson.put("department", teacher.getDepartment());
-            teacherJson.put("position", teacher.getPosition());
-            // Save the JSONArray under the key "assignedSubjects"
-            teacherJson.put("assignedSubjects", subjectsJson); // Use new key
-        } else { // Add new teacher
-            teacherJson = new JSONObject();
-            teacherJson.put("id", teacher.getId());
-            teacherJson.put("firstName", teacher.getFirstName());
-            teacherJson.put("lastName", teacher.getLastName());
-            teacherJson.put("email", teacher.getEmail());
-            teacherJson.put("department", teacher.getDepartment());
-            teacherJson.put("position", teacher.getPosition());
-            // Save the JSONArray under the key "assignedSubjects"
-            teacherJson.put("assignedSubjects", subjectsJson); // Use new key
-            teachersArray.add(teacherJson);
-        }
-        teachersData.put("teachers", teachersArray);
-        JsonUtils.saveTeachers(teachersData);
+        repository.saveTeacher(teacher);
     }
 
     public static void deleteTeacher(String id) {
-        JSONObject teachersData = JsonUtils.loadTeachers();
-        JSONArray teachersArray = JsonUtils.getJSONArray(teachersData, "teachers");
-        teachersArray.removeIf(obj -> JsonUtils.getString((JSONObject) obj, "id", "").equals(id));
-        teachersData.put("teachers", teachersArray);
-        JsonUtils.saveTeachers(teachersData);
-        // Also delete associated user account
-        deleteUser(id);
+        runInTransaction(() -> {
+            repository.deleteTeacher(id);
+            // Also delete associated user account
+            repository.deleteUser(id);
+        });
     }
 
-    // --- Subject Management --- (Implement similarly: getAll, getByCode, save, delete)
+    // --- Subject Management ---
     public static List<Subject> getAllSubjects() {
-        List<Subject> subjects = new ArrayList<>();
-        JSONObject subjectsData = JsonUtils.loadSubjects();
-        JSONArray subjectsArray = JsonUtils.getJSONArray(subjectsData, "subjects");
-
-        for (Object obj : subjectsArray) {
-            JSONObject subjectJson = (JSONObject) obj;
-            JSONArray prereqJson = JsonUtils.getJSONArray(subjectJson, "prerequisites");
-            List<String> prereqs = new ArrayList<>();
-            for(Object prereq : prereqJson) {
-                prereqs.add((String) prereq);
-            }
-
-            subjects.add(new Subject(
-                    JsonUtils.getString(subjectJson, "code", ""),
-                    JsonUtils.getString(subjectJson, "name", ""),
-                    JsonUtils.getInt(subjectJson,"units", 0), // Assuming 'units' stores total units as a number or string
-                    JsonUtils.getString(subjectJson, "department", ""),
-                    JsonUtils.getString(subjectJson, "yearLevel", ""),
-                    JsonUtils.getString(subjectJson, "semester", ""),
-                    prereqs
-            ));
-        }
-        return subjects;
+        return repository.getAllSubjects();
     }
 
     public static Optional<Subject> getSubjectByCode(String code) {
-        return getAllSubjects().stream()
-                .filter(s -> s.getCode().equalsIgnoreCase(code)) // Case-insensitive compare for code
-                .findFirst();
+        return repository.getSubjectByCode(code);
     }
 
     public static void saveSubject(Subject subject) {
-        JSONObject subjectsData = JsonUtils.loadSubjects();
-        JSONArray subjectsArray = JsonUtils.getJSONArray(subjectsData, "subjects");
-        JSONObject subjectJson = findJsonObjectById(subjectsArray, "code", subject.getCode());
-
-        // Create the JSON array for prerequisites
-        JSONArray prereqsJson = new JSONArray();
-        if (subject.getPrerequisites() != null) { // Check if the list exists
-            for (String prereq : subject.getPrerequisites()) {
-                prereqsJson.add(prereq); // Add each prerequisite string
-            }
+        List<String> cycle = SubjectCatalog.current().findCycle(subject.getCode(), subject.getPrerequisites());
+        if (!cycle.isEmpty()) {
+            throw new IllegalArgumentException("These prerequisites would make a cycle: " + String.join(" requires ", cycle));
         }
-
-        if (subjectJson != null) { // Update existing subject
-            subjectJson.put("name", subject.getName());
-            subjectJson.put("units", subject.getUnits());
-            subjectJson.put("department", subject.getDepartment());
-            subjectJson.put("yearLevel", subject.getYearLevel());
-            subjectJson.put("semester", subject.getSemester());
-            // Put the correctly created JSON array
-            subjectJson.put("prerequisites", prereqsJson); // <--- CORRECTED LINE
-        } else { // Add new subject
-            subjectJson = new JSONObject();
-            subjectJson.put("code", subject.getCode());
-            subjectJson.put("name", subject.getName());
-            subjectJson.put("units", subject.getUnits());
-            subjectJson.put("department", subject.getDepartment());
-            subjectJson.put("yearLevel", subject.getYearLevel());
-            subjectJson.put("semester", subject.getSemester());
-            // Put the correctly created JSON array
-            subjectJson.put("prerequisites", prereqsJson); // <--- CORRECTED LINE
-            subjectsArray.add(subjectJson);
+        Set<String> sectionNames = new HashSet<>();
+        for (Section section : subject.getSections()) {
+            if (section.getName() == null || section.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Every section needs a name.");
+            }
+            if (section.getCapacity() <= 0) {
+                throw new IllegalArgumentException("Section " + section.getName() + " needs a capacity of at least 1.");
+            }
+            if (!sectionNames.add(section.getName().trim().toUpperCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("There are two sections named " + section.getName() + ".");
+            }
         }
-        subjectsData.put("subjects", subjectsArray);
-        JsonUtils.saveSubjects(subjectsData);
+        repository.saveSubject(subject);
+        notifySubjectsChanged();
     }
 
+    // Also removes the subject from the prerequisites of the subjects that list it, in the same write
     public static void deleteSubject(String code) {
-        JSONObject subjectsData = JsonUtils.loadSubjects();
-        JSONArray subjectsArray = JsonUtils.getJSONArray(subjectsData, "subjects");
-        subjectsArray.removeIf(obj -> JsonUtils.getString((JSONObject) obj, "code", "").equalsIgnoreCase(code));
-        subjectsData.put("subjects", subjectsArray);
-        JsonUtils.saveSubjects(subjectsData);
-        // Consider removing this subject as a prerequisite from other subjects if needed
+        SubjectCatalog catalog = SubjectCatalog.current();
+        int index = catalog.indexOf(code);
+        List<String> dependents = index < 0 ? List.of() : catalog.codes(catalog.dependents(index));
+        runInTransaction(() -> {
+            for (String dependentCode : dependents) {
+                repository.getSubjectByCode(dependentCode).ifPresent(dependent -> {
+                    dependent.getPrerequisites().removeIf(prerequisite -> prerequisite.trim().equalsIgnoreCase(code.trim()));
+                    repository.saveSubject(dependent);
+                });
+            }
+            repository.deleteSubject(code);
+        });
+        notifySubjectsChanged();
     }
 
 
     // --- Enrollment Management ---
     public static List<Enrollment> getAllEnrollments() {
-        List<Enrollment> enrollments = new ArrayList<>();
-        JSONObject enrollmentsData = JsonUtils.loadEnrollments();
-        JSONArray enrollmentsArray = JsonUtils.getJSONArray(enrollmentsData, "enrollments");
-
-        for (Object obj : enrollmentsArray) {
-            JSONObject enrollJson = (JSONObject) obj;
-            JSONArray subjectsJson = JsonUtils.getJSONArray(enrollJson, "subjects");
-            List<EnrolledSubject> enrolledSubjects = new ArrayList<>();
-
-            for (Object subjObj : subjectsJson) {
-                JSONObject subjJson = (JSONObject) subjObj;
-                enrolledSubjects.add(new EnrolledSubject(
-                        JsonUtils.getString(subjJson, "code", ""),
-                        JsonUtils.getString(subjJson, "name", ""),
-                        JsonUtils.getInt(subjJson, "units", 0), // Get units as int
-                        JsonUtils.getDouble(subjJson, "grade", 0.0)
-                ));
-            }
-
-            enrollments.add(new Enrollment(
-                    JsonUtils.getString(enrollJson, "studentId", ""),
-                    JsonUtils.getString(enrollJson, "yearLevel", ""),
-                    JsonUtils.getString(enrollJson, "semester", ""),
-                    JsonUtils.getString(enrollJson, "status", "Enrolled"),
-                    enrolledSubjects
-            ));
-        }
-        return enrollments;
+        return repository.getAllEnrollments();
     }
 
     public static List<Enrollment> getEnrollmentsForStudent(String studentId) {
-        return getAllEnrollments().stream()
-                .filter(e -> e.getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+        return repository.getEnrollmentsForStudent(studentId);
+    }
+
+    // Students taking a subject, joined with the term and grade; served from the subject roster index
+    public static List<RosterEntry> getRosterForSubject(String subjectCode) {
+        return repository.getRosterForSubject(subjectCode);
     }
 
     public static void saveEnrollment(Enrollment enrollment) {
-        JSONObject enrollmentsData = JsonUtils.loadEnrollments();
-        JSONArray enrollmentsArray = JsonUtils.getJSONArray(enrollmentsData, "enrollments");
-
-        // Find existing enrollment based on studentId, year, and semester
-        JSONObject enrollJson = findEnrollmentJson(enrollmentsArray, enrollment.getStudentId(), enrollment.getYearLevel(), enrollment.getSemester());
-
-        if (enrollJson != null) { // Update
-            enrollJson.put("status", enrollment.getStatus());
-            enrollJson.put("subjects", convertEnrolledSubjectsToJson(enrollment.getSubjects()));
-        } else { // Add new
-            enrollJson = new JSONObject();
-            enrollJson.put("studentId", enrollment.getStudentId());
-            enrollJson.put("yearLevel", enrollment.getYearLevel());
-            enrollJson.put("semester", enrollment.getSemester());
-            enrollJson.put("status", enrollment.getStatus());
-            enrollJson.put("subjects", convertEnrolledSubjectsToJson(enrollment.getSubjects()));
-            enrollmentsArray.add(enrollJson);
-        }
-        enrollmentsData.put("enrollments", enrollmentsArray);
-        JsonUtils.saveEnrollments(enrollmentsData);
+        // The enrollment this one replaces, if any, so its dropped subjects are reported too
+        Optional<Enrollment> replaced = rosterListeners.isEmpty() ? Optional.empty()
+                : repository.getEnrollmentsForStudent(enrollment.getStudentId()).stream()
+                        .filter(existing -> existing.getTermCode() == enrollment.getTermCode())
+                        .findFirst();
+        repository.saveEnrollment(enrollment);
+        notifyEnrollmentsChanged(enrollment.getStudentId());
+        replaced.ifPresent(DataStorage::notifyRosterChanged);
+        notifyRosterChanged(enrollment);
     }
 
     public static void updateSubjectGrade(String studentId, String subjectCode, double newGrade) {
-        JSONObject enrollmentsData = JsonUtils.loadEnrollments();
-        JSONArray enrollmentsArray = JsonUtils.getJSONArray(enrollmentsData, "enrollments");
-        boolean updated = false;
-
-        for (Object enrollObj : enrollmentsArray) {
-            JSONObject enrollment = (JSONObject) enrollObj;
-            if (JsonUtils.getString(enrollment, "studentId", "").equals(studentId)) {
-                JSONArray subjectsArray = JsonUtils.getJSONArray(enrollment, "subjects");
-                for (Object subjObj : subjectsArray) {
-                    JSONObject subject = (JSONObject) subjObj;
-                    if (JsonUtils.getString(subject, "code", "").equals(subjectCode)) {
-                        subject.put("grade", newGrade);
-                        updated = true;
-                        break; // Found and updated the subject
-                    }
-                }
-            }
-            if(updated) break; // Found the student's enrollment
+        if (!EnrolledSubject.isValidGrade(newGrade)) {
+            throw new IllegalArgumentException(EnrolledSubject.GRADE_RULE);
         }
-
-        if (updated) {
-            enrollmentsData.put("enrollments", enrollmentsArray);
-            JsonUtils.saveEnrollments(enrollmentsData);
+        if (repository.updateSubjectGrade(studentId, subjectCode, newGrade)) {
+            notifyEnrollmentsChanged(studentId);
+            notifyRosterChanged(subjectCode);
             System.out.println("Grade updated for student " + studentId + ", subject " + subjectCode);
         } else {
             System.out.println("Enrollment or subject not found for student " + studentId + ", subject " + subjectCode);
         }
     }
 
-
-    // --- Helper Methods ---
-    private static JSONObject findJsonObjectById(JSONArray array, String idKey, String idValue) {
-        for (Object obj : array) {
-            JSONObject jsonObj = (JSONObject) obj;
-            if (idValue.equals(JsonUtils.getString(jsonObj, idKey, ""))) {
-                return jsonObj;
+    // Posts grades for a whole class in one pass with a single write; returns one result per student
+    public static List<GradeUpdateResult> updateSubjectGrades(String subjectCode, Map<String, Double> gradesByStudent) {
+        List<GradeUpdateResult> results = repository.updateSubjectGrades(subjectCode, gradesByStudent);
+        for (GradeUpdateResult result : results) {
+            if (result.isSuccess()) {
+                notifyEnrollmentsChanged(result.getStudentId());
             }
         }
-        return null;
-    }
-
-    private static JSONObject findEnrollmentJson(JSONArray array, String studentId, String year, String semester) {
-        for (Object obj : array) {
-            JSONObject jsonObj = (JSONObject) obj;
-            if (studentId.equals(JsonUtils.getString(jsonObj, "studentId", "")) &&
-                    year.equals(JsonUtils.getString(jsonObj, "yearLevel", "")) &&
-                    semester.equals(JsonUtils.getString(jsonObj, "semester", ""))) {
-                return jsonObj;
-            }
-        }
-        return null;
-    }
-
-
-    private static JSONArray convertEnrolledSubjectsToJson(List<EnrolledSubject> subjects) {
-        JSONArray subjectsJson = new JSONArray();
-        for (EnrolledSubject subject : subjects) {
-            JSONObject subjJson = new JSONObject();
-            subjJson.put("code", subject.getCode());
-            subjJson.put("name", subject.getName());
-            subjJson.put("units", subject.getUnits());
-            subjJson.put("grade", subject.getGrade());
-            subjectsJson.add(subjJson);
-            
-        }
-        return subjectsJson;
+        notifyRosterChanged(subjectCode);
+        long updated = results.stream().filter(GradeUpdateResult::isSuccess).count();
+        System.out.println("Grades updated for " + updated + " of " + results.size() + " student(s), subject " + subjectCode);
+        return results;
     }
 
-}
\ No newline at end of file
+}
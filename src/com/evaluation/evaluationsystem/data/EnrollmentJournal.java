@@ -0,0 +1,251 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.utils.DurabilityPolicy;
+import com.evaluation.evaluationsystem.utils.JsonReader;
+import com.evaluation.evaluationsystem.utils.JsonUtils;
+import com.evaluation.evaluationsystem.utils.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only write-ahead journal for enrollments.json.
+ * Grade changes and enrollment saves are appended here as one compact JSON record per line
+ * instead of rewriting the whole enrollments file, so a write costs O(record) rather than O(file).
+ * The journal is replayed over the snapshot whenever the snapshot is loaded (including at startup
+ * after a crash), and a background compactor folds it into enrollments.json and deletes it
+ * once it grows past a threshold or on a timer.
+ *
+ * The first line names the save of the snapshot the journal continues (its save sequence, see
+ * {@link CachedFile#sequence()}). A journal left behind by a crash or a failed delete after its
+ * records were folded into a newer snapshot therefore names an older save: it is ignored on
+ * replay, and never appended to.
+ *
+ * Not thread-safe on its own; callers hold the repository lock.
+ */
+class EnrollmentJournal {
+
+    // Compact after this many records, or after the interval if anything is pending
+    private static final int COMPACT_RECORDS = Integer.getInteger("evaluation.journal.compactRecords", 200);
+    private static final long COMPACT_INTERVAL_MS = Long.getLong("evaluation.journal.compactMillis", 10_000L);
+
+    // Writes one record; records must be JSON objects
+    interface Record {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    // Reads one record (the reader is positioned at its object) and applies it. Apply nothing
+    // before the object is fully read, so a torn record that fails halfway has no effect.
+    interface RecordReader {
+        void read(JsonReader in) throws IOException;
+    }
+
+    private final Path path;
+    private final LongSupplier snapshotSequence;
+    private final Runnable compaction;
+
+    private FileChannel channel;
+    private int records = 0;
+    private ScheduledExecutorService compactor;
+
+    /**
+     * @param filename         journal file in the data folder
+     * @param snapshotSequence save sequence of the loaded snapshot
+     * @param compaction       writes the full snapshot; must take the repository lock itself
+     */
+    EnrollmentJournal(String filename, LongSupplier snapshotSequence, Runnable compaction) {
+        this.path = JsonUtils.getDataFile(filename);
+        this.snapshotSequence = snapshotSequence;
+        this.compaction = compaction;
+    }
+
+    // Number of records not yet folded into the snapshot
+    int size() {
+        return records;
+    }
+
+    /**
+     * Appends the records with a single write and makes them durable per the durability policy.
+     * If this throws, part of a line may have reached the file; callers then write a full snapshot,
+     * which resets the journal. Also throws if the journal belongs to an older snapshot and cannot
+     * be removed, so nothing is added to records that replay ignores.
+     */
+    void append(List<Record> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        StringWriter text = new StringWriter();
+        if (channel == null && !continuesSnapshot()) {
+            text.write("{\"snapshot\":" + snapshotSequence.getAsLong() + "}\n"); // New file: header first
+        }
+        for (Record record : batch) {
+            JsonWriter out = new JsonWriter(text, 0); // Compact: strings are escaped, so a record never spans lines
+            record.write(out);
+            text.write('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+
+        boolean newFile = channel == null && !Files.exists(path);
+        if (channel == null) {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        JsonUtils.syncAppended(channel, path, newFile);
+
+        records += batch.size();
+        scheduleCompaction(records >= COMPACT_RECORDS);
+    }
+
+    /**
+     * Feeds every readable record to the consumer in the order it was written.
+     * A line that does not parse (e.g. torn by a crash mid-append) is skipped.
+     */
+    void replay(RecordReader apply) {
+        records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            long header = headerOf(line);
+            if (header != snapshotSequence.getAsLong()) {
+                System.err.println("Ignoring " + path.getFileName() + ": it continues save " + header
+                        + " of the snapshot, which is now at save " + snapshotSequence.getAsLong() + ".");
+                return;
+            }
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonReader in = new JsonReader(new StringReader(line));
+                    if (in.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                        apply.read(in);
+                        if (in.peek() == JsonReader.Token.END_DOCUMENT) {
+                            records++;
+                            continue;
+                        }
+                    }
+                } catch (JsonReader.MalformedJsonException e) {
+                    // Fall through to the warning
+                }
+                System.err.println("Skipping unreadable record in " + path.getFileName() + ": " + line);
+            }
+        } catch (NoSuchFileException e) {
+            return; // Nothing journaled since the last snapshot
+        } catch (IOException e) {
+            System.err.println("IOException reading " + path + ": " + e.getMessage());
+        }
+        if (records > 0) {
+            System.out.println("Recovered " + records + " journaled change(s) from " + path.getFileName());
+            scheduleCompaction(false);
+        }
+    }
+
+    // Drops the journal once a snapshot containing all of its records has been written
+    void reset() {
+        closeChannel();
+        records = 0;
+        if (JsonUtils.getDurabilityPolicy() == DurabilityPolicy.GROUPED) {
+            JsonUtils.syncPending(); // The snapshot must be on disk before the journal it replaces disappears
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Replay ignores it (its header names an older save) and append refuses to add to it
+            System.err.println("Could not delete " + path.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Before the file is opened for appending: true if it exists and continues the current snapshot
+     * (records go on after its header), false if there is no file. A journal of an older snapshot is
+     * removed first; if that fails this throws.
+     */
+    private boolean continuesSnapshot() throws IOException {
+        String header;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            header = reader.readLine();
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (header != null && headerOf(header) == snapshotSequence.getAsLong()) {
+            return true;
+        }
+        Files.delete(path); // Left over from an older snapshot (or empty): start a new journal
+        return false;
+    }
+
+    // The snapshot save named by a journal's first line, or -1 if the line is not a header
+    private static long headerOf(String line) {
+        try {
+            JsonReader in = new JsonReader(new StringReader(line));
+            long sequence = -1;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("snapshot") && in.peek() == JsonReader.Token.NUMBER) {
+                    sequence = in.nextLong();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return sequence;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Could not close " + path.getFileName() + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    // Runs the compaction now if the journal is full, otherwise makes sure the periodic run is scheduled
+    private void scheduleCompaction(boolean now) {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "enrollment-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compactor.scheduleWithFixedDelay(this::compact, COMPACT_INTERVAL_MS, COMPACT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        if (now) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    private void compact() {
+        try {
+            compaction.run();
+        } catch (RuntimeException e) {
+            // Keep the journal and the schedule; the next run tries again
+            System.err.println("Journal compaction failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.Enrollment;
+import com.evaluation.evaluationsystem.utils.JsonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Sharded enrollment storage: one file per student under data/enrollments/,
+ * each in the same {"enrollments": [...]} format as the single enrollments.json.
+ * Opening a transcript or saving one student's enrollment reads and writes only that
+ * student's file, so the cost stays flat as the total number of enrollments grows.
+ * Views across all students (class lists, getAllEnrollments) load every shard once;
+ * after that each shard is only re-read when its file changes.
+ */
+class EnrollmentShards {
+
+    private static final String ROOT_KEY = "enrollments";
+    private static final String SUFFIX = ".json";
+
+    private final String directory;
+    private final Function<Enrollment, String> keyOf;
+    private final CachedFile.ItemReader<Enrollment> reader;
+    private final CachedFile.ItemWriter<Enrollment> writer;
+
+    // studentId -> that student's shard, sorted so the combined view has a stable order
+    private final Map<String, CachedFile<Enrollment>> shards = new TreeMap<>();
+
+    // Students whose shard was loaded at least once, and how often shards changed (see version())
+    private final Set<String> loaded = new HashSet<>();
+    private long version = 0;
+
+    EnrollmentShards(String directory, Function<Enrollment, String> keyOf,
+                     CachedFile.ItemReader<Enrollment> reader, CachedFile.ItemWriter<Enrollment> writer) {
+        this.directory = directory;
+        this.keyOf = keyOf;
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    // True once the shard directory exists, i.e. the data was already migrated
+    boolean exists() {
+        return Files.isDirectory(JsonUtils.getDataFile(directory));
+    }
+
+    // Live map (key -> record) of one student's enrollments, loaded on first use
+    LinkedHashMap<String, Enrollment> forStudent(String studentId) {
+        return shard(studentId).get();
+    }
+
+    // Inserts or replaces a record in its student's shard; the shard must have been loaded through forStudent
+    Enrollment put(Enrollment enrollment) {
+        return shard(enrollment.getStudentId()).put(enrollment);
+    }
+
+    // The file holding one student's enrollments; saving it with no records removes it
+    CachedFile<Enrollment> file(String studentId) {
+        return shard(studentId);
+    }
+
+    // Every enrollment of every student, loading shards that were not read yet
+    List<Enrollment> all() {
+        discover();
+        List<Enrollment> result = new ArrayList<>();
+        for (CachedFile<Enrollment> shard : shards.values()) {
+            result.addAll(shard.get().values());
+        }
+        return result;
+    }
+
+    // Changes whenever a shard is re-read, or read for the first time and found to hold records (a file
+    // that appeared on disk), so indexes over all shards know when to rebuild. Looking up a student
+    // without a file does not change it, so it does not throw those indexes away.
+    long version() {
+        return version;
+    }
+
+    /**
+     * Splits the given enrollments into one file per student.
+     * The shards are written to a staging directory that is renamed into place at the end,
+     * so an interrupted migration leaves no half-filled shard directory behind.
+     */
+    void migrate(Collection<Enrollment> source) throws IOException {
+        String stagingName = directory + ".migrating";
+        Path staging = JsonUtils.getDataFile(stagingName);
+        deleteDirectory(staging); // Leftover of an earlier interrupted attempt
+
+        Map<String, CachedFile<Enrollment>> staged = new LinkedHashMap<>();
+        for (Enrollment enrollment : source) {
+            CachedFile<Enrollment> file = staged.computeIfAbsent(enrollment.getStudentId(),
+                    id -> newShard(stagingName, id));
+            file.get();
+            file.put(enrollment);
+        }
+        Files.createDirectories(staging);
+        for (CachedFile<Enrollment> file : staged.values()) {
+            file.save();
+        }
+
+        Path target = JsonUtils.getDataFile(directory);
+        try {
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(staging, target);
+        }
+        shards.clear();
+        loaded.clear();
+        version++;
+    }
+
+    private CachedFile<Enrollment> shard(String studentId) {
+        return shards.computeIfAbsent(studentId, id -> {
+            CachedFile<Enrollment> shard = newShard(directory, id);
+            shard.setLoadListener(items -> {
+                if (!loaded.add(id) || !items.isEmpty()) {
+                    version++;
+                }
+            });
+            return shard;
+        });
+    }
+
+    private CachedFile<Enrollment> newShard(String dir, String studentId) {
+        CachedFile<Enrollment> shard = new CachedFile<>(dir + "/" + fileName(studentId), keyOf, reader, ROOT_KEY, writer);
+        shard.setOptional(true);
+        return shard;
+    }
+
+    // Picks up shard files that appeared since the last listing (new students, files copied in by hand)
+    private void discover() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(JsonUtils.getDataFile(directory), "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String studentId = studentId(name.substring(0, name.length() - SUFFIX.length()));
+                if (studentId != null) {
+                    shard(studentId);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // No shard written yet
+        } catch (IOException e) {
+            System.err.println("IOException listing " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // Shards written before upper-case letters were escaped ("AB-1.json") move to their escaped name;
+    // called once when the layout is opened, before any shard is read
+    void renameLegacyFiles() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(JsonUtils.getDataFile(directory), "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String studentId = studentId(name.substring(0, name.length() - SUFFIX.length()));
+                if (studentId == null || fileName(studentId).equals(name)) {
+                    continue;
+                }
+                Path canonical = file.resolveSibling(fileName(studentId));
+                if (Files.exists(canonical)) {
+                    System.err.println("Not renaming " + file + ": " + canonical.getFileName() + " already exists");
+                } else {
+                    Files.move(file, canonical);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("IOException renaming shards in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // Student ids become file names: lower-case letters, digits, '-' and '_' are kept, every other byte
+    // (upper-case letters included) is written as %XX, so ids differing only in case never share a file
+    // on case-insensitive file systems
+    static String fileName(String studentId) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : studentId.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                name.append(c);
+            } else {
+                name.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return name + SUFFIX;
+    }
+
+    // Reverses fileName (and the older names with bare upper-case letters); null for names it could not
+    // have produced (temp files, backups)
+    private static String studentId(String baseName) {
+        byte[] bytes = new byte[baseName.length()];
+        int length = 0;
+        for (int i = 0; i < baseName.length(); i++) {
+            char c = baseName.charAt(i);
+            if (c == '%' && i + 2 < baseName.length()) {
+                try {
+                    bytes[length++] = (byte) Integer.parseInt(baseName.substring(i + 1, i + 3), 16);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                i += 2;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                bytes[length++] = (byte) c;
+            } else {
+                return null;
+            }
+        }
+        return length == 0 ? null : new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            all.sort(Comparator.reverseOrder()); // Children before their directory
+            for (Path path : all) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.*;
+
+import java.util.List;
+import java.util.Map;
+
+/** Enrollments, keyed by student id + year level + semester. Part of {@link StorageBackend}. */
+interface EnrollmentStore {
+    List<Enrollment> getAllEnrollments();
+    List<Enrollment> getEnrollmentsForStudent(String studentId);
+    List<RosterEntry> getRosterForSubject(String subjectCode);
+    void saveEnrollment(Enrollment enrollment);
+    void deleteEnrollmentsForStudent(String studentId);
+    // Grade goes to the first of the student's enrollments that lists the subject
+    boolean updateSubjectGrade(String studentId, String subjectCode, double newGrade);
+    List<GradeUpdateResult> updateSubjectGrades(String subjectCode, Map<String, Double> gradesByStudent);
+}
@@ -0,0 +1,106 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.EnrolledSubject;
+import com.evaluation.evaluationsystem.models.Enrollment;
+import com.evaluation.evaluationsystem.models.Section;
+import com.evaluation.evaluationsystem.models.Student;
+import com.evaluation.evaluationsystem.models.Subject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary record layouts of the files that get a {@link SnapshotFile}.
+ * The field order is the on-disk layout; bump SnapshotFile.FORMAT_VERSION when changing it.
+ */
+final class SnapshotCodecs {
+
+    private SnapshotCodecs() {
+    }
+
+    static final SnapshotFile.Codec<Student> STUDENT = new SnapshotFile.Codec<>() {
+        @Override
+        public void write(SnapshotFile.Output out, Student s) throws IOException {
+            out.string(s.getId());
+            out.string(s.getFirstName());
+            out.string(s.getLastName());
+            out.string(s.getEmail());
+            out.string(s.getYearLevel());
+            out.string(s.getSemester());
+        }
+
+        @Override
+        public Student read(SnapshotFile.Input in) {
+            return new Student(in.string(), in.string(), in.string(), in.string(), in.string(), in.string());
+        }
+    };
+
+    static final SnapshotFile.Codec<Subject> SUBJECT = new SnapshotFile.Codec<>() {
+        @Override
+        public void write(SnapshotFile.Output out, Subject s) throws IOException {
+            out.string(s.getCode());
+            out.string(s.getName());
+            out.integer(s.getUnits());
+            out.string(s.getDepartment());
+            out.string(s.getYearLevel());
+            out.string(s.getSemester());
+            out.integer(s.getPrerequisites().size());
+            for (String prereq : s.getPrerequisites()) {
+                out.string(prereq);
+            }
+            out.integer(s.getSections().size());
+            for (Section section : s.getSections()) {
+                out.string(section.getName());
+                out.integer(section.getCapacity());
+            }
+        }
+
+        @Override
+        public Subject read(SnapshotFile.Input in) {
+            String code = in.string(), name = in.string();
+            int units = in.integer();
+            String department = in.string(), yearLevel = in.string(), semester = in.string();
+            int count = in.count();
+            List<String> prereqs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                prereqs.add(in.string());
+            }
+            int sectionCount = in.count();
+            List<Section> sections = new ArrayList<>(sectionCount);
+            for (int i = 0; i < sectionCount; i++) {
+                sections.add(new Section(in.string(), in.integer()));
+            }
+            return new Subject(code, name, units, department, yearLevel, semester, prereqs, sections);
+        }
+    };
+
+    static final SnapshotFile.Codec<Enrollment> ENROLLMENT = new SnapshotFile.Codec<>() {
+        @Override
+        public void write(SnapshotFile.Output out, Enrollment e) throws IOException {
+            out.string(e.getStudentId());
+            out.string(e.getYearLevel());
+            out.string(e.getSemester());
+            out.string(e.getStatus());
+            out.integer(e.getSubjects().size());
+            for (EnrolledSubject subject : e.getSubjects()) {
+                out.string(subject.getCode());
+                out.string(subject.getName());
+                out.integer(subject.getUnits());
+                out.decimal(subject.getGrade());
+                out.string(subject.getSection());
+            }
+        }
+
+        @Override
+        public Enrollment read(SnapshotFile.Input in) {
+            String studentId = in.string(), yearLevel = in.string(), semester = in.string(), status = in.string();
+            int count = in.count();
+            List<EnrolledSubject> subjects = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                subjects.add(new EnrolledSubject(in.string(), in.string(), in.integer(), in.decimal(), in.string()));
+            }
+            return new Enrollment(studentId, yearLevel, semester, status, subjects);
+        }
+    };
+}
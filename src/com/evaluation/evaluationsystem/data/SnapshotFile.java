@@ -0,0 +1,272 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.utils.JsonUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary copy of a data file, kept next to it (students.json -> students.snapshot) so startup can
+ * skip JSON parsing. The JSON file stays the real data and the interchange format: the snapshot
+ * records the size, modification time and a CRC-32C checksum of the JSON it was made from and is
+ * ignored as soon as they no longer match (e.g. after a hand edit, even one that keeps the size and
+ * lands within the same millisecond), in which case the JSON is parsed and the snapshot rewritten.
+ * Checksumming the JSON is a single sequential pass, far cheaper than parsing it.
+ *
+ * Layout (big-endian): header, string table, records.
+ *   header:  magic, format version, JSON mtime, JSON size, JSON checksum, save sequence of the JSON,
+ *            string count, record count
+ *   strings: every distinct string once, as length + UTF-8 bytes
+ *   records: the fields of each record written by a {@link Codec}, in order; strings are int indexes
+ *            into the table (-1 = null), so repeated values such as terms are stored and decoded only once
+ * Records are variable-length on purpose: lists (prerequisites, enrolled subjects) are written inline
+ * after a count. The file is only ever read front to back into the cache, never searched by offset,
+ * so fixed-width records with a side table for lists would add an indirection and buy nothing.
+ * The file is read through a memory-mapped FileChannel, except on Windows: a mapping stays open until
+ * the buffer is garbage collected, and Windows cannot replace a file that is still mapped.
+ */
+class SnapshotFile<T> {
+
+    private static final int MAGIC = 0x45564C53; // "EVLS"
+    private static final int FORMAT_VERSION = 4; // 2: subject sections, enrolled subject section; 3: save sequence; 4: checksum
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 8 + 4 + 4;
+    private static final boolean MAP_FILE =
+            !System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+
+    // Whether snapshots are used at all; -Devaluation.snapshot=false reads and writes JSON only
+    static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("evaluation.snapshot"));
+
+    // Converts one record to and from its binary form; read must consume exactly what write produced
+    interface Codec<T> {
+        void write(Output out, T item) throws IOException;
+        T read(Input in);
+    }
+
+    // What a snapshot holds: the records, and the save sequence of the JSON they came from (see CachedFile)
+    static final class Contents<T> {
+        final List<T> records;
+        final long sequence;
+
+        Contents(List<T> records, long sequence) {
+            this.records = records;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Path path;
+    private final Path jsonPath;
+    private final Codec<T> codec;
+
+    SnapshotFile(String jsonFilename, Codec<T> codec) {
+        String base = jsonFilename.endsWith(".json") ? jsonFilename.substring(0, jsonFilename.length() - 5) : jsonFilename;
+        this.path = JsonUtils.getDataFile(base + ".snapshot");
+        this.jsonPath = JsonUtils.getDataFile(jsonFilename);
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the records if the snapshot exists and was made from the JSON file with this
+     * modification time and size and its current contents; null otherwise (missing, outdated or damaged).
+     */
+    Contents<T> read(long jsonModified, long jsonSize) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer buffer = MAP_FILE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()) : readFully(channel);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+                    || buffer.getLong() != jsonModified || buffer.getLong() != jsonSize
+                    || buffer.getLong() != checksum(jsonPath)) {
+                return null;
+            }
+            long sequence = buffer.getLong();
+            int stringCount = buffer.getInt();
+            int recordCount = buffer.getInt();
+            if (stringCount < 0 || recordCount < 0 || stringCount > buffer.remaining() / 4) {
+                return null; // Damaged header
+            }
+            String[] strings = new String[stringCount];
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return null; // Damaged string table
+                }
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            if (recordCount > buffer.remaining() / 4) {
+                return null; // Damaged header: every record takes at least one field
+            }
+            Input in = new Input(buffer, strings);
+            List<T> records = new ArrayList<>(recordCount);
+            for (int i = 0; i < recordCount; i++) {
+                records.add(codec.read(in));
+            }
+            return buffer.hasRemaining() ? null : new Contents<>(records, sequence);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Ignoring unreadable snapshot " + path.getFileName() + ": " + e);
+            return null;
+        }
+    }
+
+    // Copies the whole file to the heap, for platforms where it must not stay mapped
+    private static ByteBuffer readFully(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Keep reading until full or end of file
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // CRC-32C of a file's bytes
+    private static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Replaces the snapshot with the given records, made from the JSON with this save sequence, modification time and size
+    void write(Collection<T> records, long sequence, long jsonModified, long jsonSize) {
+        Output out = new Output();
+        Path temp = null;
+        try {
+            for (T record : records) {
+                codec.write(out, record);
+            }
+            long checksum = checksum(jsonPath);
+            temp = Files.createTempFile(path.getParent(), "." + path.getFileName(), ".tmp");
+            try (DataOutputStream file = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                file.writeInt(MAGIC);
+                file.writeInt(FORMAT_VERSION);
+                file.writeLong(jsonModified);
+                file.writeLong(jsonSize);
+                file.writeLong(checksum);
+                file.writeLong(sequence);
+                file.writeInt(out.strings.size());
+                file.writeInt(records.size());
+                for (String string : out.strings) {
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    file.writeInt(bytes.length);
+                    file.write(bytes);
+                }
+                out.bytes.writeTo(file);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Only a cache: the outdated snapshot no longer matches the JSON, so it will not be used
+            System.err.println("Could not write snapshot " + path.getFileName() + ": " + e.getMessage());
+            if (temp != null) {
+                JsonUtils.discardJSON(temp);
+            }
+        }
+    }
+
+    // Drops the snapshot, e.g. when the data file itself was removed
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete snapshot " + path.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /** Record fields being written; strings go to the shared table. */
+    static final class Output {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream data = new DataOutputStream(bytes);
+
+        void string(String value) throws IOException {
+            if (value == null) {
+                data.writeInt(-1);
+                return;
+            }
+            Integer id = index.get(value);
+            if (id == null) {
+                id = strings.size();
+                index.put(value, id);
+                strings.add(value);
+            }
+            data.writeInt(id);
+        }
+
+        void integer(int value) throws IOException {
+            data.writeInt(value);
+        }
+
+        void decimal(double value) throws IOException {
+            data.writeDouble(value);
+        }
+    }
+
+    /** Record fields being read back from the snapshot. */
+    static final class Input {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+
+        private Input(ByteBuffer buffer, String[] strings) {
+            this.buffer = buffer;
+            this.strings = strings;
+        }
+
+        String string() {
+            int id = buffer.getInt();
+            return id < 0 ? null : strings[id];
+        }
+
+        int integer() {
+            return buffer.getInt();
+        }
+
+        // A list length; checked against what is left so a damaged file cannot ask for a huge list
+        int count() {
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining() / 4) {
+                throw new IllegalArgumentException("bad list length " + count);
+            }
+            return count;
+        }
+
+        double decimal() {
+            return buffer.getDouble();
+        }
+    }
+}
@@ -0,0 +1,672 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.*;
+import com.evaluation.evaluationsystem.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * SQL backend of {@link StorageBackend}: an embedded, file-based database reached over plain JDBC,
+ * selected with -Devaluation.storage=sql. Each operation reads or writes only the rows it needs,
+ * through the primary keys and the secondary indexes created below (term, subject code, student),
+ * instead of holding whole data files in memory.
+ *
+ * The JDBC URL comes from -Devaluation.storage.url (default: an H2 database at data/evaluation).
+ * The H2 driver ships in libs/; for SQLite (a jdbc:sqlite: URL) its driver must be added to the classpath.
+ * On first start against an empty database the existing JSON data is imported in one transaction.
+ * Every operation commits on its own; {@link #inTransaction} groups several into one commit.
+ */
+class SqlRepository implements StorageBackend {
+
+    private static final String DEFAULT_URL = "jdbc:h2:" + JsonUtils.getDataFile("evaluation");
+
+    // Portable DDL (H2 and SQLite); list positions keep the order the JSON files had
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS users (username VARCHAR(255) PRIMARY KEY, password VARCHAR(255),"
+                    + " role VARCHAR(32))",
+            "CREATE TABLE IF NOT EXISTS students (id VARCHAR(255) PRIMARY KEY, first_name VARCHAR(255),"
+                    + " last_name VARCHAR(255), email VARCHAR(255), year_level VARCHAR(64), semester VARCHAR(64), seq INT)",
+            "CREATE TABLE IF NOT EXISTS teachers (id VARCHAR(255) PRIMARY KEY, first_name VARCHAR(255),"
+                    + " last_name VARCHAR(255), email VARCHAR(255), department VARCHAR(255), job_position VARCHAR(255), seq INT)",
+            "CREATE TABLE IF NOT EXISTS teacher_subjects (teacher_id VARCHAR(255), ordinal INT, subject_code VARCHAR(255),"
+                    + " PRIMARY KEY (teacher_id, ordinal))",
+            "CREATE TABLE IF NOT EXISTS subjects (code_key VARCHAR(255) PRIMARY KEY, code VARCHAR(255), name VARCHAR(255),"
+                    + " units INT, department VARCHAR(255), year_level VARCHAR(64), semester VARCHAR(64), seq INT)",
+            "CREATE INDEX IF NOT EXISTS subjects_term ON subjects (year_level, semester)",
+            "CREATE TABLE IF NOT EXISTS subject_prerequisites (subject_key VARCHAR(255), ordinal INT,"
+                    + " prerequisite VARCHAR(255), PRIMARY KEY (subject_key, ordinal))",
+            "CREATE TABLE IF NOT EXISTS subject_sections (subject_key VARCHAR(255), ordinal INT,"
+                    + " name VARCHAR(64), capacity INT, PRIMARY KEY (subject_key, ordinal))",
+            "CREATE TABLE IF NOT EXISTS enrollments (student_id VARCHAR(255), year_level VARCHAR(64),"
+                    + " semester VARCHAR(64), status VARCHAR(64), seq INT, PRIMARY KEY (student_id, year_level, semester))",
+            "CREATE INDEX IF NOT EXISTS enrollments_term ON enrollments (year_level, semester)",
+            "CREATE TABLE IF NOT EXISTS enrolled_subjects (student_id VARCHAR(255), year_level VARCHAR(64),"
+                    + " semester VARCHAR(64), ordinal INT, code VARCHAR(255), code_key VARCHAR(255), name VARCHAR(255),"
+                    + " units INT, grade DOUBLE, PRIMARY KEY (student_id, year_level, semester, ordinal))",
+            "CREATE INDEX IF NOT EXISTS enrolled_subjects_code ON enrolled_subjects (code_key)",
+    };
+
+    // Columns added to existing tables since; each fails harmlessly once the column is there
+    // (neither H2 nor SQLite has a portable ADD COLUMN IF NOT EXISTS)
+    private static final String[] MIGRATIONS = {
+            "ALTER TABLE enrolled_subjects ADD COLUMN section VARCHAR(64)",
+    };
+
+    private static final String ENROLLMENT_COLUMNS = "student_id, year_level, semester, status";
+    private static final String ENROLLED_SUBJECT_COLUMNS = "student_id, year_level, semester, code, name, units, grade, section";
+
+    // A unit of JDBC work; SQLExceptions are turned into unchecked errors by run()
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private boolean inTransaction = false;
+    private final List<Runnable> afterCommit = new ArrayList<>(); // Of the open unit
+
+    private SqlRepository(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Connects, creates missing tables and, if the database holds no data yet, imports
+     * everything from the given (JSON) backend. Throws if the database cannot be opened.
+     */
+    static SqlRepository open(StorageBackend importFrom) {
+        String url = System.getProperty("evaluation.storage.url", DEFAULT_URL);
+        try {
+            Connection connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(false);
+            SqlRepository repository = new SqlRepository(connection);
+            repository.run(() -> {
+                try (Statement statement = connection.createStatement()) {
+                    for (String ddl : SCHEMA) {
+                        statement.executeUpdate(ddl);
+                    }
+                    for (String ddl : MIGRATIONS) {
+                        try {
+                            statement.executeUpdate(ddl);
+                        } catch (SQLException e) {
+                            // Already migrated
+                        }
+                    }
+                }
+                return null;
+            });
+            if (repository.isEmpty()) {
+                repository.importFrom(importFrom);
+            }
+            return repository;
+        } catch (SQLException e) {
+            throw failure("Could not open " + url, e);
+        }
+    }
+
+    // --- Units of work ---
+
+    public synchronized <T> T inTransaction(Supplier<T> work) {
+        if (inTransaction) {
+            return work.get(); // Joins the enclosing unit
+        }
+        inTransaction = true;
+        T result;
+        try {
+            result = work.get();
+            inTransaction = false;
+            connection.commit();
+        } catch (SQLException e) {
+            inTransaction = false;
+            rollback();
+            throw failure("Commit failed", e);
+        } catch (RuntimeException | Error e) {
+            inTransaction = false;
+            rollback();
+            throw e;
+        }
+        List<Runnable> actions = new ArrayList<>(afterCommit);
+        afterCommit.clear();
+        actions.forEach(Runnable::run);
+        return result;
+    }
+
+    // Runs one operation, committing it unless a unit of work is open; rolls back on failure
+    private synchronized <T> T run(SqlWork<T> work) {
+        try {
+            T result = work.run();
+            if (!inTransaction) {
+                connection.commit();
+            }
+            return result;
+        } catch (SQLException e) {
+            if (!inTransaction) {
+                rollback();
+            }
+            throw failure("Database error", e);
+        }
+    }
+
+    public synchronized void afterCommit(Runnable action) {
+        if (inTransaction) {
+            afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    private void rollback() {
+        afterCommit.clear();
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("Rollback failed: " + e.getMessage());
+        }
+    }
+
+    private static UncheckedIOException failure(String message, SQLException e) {
+        return new UncheckedIOException(new IOException(message + ": " + e.getMessage(), e));
+    }
+
+    // Statements are prepared once per connection and reused
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private PreparedStatement statement(String sql, Object... parameters) throws SQLException {
+        PreparedStatement statement = statement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    private int update(String sql, Object... parameters) throws SQLException {
+        return statement(sql, parameters).executeUpdate();
+    }
+
+    // Next position at the end of a table, so new rows list after existing ones like in the JSON files
+    private int nextSeq(String table) throws SQLException {
+        try (ResultSet rows = statement("SELECT MAX(seq) FROM " + table).executeQuery()) {
+            return rows.next() ? rows.getInt(1) + 1 : 0;
+        }
+    }
+
+    // --- Users ---
+
+    public synchronized Optional<User> findUser(String username, String password, String role) {
+        return run(() -> {
+            try (ResultSet rows = statement("SELECT password, role FROM users WHERE username = ?", username).executeQuery()) {
+                if (rows.next() && password.equals(rows.getString(1)) && rows.getString(2).equalsIgnoreCase(role)) {
+                    return Optional.of(new User(username, rows.getString(1), rows.getString(2)));
+                }
+                return Optional.empty();
+            }
+        });
+    }
+
+    public synchronized List<User> getAllUsers() {
+        return run(() -> {
+            List<User> result = new ArrayList<>();
+            try (ResultSet rows = statement("SELECT username, password, role FROM users ORDER BY username").executeQuery()) {
+                while (rows.next()) {
+                    result.add(new User(rows.getString(1), rows.getString(2), rows.getString(3)));
+                }
+            }
+            return result;
+        });
+    }
+
+    public synchronized boolean addUser(User user) {
+        return run(() -> {
+            try (ResultSet rows = statement("SELECT 1 FROM users WHERE username = ?", user.getUsername()).executeQuery()) {
+                if (rows.next()) {
+                    return false;
+                }
+            }
+            update("INSERT INTO users (username, password, role) VALUES (?, ?, ?)",
+                    user.getUsername(), user.getPassword(), user.getRole());
+            return true;
+        });
+    }
+
+    public synchronized boolean updateUserPassword(String username, String newPassword) {
+        return run(() -> update("UPDATE users SET password = ? WHERE username = ?", newPassword, username) > 0);
+    }
+
+    public synchronized void deleteUser(String username) {
+        run(() -> update("DELETE FROM users WHERE username = ?", username));
+    }
+
+    // --- Students ---
+
+    public synchronized List<Student> getAllStudents() {
+        return run(() -> {
+            List<Student> result = new ArrayList<>();
+            try (ResultSet rows = statement("SELECT id, first_name, last_name, email, year_level, semester"
+                    + " FROM students ORDER BY seq").executeQuery()) {
+                while (rows.next()) {
+                    result.add(readStudent(rows, 1));
+                }
+            }
+            return result;
+        });
+    }
+
+    public synchronized Optional<Student> getStudentById(String id) {
+        return run(() -> {
+            try (ResultSet rows = statement("SELECT id, first_name, last_name, email, year_level, semester"
+                    + " FROM students WHERE id = ?", id).executeQuery()) {
+                return rows.next() ? Optional.of(readStudent(rows, 1)) : Optional.empty();
+            }
+        });
+    }
+
+    public synchronized void saveStudent(Student student) {
+        run(() -> {
+            Object[] values = {student.getFirstName(), student.getLastName(), student.getEmail(),
+                    student.getYearLevel(), student.getSemester(), student.getId()};
+            if (update("UPDATE students SET first_name = ?, last_name = ?, email = ?, year_level = ?, semester = ?"
+                    + " WHERE id = ?", values) == 0) {
+                update("INSERT INTO students (first_name, last_name, email, year_level, semester, id, seq)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)", append(values, nextSeq("students")));
+            }
+            return null;
+        });
+    }
+
+    public synchronized void deleteStudent(String id) {
+        run(() -> update("DELETE FROM students WHERE id = ?", id));
+    }
+
+    private static Student readStudent(ResultSet rows, int first) throws SQLException {
+        return new Student(rows.getString(first), rows.getString(first + 1), rows.getString(first + 2),
+                rows.getString(first + 3), rows.getString(first + 4), rows.getString(first + 5));
+    }
+
+    // --- Teachers ---
+
+    public synchronized List<Teacher> getAllTeachers() {
+        return run(() -> readTeachers("SELECT id, first_name, last_name, email, department, job_position"
+                        + " FROM teachers ORDER BY seq",
+                "SELECT teacher_id, subject_code FROM teacher_subjects ORDER BY teacher_id, ordinal"));
+    }
+
+    public synchronized Optional<Teacher> getTeacherById(String id) {
+        return run(() -> readTeachers("SELECT id, first_name, last_name, email, department, job_position"
+                        + " FROM teachers WHERE id = ?",
+                "SELECT teacher_id, subject_code FROM teacher_subjects WHERE teacher_id = ? ORDER BY ordinal", id)
+                .stream().findFirst());
+    }
+
+    private List<Teacher> readTeachers(String teacherSql, String subjectSql, Object... parameters) throws SQLException {
+        Map<String, Teacher> byId = new LinkedHashMap<>();
+        try (ResultSet rows = statement(teacherSql, parameters).executeQuery()) {
+            while (rows.next()) {
+                Teacher teacher = new Teacher(rows.getString(1), rows.getString(2), rows.getString(3),
+                        rows.getString(4), rows.getString(5), rows.getString(6), new ArrayList<>());
+                byId.put(teacher.getId(), teacher);
+            }
+        }
+        try (ResultSet rows = statement(subjectSql, parameters).executeQuery()) {
+            while (rows.next()) {
+                Teacher teacher = byId.get(rows.getString(1));
+                if (teacher != null) {
+                    teacher.getAssignedSubjectCodes().add(rows.getString(2));
+                }
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    public synchronized void saveTeacher(Teacher teacher) {
+        run(() -> {
+            Object[] values = {teacher.getFirstName(), teacher.getLastName(), teacher.getEmail(),
+                    teacher.getDepartment(), teacher.getPosition(), teacher.getId()};
+            if (update("UPDATE teachers SET first_name = ?, last_name = ?, email = ?, department = ?, job_position = ?"
+                    + " WHERE id = ?", values) == 0) {
+                update("INSERT INTO teachers (first_name, last_name, email, department, job_position, id, seq)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)", append(values, nextSeq("teachers")));
+            }
+            update("DELETE FROM teacher_subjects WHERE teacher_id = ?", teacher.getId());
+            List<String> codes = teacher.getAssignedSubjectCodes();
+            if (codes != null && !codes.isEmpty()) {
+                PreparedStatement insert = statement("INSERT INTO teacher_subjects (teacher_id, ordinal, subject_code)"
+                        + " VALUES (?, ?, ?)");
+                for (int i = 0; i < codes.size(); i++) {
+                    insert.setString(1, teacher.getId());
+                    insert.setInt(2, i);
+                    insert.setString(3, codes.get(i));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    public synchronized void deleteTeacher(String id) {
+        run(() -> {
+            update("DELETE FROM teacher_subjects WHERE teacher_id = ?", id);
+            return update("DELETE FROM teachers WHERE id = ?", id);
+        });
+    }
+
+    // --- Subjects ---
+
+    public synchronized List<Subject> getAllSubjects() {
+        return run(() -> readSubjects("SELECT code_key, code, name, units, department, year_level, semester"
+                        + " FROM subjects ORDER BY seq",
+                "SELECT subject_key, prerequisite FROM subject_prerequisites ORDER BY subject_key, ordinal",
+                "SELECT subject_key, name, capacity FROM subject_sections ORDER BY subject_key, ordinal"));
+    }
+
+    public synchronized Optional<Subject> getSubjectByCode(String code) {
+        String key = DataRepository.subjectKey(code);
+        return run(() -> readSubjects("SELECT code_key, code, name, units, department, year_level, semester"
+                        + " FROM subjects WHERE code_key = ?",
+                "SELECT subject_key, prerequisite FROM subject_prerequisites WHERE subject_key = ? ORDER BY ordinal",
+                "SELECT subject_key, name, capacity FROM subject_sections WHERE subject_key = ? ORDER BY ordinal", key)
+                .stream().findFirst());
+    }
+
+    private List<Subject> readSubjects(String subjectSql, String prerequisiteSql, String sectionSql,
+                                       Object... parameters) throws SQLException {
+        Map<String, Subject> byKey = new LinkedHashMap<>();
+        try (ResultSet rows = statement(subjectSql, parameters).executeQuery()) {
+            while (rows.next()) {
+                byKey.put(rows.getString(1), new Subject(rows.getString(2), rows.getString(3), rows.getInt(4),
+                        rows.getString(5), rows.getString(6), rows.getString(7), new ArrayList<>()));
+            }
+        }
+        try (ResultSet rows = statement(prerequisiteSql, parameters).executeQuery()) {
+            while (rows.next()) {
+                Subject subject = byKey.get(rows.getString(1));
+                if (subject != null) {
+                    subject.getPrerequisites().add(rows.getString(2));
+                }
+            }
+        }
+        Map<String, List<Section>> sections = new HashMap<>();
+        try (ResultSet rows = statement(sectionSql, parameters).executeQuery()) {
+            while (rows.next()) {
+                sections.computeIfAbsent(rows.getString(1), k -> new ArrayList<>())
+                        .add(new Section(rows.getString(2), rows.getInt(3)));
+            }
+        }
+        sections.forEach((key, list) -> {
+            Subject subject = byKey.get(key);
+            if (subject != null) {
+                subject.setSections(list);
+            }
+        });
+        return new ArrayList<>(byKey.values());
+    }
+
+    public synchronized void saveSubject(Subject subject) {
+        String key = DataRepository.subjectKey(subject.getCode());
+        run(() -> {
+            Object[] values = {subject.getCode(), subject.getName(), subject.getUnits(), subject.getDepartment(),
+                    subject.getYearLevel(), subject.getSemester(), key};
+            if (update("UPDATE subjects SET code = ?, name = ?, units = ?, department = ?, year_level = ?, semester = ?"
+                    + " WHERE code_key = ?", values) == 0) {
+                update("INSERT INTO subjects (code, name, units, department, year_level, semester, code_key, seq)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)", append(values, nextSeq("subjects")));
+            }
+            update("DELETE FROM subject_prerequisites WHERE subject_key = ?", key);
+            List<String> prerequisites = subject.getPrerequisites();
+            if (prerequisites != null && !prerequisites.isEmpty()) {
+                PreparedStatement insert = statement("INSERT INTO subject_prerequisites (subject_key, ordinal, prerequisite)"
+                        + " VALUES (?, ?, ?)");
+                for (int i = 0; i < prerequisites.size(); i++) {
+                    insert.setString(1, key);
+                    insert.setInt(2, i);
+                    insert.setString(3, prerequisites.get(i));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            update("DELETE FROM subject_sections WHERE subject_key = ?", key);
+            List<Section> sections = subject.getSections();
+            if (!sections.isEmpty()) {
+                PreparedStatement insert = statement("INSERT INTO subject_sections (subject_key, ordinal, name, capacity)"
+                        + " VALUES (?, ?, ?, ?)");
+                for (int i = 0; i < sections.size(); i++) {
+                    insert.setString(1, key);
+                    insert.setInt(2, i);
+                    insert.setString(3, sections.get(i).getName());
+                    insert.setInt(4, sections.get(i).getCapacity());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    public synchronized void deleteSubject(String code) {
+        String key = DataRepository.subjectKey(code);
+        run(() -> {
+            update("DELETE FROM subject_prerequisites WHERE subject_key = ?", key);
+            update("DELETE FROM subject_sections WHERE subject_key = ?", key);
+            return update("DELETE FROM subjects WHERE code_key = ?", key);
+        });
+    }
+
+    // --- Enrollments ---
+
+    public synchronized List<Enrollment> getAllEnrollments() {
+        return run(() -> readEnrollments("SELECT " + ENROLLMENT_COLUMNS + " FROM enrollments ORDER BY seq",
+                "SELECT " + ENROLLED_SUBJECT_COLUMNS + " FROM enrolled_subjects"
+                        + " ORDER BY student_id, year_level, semester, ordinal"));
+    }
+
+    public synchronized List<Enrollment> getEnrollmentsForStudent(String studentId) {
+        return run(() -> readEnrollments("SELECT " + ENROLLMENT_COLUMNS + " FROM enrollments WHERE student_id = ? ORDER BY seq",
+                "SELECT " + ENROLLED_SUBJECT_COLUMNS + " FROM enrolled_subjects WHERE student_id = ?"
+                        + " ORDER BY year_level, semester, ordinal", studentId));
+    }
+
+    private List<Enrollment> readEnrollments(String enrollmentSql, String subjectSql, Object... parameters) throws SQLException {
+        Map<String, Enrollment> byKey = new LinkedHashMap<>();
+        try (ResultSet rows = statement(enrollmentSql, parameters).executeQuery()) {
+            while (rows.next()) {
+                Enrollment enrollment = new Enrollment(rows.getString(1), rows.getString(2), rows.getString(3),
+                        rows.getString(4), new ArrayList<>());
+                byKey.put(DataRepository.enrollmentKey(enrollment.getStudentId(), enrollment.getTermCode()), enrollment);
+            }
+        }
+        try (ResultSet rows = statement(subjectSql, parameters).executeQuery()) {
+            while (rows.next()) {
+                Enrollment enrollment = byKey.get(DataRepository.enrollmentKey(rows.getString(1),
+                        Term.of(rows.getString(2), rows.getString(3))));
+                if (enrollment != null) {
+                    enrollment.getSubjects().add(readEnrolledSubject(rows, 4));
+                }
+            }
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private static EnrolledSubject readEnrolledSubject(ResultSet rows, int first) throws SQLException {
+        return new EnrolledSubject(rows.getString(first), rows.getString(first + 1), rows.getInt(first + 2),
+                DataRepository.loadedGrade(rows.getDouble(first + 3), null, rows.getString(first)), rows.getString(first + 4));
+    }
+
+    // Replaces the enrollment with the same student + term, or adds it at the end
+    public synchronized void saveEnrollment(Enrollment enrollment) {
+        run(() -> {
+            Object[] key = {enrollment.getStudentId(), enrollment.getYearLevel(), enrollment.getSemester()};
+            if (update("UPDATE enrollments SET status = ? WHERE student_id = ? AND year_level = ? AND semester = ?",
+                    enrollment.getStatus(), key[0], key[1], key[2]) == 0) {
+                update("INSERT INTO enrollments (status, student_id, year_level, semester, seq) VALUES (?, ?, ?, ?, ?)",
+                        enrollment.getStatus(), key[0], key[1], key[2], nextSeq("enrollments"));
+            }
+            update("DELETE FROM enrolled_subjects WHERE student_id = ? AND year_level = ? AND semester = ?", key);
+            insertEnrolledSubjects(enrollment);
+            return null;
+        });
+    }
+
+    private void insertEnrolledSubjects(Enrollment enrollment) throws SQLException {
+        List<EnrolledSubject> subjects = enrollment.getSubjects();
+        if (subjects == null || subjects.isEmpty()) {
+            return;
+        }
+        PreparedStatement insert = statement("INSERT INTO enrolled_subjects"
+                + " (student_id, year_level, semester, ordinal, code, code_key, name, units, grade, section)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        for (int i = 0; i < subjects.size(); i++) {
+            EnrolledSubject subject = subjects.get(i);
+            insert.setString(1, enrollment.getStudentId());
+            insert.setString(2, enrollment.getYearLevel());
+            insert.setString(3, enrollment.getSemester());
+            insert.setInt(4, i);
+            insert.setString(5, subject.getCode());
+            insert.setString(6, DataRepository.subjectKey(subject.getCode()));
+            insert.setString(7, subject.getName());
+            insert.setInt(8, subject.getUnits());
+            insert.setDouble(9, subject.getGrade());
+            insert.setString(10, subject.getSection());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+    }
+
+    public synchronized void deleteEnrollmentsForStudent(String studentId) {
+        run(() -> {
+            update("DELETE FROM enrolled_subjects WHERE student_id = ?", studentId);
+            return update("DELETE FROM enrollments WHERE student_id = ?", studentId);
+        });
+    }
+
+    // Updates the grade in the first enrollment of the student that lists the subject
+    public synchronized boolean updateSubjectGrade(String studentId, String subjectCode, double newGrade) {
+        return run(() -> setGrade(studentId, DataRepository.subjectKey(subjectCode), newGrade));
+    }
+
+    // All grades are written in one transaction; returns one result per student
+    public synchronized List<GradeUpdateResult> updateSubjectGrades(String subjectCode, Map<String, Double> gradesByStudent) {
+        String key = DataRepository.subjectKey(subjectCode);
+        return run(() -> {
+            List<GradeUpdateResult> results = new ArrayList<>();
+            for (Map.Entry<String, Double> entry : gradesByStudent.entrySet()) {
+                if (entry.getValue() == null) {
+                    results.add(new GradeUpdateResult(entry.getKey(), false, "No grade given."));
+                } else if (!EnrolledSubject.isValidGrade(entry.getValue())) {
+                    results.add(new GradeUpdateResult(entry.getKey(), false, EnrolledSubject.GRADE_RULE));
+                } else if (!setGrade(entry.getKey(), key, entry.getValue())) {
+                    results.add(new GradeUpdateResult(entry.getKey(), false, "Enrollment or subject not found."));
+                } else {
+                    results.add(new GradeUpdateResult(entry.getKey(), true, ""));
+                }
+            }
+            return results;
+        });
+    }
+
+    private boolean setGrade(String studentId, String subjectKey, double grade) throws SQLException {
+        PreparedStatement find = statement("SELECT es.year_level, es.semester, es.ordinal FROM enrolled_subjects es"
+                + " JOIN enrollments e ON e.student_id = es.student_id AND e.year_level = es.year_level"
+                + " AND e.semester = es.semester"
+                + " WHERE es.student_id = ? AND es.code_key = ? ORDER BY e.seq, es.ordinal", studentId, subjectKey);
+        find.setMaxRows(1);
+        try (ResultSet rows = find.executeQuery()) {
+            if (!rows.next()) {
+                return false;
+            }
+            update("UPDATE enrolled_subjects SET grade = ? WHERE student_id = ? AND year_level = ? AND semester = ?"
+                    + " AND ordinal = ?", grade, studentId, rows.getString(1), rows.getString(2), rows.getInt(3));
+            return true;
+        }
+    }
+
+    // Class list of a subject: one row per enrollment of an existing student that lists the subject
+    public synchronized List<RosterEntry> getRosterForSubject(String subjectCode) {
+        return run(() -> {
+            List<RosterEntry> roster = new ArrayList<>();
+            try (ResultSet rows = statement("SELECT s.id, s.first_name, s.last_name, s.email, s.year_level, s.semester,"
+                    + " e.year_level, e.semester, es.code, es.name, es.units, es.grade, es.section"
+                    + " FROM enrolled_subjects es"
+                    + " JOIN enrollments e ON e.student_id = es.student_id AND e.year_level = es.year_level"
+                    + " AND e.semester = es.semester"
+                    + " JOIN students s ON s.id = e.student_id"
+                    + " WHERE es.code_key = ? ORDER BY e.seq, es.ordinal", DataRepository.subjectKey(subjectCode)).executeQuery()) {
+                String previous = null;
+                while (rows.next()) {
+                    String enrollmentKey = DataRepository.enrollmentKey(rows.getString(1),
+                            Term.of(rows.getString(7), rows.getString(8)));
+                    if (enrollmentKey.equals(previous)) {
+                        continue; // A subject listed twice in one enrollment only appears once on the class list
+                    }
+                    previous = enrollmentKey;
+                    roster.add(new RosterEntry(readStudent(rows, 1), rows.getString(7), rows.getString(8),
+                            readEnrolledSubject(rows, 9)));
+                }
+            }
+            return roster;
+        });
+    }
+
+    // --- Import ---
+
+    private boolean isEmpty() {
+        return run(() -> {
+            for (String table : new String[]{"users", "students", "teachers", "subjects", "enrollments"}) {
+                try (ResultSet rows = statement("SELECT COUNT(*) FROM " + table).executeQuery()) {
+                    if (rows.next() && rows.getInt(1) > 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    // Copies every record of the source backend in one transaction, keeping their order
+    private void importFrom(StorageBackend source) {
+        inTransaction(() -> {
+            List<User> users = source.getAllUsers();
+            for (User user : users) {
+                addUser(user);
+            }
+            List<Student> students = source.getAllStudents();
+            students.forEach(this::saveStudent);
+            List<Teacher> teachers = source.getAllTeachers();
+            teachers.forEach(this::saveTeacher);
+            List<Subject> subjects = source.getAllSubjects();
+            subjects.forEach(this::saveSubject);
+            List<Enrollment> enrollments = source.getAllEnrollments();
+            enrollments.forEach(this::saveEnrollment);
+            System.out.println("Imported " + users.size() + " users, " + students.size() + " students, "
+                    + teachers.size() + " teachers, " + subjects.size() + " subjects and "
+                    + enrollments.size() + " enrollments into the SQL database.");
+            return null;
+        });
+    }
+
+    private static Object[] append(Object[] values, Object last) {
+        Object[] result = new Object[values.length + 1];
+        System.arraycopy(values, 0, result, 0, values.length);
+        result[values.length] = last;
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package com.evaluation.evaluationsystem.data;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Storage SPI behind {@link DataStorage}: one repository interface per entity, combined into
+ * a backend. Implementations:
+ * - {@link DataRepository}: the data/*.json files (default)
+ * - {@link SqlRepository}: an embedded, file-based SQL database over JDBC (-Devaluation.storage=sql)
+ *
+ * Every implementation returns copies: changing a returned object never changes stored data
+ * until it is passed back through a save method.
+ */
+interface StorageBackend extends UserStore, StudentStore, TeacherStore, SubjectStore, EnrollmentStore {
+
+    /** Runs the work as one unit: all of its changes are stored, or none are. Nested calls join the outer unit. */
+    <T> T inTransaction(Supplier<T> work);
+
+    /** Runs the action once the open unit is stored (right away outside a unit); never if the unit fails. */
+    void afterCommit(Runnable action);
+
+    // Backends that write synchronously anyway can ignore these
+    default void setAsyncWrites(boolean async) {
+    }
+
+    default void awaitWrites() {
+    }
+
+    // Told about each background write that failed (its change was dropped from memory too)
+    default void setWriteFailureHandler(Consumer<RuntimeException> handler) {
+    }
+
+    /**
+     * Picks the backend from -Devaluation.storage (json or sql). The SQL backend falls back to
+     * the JSON files if the database cannot be opened (e.g. the JDBC driver is not on the classpath).
+     */
+    static StorageBackend open() {
+        if ("sql".equalsIgnoreCase(System.getProperty("evaluation.storage"))) {
+            try {
+                return SqlRepository.open(DataRepository.getInstance());
+            } catch (RuntimeException e) {
+                System.err.println("Could not open the SQL database, using the JSON files instead: " + e.getMessage());
+            }
+        }
+        return DataRepository.getInstance();
+    }
+}
@@ -0,0 +1,14 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.*;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Student records, keyed by id. Part of {@link StorageBackend}. */
+interface StudentStore {
+    List<Student> getAllStudents();
+    Optional<Student> getStudentById(String id);
+    void saveStudent(Student student); // Insert or replace by id
+    void deleteStudent(String id);
+}
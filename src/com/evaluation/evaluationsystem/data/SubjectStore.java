@@ -0,0 +1,14 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.*;
+
+import java.util.List;
+import java.util.Optional;
+
+/** The subject catalog; codes are matched case-insensitively. Part of {@link StorageBackend}. */
+interface SubjectStore {
+    List<Subject> getAllSubjects();
+    Optional<Subject> getSubjectByCode(String code);
+    void saveSubject(Subject subject);
+    void deleteSubject(String code);
+}
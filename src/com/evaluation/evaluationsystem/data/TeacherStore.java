@@ -0,0 +1,14 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.*;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Teacher records, keyed by id. Part of {@link StorageBackend}. */
+interface TeacherStore {
+    List<Teacher> getAllTeachers();
+    Optional<Teacher> getTeacherById(String id);
+    void saveTeacher(Teacher teacher);
+    void deleteTeacher(String id);
+}
@@ -0,0 +1,236 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the data files changed by a group of repository operations so each one is written
+ * once at the end instead of once per operation (see {@link DataRepository#inTransaction}).
+ *
+ * Commit is all-or-nothing across files. Every touched file is first written to its own temp
+ * file; a failure there leaves every data file unchanged. Before the temp files are renamed
+ * over the data files, each original is kept as a hard link (or copy) and a marker listing
+ * them is written. If a rename fails, the files already replaced are put back from those
+ * originals; if the process dies mid-way, {@link #recover()} puts them back on the next start.
+ * How much of a completed commit survives a power loss still depends on the durability policy.
+ * On any failure the touched files are dropped from the cache, so memory is reloaded from disk.
+ */
+class UnitOfWork {
+
+    // Present only while the renames of a multi-file commit are in progress
+    private static final String MARKER = "commit-in-progress.json";
+
+    private final Set<CachedFile<?>> touched = new LinkedHashSet<>();
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    // Marks a file as changed; it is written at commit
+    void add(CachedFile<?> file) {
+        touched.add(file);
+    }
+
+    // Runs the action after a successful commit; dropped on rollback
+    void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    void runAfterCommit() {
+        afterCommit.forEach(Runnable::run);
+    }
+
+    void commit() {
+        List<CachedFile<?>> files = new ArrayList<>();
+        List<Path> prepared = new ArrayList<>();
+        try {
+            for (CachedFile<?> file : touched) {
+                if (file.isLoaded()) { // Nothing to write otherwise
+                    prepared.add(file.prepareSave());
+                    files.add(file);
+                }
+            }
+        } catch (RuntimeException e) {
+            discard(prepared, 0);
+            throw e;
+        }
+        if (files.size() <= 1) {
+            for (int i = 0; i < files.size(); i++) {
+                files.get(i).commitSave(prepared.get(i)); // A single rename is atomic on its own
+            }
+            return;
+        }
+
+        // filename -> whether the data file existed before (and so has a backup)
+        Map<String, Boolean> originals = new LinkedHashMap<>();
+        try {
+            for (CachedFile<?> file : files) {
+                originals.put(file.getFilename(), backUp(file.getFilename()));
+            }
+            writeMarker(originals);
+        } catch (IOException e) {
+            discard(prepared, 0);
+            removeBackups(originals);
+            throw new UncheckedIOException("Could not save: " + e.getMessage(), e);
+        }
+
+        int committed = 0;
+        try {
+            for (CachedFile<?> file : files) {
+                file.commitSave(prepared.get(committed), false);
+                committed++;
+            }
+        } catch (RuntimeException e) {
+            discard(prepared, committed + 1); // The failed file's own temp is removed by commitSave
+            if (restore(originals)) {
+                removeMarker();
+                removeBackups(originals);
+            }
+            throw e;
+        }
+        removeMarker();
+        removeBackups(originals);
+        for (CachedFile<?> file : files) {
+            file.saved(); // e.g. resetting the journal, only once the whole unit is on disk
+        }
+    }
+
+    // Discards the in-memory changes by re-reading every touched file on next access
+    void rollback() {
+        for (CachedFile<?> file : touched) {
+            file.invalidate();
+        }
+    }
+
+    /**
+     * Puts back the originals of a commit that was interrupted by a crash. Called once before any
+     * data file is read.
+     */
+    static void recover() {
+        if (!Files.exists(JsonUtils.getDataFile(MARKER))) {
+            return;
+        }
+        Map<String, Boolean> originals = new LinkedHashMap<>();
+        boolean complete = JsonUtils.readJSON(MARKER, in -> {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("files")) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                while (in.hasNext()) {
+                    String file = null;
+                    boolean existed = false;
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        switch (in.nextName()) {
+                            case "file": file = in.nextString(); break;
+                            case "existed": existed = in.nextBoolean(); break;
+                            default: in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    if (file != null) {
+                        originals.put(file, existed);
+                    }
+                }
+                in.endArray();
+            }
+            in.endObject();
+        });
+        if (complete && restore(originals)) {
+            System.out.println("Restored " + originals.size() + " data files from an interrupted save");
+            removeMarker();
+            removeBackups(originals);
+        } else {
+            System.err.println("Could not undo an interrupted save; see " + MARKER + " and the *.unit-backup files");
+        }
+    }
+
+    // Keeps the current data file as a backup; false when there is no data file yet
+    private static boolean backUp(String filename) throws IOException {
+        Path target = JsonUtils.getDataFile(filename);
+        Path backup = backupOf(filename);
+        Files.deleteIfExists(backup); // Leftover of a commit that was already completed
+        if (!Files.exists(target)) {
+            return false;
+        }
+        try {
+            Files.createLink(backup, target); // Free; the rename gives the data file a new inode
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(target, backup, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        return true;
+    }
+
+    // Puts every original back (removing files that did not exist); true if all of them were restored
+    private static boolean restore(Map<String, Boolean> originals) {
+        boolean restored = true;
+        for (Map.Entry<String, Boolean> entry : originals.entrySet()) {
+            Path target = JsonUtils.getDataFile(entry.getKey());
+            try {
+                if (!entry.getValue()) {
+                    Files.deleteIfExists(target);
+                } else {
+                    Path backup = backupOf(entry.getKey());
+                    if (!Files.exists(backup)) {
+                        continue; // Already put back by an earlier, interrupted restore
+                    }
+                    try {
+                        Files.move(backup, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(backup, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not restore " + target + ": " + e.getMessage());
+                restored = false;
+            }
+        }
+        return restored;
+    }
+
+    private static void writeMarker(Map<String, Boolean> originals) throws IOException {
+        JsonUtils.writeJSON(MARKER, out -> {
+            out.beginObject().name("files").beginArray();
+            for (Map.Entry<String, Boolean> entry : originals.entrySet()) {
+                out.beginObject().name("file").value(entry.getKey()).name("existed").value(entry.getValue()).endObject();
+            }
+            out.endArray().endObject();
+        });
+    }
+
+    // The marker goes first: without it, leftover backups are just ignored
+    private static void removeMarker() {
+        JsonUtils.discardJSON(JsonUtils.getDataFile(MARKER));
+    }
+
+    private static void removeBackups(Map<String, Boolean> originals) {
+        for (String filename : originals.keySet()) {
+            JsonUtils.discardJSON(backupOf(filename));
+        }
+    }
+
+    private static Path backupOf(String filename) {
+        Path target = JsonUtils.getDataFile(filename);
+        return target.resolveSibling("." + target.getFileName() + ".unit-backup");
+    }
+
+    private static void discard(List<Path> prepared, int from) {
+        for (Path temp : prepared.subList(Math.min(from, prepared.size()), prepared.size())) {
+            if (temp != null) {
+                JsonUtils.discardJSON(temp);
+            }
+        }
+    }
+}
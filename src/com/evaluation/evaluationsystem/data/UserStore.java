@@ -0,0 +1,15 @@
+package com.evaluation.evaluationsystem.data;
+
+import com.evaluation.evaluationsystem.models.*;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Login accounts, one per username. Part of {@link StorageBackend}. */
+interface UserStore {
+    Optional<User> findUser(String username, String password, String role);
+    List<User> getAllUsers();
+    boolean addUser(User user); // false if the username is taken
+    boolean updateUserPassword(String username, String newPassword); // false if there is no such user
+    void deleteUser(String username);
+}
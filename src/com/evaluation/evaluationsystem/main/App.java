@@ -1,5 +1,6 @@
 package com.evaluation.evaluationsystem.main; // Or your main package
 
+import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.ui.LoginFrame;
 import com.formdev.flatlaf.FlatLightLaf; // Basic light theme
 // For other themes, you might import them like this:
@@ -27,6 +28,16 @@ public class App {
             // Fallback to default L&F or handle error
         }
 
+        // Write data files on a background thread so saving never freezes the UI;
+        // pending writes are flushed when the application exits
+        DataStorage.setAsyncWrites(true);
+        // A background save can fail after a dialog already said "saved", so say so when it happens
+        DataStorage.addWriteFailureListener(message -> SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(null,
+                        "A recent change could not be saved and has been undone:\n" + message
+                                + "\nPlease check the data folder and try again.",
+                        "Save Failed", JOptionPane.ERROR_MESSAGE)));
+
         // Ensure GUI updates are on the Event Dispatch Thread
         SwingUtilities.invokeLater(new Runnable() {
             public void run() {
@@ -1,27 +1,48 @@
 package com.evaluation.evaluationsystem.models;
 
 public class EnrolledSubject {
-    private String code;
-    private String name;
-    private int units;
-    private double grade; // 0.0 initially or if ungraded
+    // Grades are kept in hundredths (1.75 -> 175); NO_GRADE marks a subject that was not graded yet
+    public static final short NO_GRADE = Short.MIN_VALUE;
+    public static final double MIN_GRADE = 1.0;
+    public static final double MAX_GRADE = 5.0;
+    public static final String GRADE_RULE = "Grade must be between 1.0 and 5.0, or 0.0 for no grade.";
+
+    private final int subjectRef; // Code, name and units, shared through SubjectRef
+    private short grade;
 
     public EnrolledSubject(String code, String name, int units, double grade) {
-        this.code = code;
-        this.name = name;
-        this.units = units;
-        this.grade = grade;
+        this(code, name, units, grade, null);
+    }
+
+    // section: the class section the seat is in, or null for subjects without sections
+    public EnrolledSubject(String code, String name, int units, double grade, String section) {
+        this.subjectRef = SubjectRef.id(code, name, units, section == null || section.isEmpty() ? null : section);
+        setGrade(grade);
     }
 
     // --- Getters and Setters ---
-    public String getCode() { return code; }
-    public String getName() { return name; }
-    public int getUnits() { return units; }
-    public double getGrade() { return grade; }
-    public void setGrade(double grade) { this.grade = grade; }
+    public String getCode() { return SubjectRef.get(subjectRef).code; }
+    public String getName() { return SubjectRef.get(subjectRef).name; }
+    public int getUnits() { return SubjectRef.get(subjectRef).units; }
+    public String getSection() { return SubjectRef.get(subjectRef).section; }
+    public double getGrade() { return grade == NO_GRADE ? 0.0 : grade / 100.0; } // 0.0 if ungraded
+    public void setGrade(double grade) {
+        if (!isValidGrade(grade)) {
+            throw new IllegalArgumentException(GRADE_RULE + " Got " + grade);
+        }
+        this.grade = grade == 0.0 ? NO_GRADE : (short) Math.round(grade * 100);
+    }
+
+    // 0.0 (not graded yet) or MIN_GRADE to MAX_GRADE; anything else would not fit the hundredths short
+    public static boolean isValidGrade(double grade) {
+        return grade == 0.0 || (grade >= MIN_GRADE && grade <= MAX_GRADE);
+    }
+
+    public boolean isGraded() { return grade != NO_GRADE; }
+    public short getGradeHundredths() { return grade; }
 
     public String getStatus() {
-        if (grade == 0.0) return "In Progress";
-        return grade <= 3.0 ? "Passed" : "Failed";
+        if (!isGraded()) return "In Progress";
+        return grade <= 300 ? "Passed" : "Failed";
     }
-}
\ No newline at end of file
+}
@@ -5,25 +5,24 @@ import java.util.List;
 
 public class Enrollment {
     private String studentId;
-    private String yearLevel;
-    private String semester;
+    private int term; // Year level + semester, packed by Term
     private String status; // "Enrolled", "Completed", "Failed", "In Progress"
     private List<EnrolledSubject> subjects;
 
     public Enrollment(String studentId, String yearLevel, String semester, String status, List<EnrolledSubject> subjects) {
-        this.studentId = studentId;
-        this.yearLevel = yearLevel;
-        this.semester = semester;
-        this.status = status;
+        this.studentId = InternTable.string(studentId); // Shared by all of the student's enrollments
+        this.term = Term.of(yearLevel, semester);
+        this.status = InternTable.string(status);
         this.subjects = subjects != null ? new ArrayList<>(subjects) : new ArrayList<>();
     }
 
     // --- Getters and Setters ---
     public String getStudentId() { return studentId; }
-    public String getYearLevel() { return yearLevel; }
-    public String getSemester() { return semester; }
+    public String getYearLevel() { return Term.yearLevel(term); }
+    public String getSemester() { return Term.semester(term); }
+    public int getTermCode() { return term; }
     public String getStatus() { return status; }
     public List<EnrolledSubject> getSubjects() { return subjects; }
-    public void setStatus(String status) { this.status = status; }
+    public void setStatus(String status) { this.status = InternTable.string(status); }
     public void setSubjects(List<EnrolledSubject> subjects) { this.subjects = subjects; }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.evaluation.evaluationsystem.models;
+
+/**
+ * Outcome of one entry of a batched grade update.
+ */
+public class GradeUpdateResult {
+    private String studentId;
+    private boolean success;
+    private String message; // Reason for failure, empty on success
+
+    public GradeUpdateResult(String studentId, boolean success, String message) {
+        this.studentId = studentId;
+        this.success = success;
+        this.message = message;
+    }
+
+    // --- Getters ---
+    public String getStudentId() { return studentId; }
+    public boolean isSuccess() { return success; }
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,54 @@
+package com.evaluation.evaluationsystem.models;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only table that gives each distinct value a small int id, so records can store the id
+ * and share one instance of the value. Lookups by id are lock-free; adding a value takes a lock.
+ * Ids are only valid in this JVM, they are never written to the data files.
+ */
+final class InternTable<T> {
+
+    // Ids, term values and statuses repeated across many records
+    private static final InternTable<String> STRINGS = new InternTable<>();
+
+    private final ConcurrentHashMap<T, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Object[] values = new Object[16];
+    private int size = 0;
+
+    // Id of the value, adding it on first use; equal values always get the same id
+    int id(T value) {
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        return (T) values[id];
+    }
+
+    // The shared instance equal to the value
+    T intern(T value) {
+        return get(id(value));
+    }
+
+    static String string(String value) {
+        return value == null ? null : STRINGS.intern(value);
+    }
+
+    private synchronized int add(T value) {
+        Integer existing = ids.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        Object[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current; // Publish the slot before the id becomes visible
+        ids.put(value, size);
+        return size++;
+    }
+}
@@ -0,0 +1,25 @@
+package com.evaluation.evaluationsystem.models;
+
+/**
+ * One row of a subject's class list: a student joined with the enrollment term
+ * and the enrolled subject (grade, units) they are taking it in.
+ */
+public class RosterEntry {
+    private Student student;
+    private String yearLevel;
+    private String semester;
+    private EnrolledSubject subject;
+
+    public RosterEntry(Student student, String yearLevel, String semester, EnrolledSubject subject) {
+        this.student = student;
+        this.yearLevel = yearLevel;
+        this.semester = semester;
+        this.subject = subject;
+    }
+
+    // --- Getters ---
+    public Student getStudent() { return student; }
+    public String getYearLevel() { return yearLevel; }
+    public String getSemester() { return semester; }
+    public EnrolledSubject getSubject() { return subject; }
+}
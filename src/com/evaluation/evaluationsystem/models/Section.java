@@ -0,0 +1,67 @@
+package com.evaluation.evaluationsystem.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * One class section of a subject (e.g. "A") and the number of students it can seat.
+ * Immutable, so subjects and their copies can share sections.
+ */
+public class Section {
+    private final String name;
+    private final int capacity;
+
+    public Section(String name, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    // --- Getters ---
+    public String getName() { return name; }
+    public int getCapacity() { return capacity; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Section)) {
+            return false;
+        }
+        Section other = (Section) o;
+        return capacity == other.capacity && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, capacity);
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + capacity; // The form parseList reads back
+    }
+
+    // "A:40, B:35" -> sections A (40 seats) and B (35 seats); blank text means no sections
+    public static List<Section> parseList(String text) {
+        List<Section> sections = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            return sections;
+        }
+        for (String part : text.split(",")) {
+            String[] fields = part.trim().split("\\s*:\\s*");
+            try {
+                if (fields.length != 2 || fields[0].isEmpty()) {
+                    throw new NumberFormatException();
+                }
+                sections.add(new Section(fields[0], Integer.parseInt(fields[1])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Sections must be written as name:capacity, e.g. A:40, B:35 (not \"" + part.trim() + "\").");
+            }
+        }
+        return sections;
+    }
+
+    public static String formatList(List<Section> sections) {
+        return sections.stream().map(Section::toString).collect(Collectors.joining(", "));
+    }
+}
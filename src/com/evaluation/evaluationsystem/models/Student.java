@@ -5,8 +5,7 @@ public class Student {
     private String firstName;
     private String lastName;
     private String email;
-    private String yearLevel;
-    private String semester;
+    private int term; // Year level + semester, packed by Term
     // Add other relevant fields if needed
 
     public Student(String id, String firstName, String lastName, String email, String yearLevel, String semester) {
@@ -15,8 +14,7 @@ public class Student {
         this.firstName = firstName;
         this.lastName = lastName;
         this.email = email;
-        this.yearLevel = yearLevel;
-        this.semester = semester;
+        this.term = Term.of(yearLevel, semester);
     }
 
     // --- Getters ---
@@ -24,15 +22,16 @@ public class Student {
     public String getFirstName() { return firstName; }
     public String getLastName() { return lastName; }
     public String getEmail() { return email; }
-    public String getYearLevel() { return yearLevel; }
-    public String getSemester() { return semester; }
+    public String getYearLevel() { return Term.yearLevel(term); }
+    public String getSemester() { return Term.semester(term); }
+    public int getTermCode() { return term; }
 
     // --- Setters --- (Optional, depending on if you allow modification)
     public void setFirstName(String firstName) { this.firstName = firstName; }
     public void setLastName(String lastName) { this.lastName = lastName; }
     public void setEmail(String email) { this.email = email; }
-    public void setYearLevel(String yearLevel) { this.yearLevel = yearLevel; }
-    public void setSemester(String semester) { this.semester = semester; }
+    public void setYearLevel(String yearLevel) { this.term = Term.of(yearLevel, getSemester()); }
+    public void setSemester(String semester) { this.term = Term.of(getYearLevel(), semester); }
 
     @Override
     public String toString() {
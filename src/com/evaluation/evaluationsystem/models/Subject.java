@@ -1,6 +1,7 @@
 package com.evaluation.evaluationsystem.models;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Subject {
@@ -8,18 +9,23 @@ public class Subject {
     private String name;
     private int units; // Simplified to total units for now
     private String department;
-    private String yearLevel;
-    private String semester;
+    private int term; // Year level + semester, packed by Term
     private List<String> prerequisites;
+    private List<Section> sections; // Empty when the subject has no seat limit
 
     public Subject(String code, String name, int units, String department, String yearLevel, String semester, List<String> prerequisites) {
+        this(code, name, units, department, yearLevel, semester, prerequisites, null);
+    }
+
+    public Subject(String code, String name, int units, String department, String yearLevel, String semester,
+                   List<String> prerequisites, List<Section> sections) {
         this.code = code;
         this.name = name;
         this.units = units;
         this.department = department;
-        this.yearLevel = yearLevel;
-        this.semester = semester;
+        this.term = Term.of(yearLevel, semester);
         this.prerequisites = prerequisites != null ? new ArrayList<>(prerequisites) : new ArrayList<>();
+        setSections(sections);
     }
 
     // --- Getters ---
@@ -27,12 +33,25 @@ public class Subject {
     public String getName() { return name; }
     public int getUnits() { return units; }
     public String getDepartment() { return department; }
-    public String getYearLevel() { return yearLevel; }
-    public String getSemester() { return semester; }
+    public String getYearLevel() { return Term.yearLevel(term); }
+    public String getSemester() { return Term.semester(term); }
+    public int getTermCode() { return term; }
     public List<String> getPrerequisites() { return prerequisites; }
+    public List<Section> getSections() { return sections; } // Unmodifiable; replace through setSections
+
+    // The section with this name (any case), or null
+    public Section getSection(String sectionName) {
+        for (Section section : sections) {
+            if (section.getName().equalsIgnoreCase(sectionName)) {
+                return section;
+            }
+        }
+        return null;
+    }
 
     // --- Setters --- (If needed)
     public void setPrerequisites(List<String> prerequisites) { this.prerequisites = prerequisites != null ? new ArrayList<>(prerequisites) : new ArrayList<>(); }
+    public void setSections(List<Section> sections) { this.sections = sections != null ? Collections.unmodifiableList(new ArrayList<>(sections)) : Collections.emptyList(); }
 
 
     @Override
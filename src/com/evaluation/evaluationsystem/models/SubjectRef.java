@@ -0,0 +1,47 @@
+package com.evaluation.evaluationsystem.models;
+
+import java.util.Objects;
+
+/**
+ * The catalog part of an enrolled subject (code, name, units, section). Enrollment records repeat the
+ * same few subjects many times, so each distinct combination is stored once and records keep its id.
+ */
+final class SubjectRef {
+
+    private static final InternTable<SubjectRef> CATALOG = new InternTable<>();
+
+    final String code;
+    final String name;
+    final int units;
+    final String section; // null when not taken in a section
+
+    private SubjectRef(String code, String name, int units, String section) {
+        this.code = code;
+        this.name = name;
+        this.units = units;
+        this.section = section;
+    }
+
+    static int id(String code, String name, int units, String section) {
+        return CATALOG.id(new SubjectRef(code, name, units, section));
+    }
+
+    static SubjectRef get(int id) {
+        return CATALOG.get(id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SubjectRef)) {
+            return false;
+        }
+        SubjectRef other = (SubjectRef) o;
+        return units == other.units && Objects.equals(code, other.code) && Objects.equals(name, other.name)
+                && Objects.equals(section, other.section);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(code, name, units, section);
+    }
+}
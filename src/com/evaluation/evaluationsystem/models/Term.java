@@ -0,0 +1,47 @@
+package com.evaluation.evaluationsystem.models;
+
+/**
+ * Packs a year level and semester into one int: (year level id << 16) | semester id.
+ * The usual values ("1st Year".."5th Year"; "1st Semester", "2nd Semester", "Summer") get fixed ids
+ * in calendar order, so comparing two codes orders those terms chronologically and an equality check
+ * is a single int comparison. Any other text still round-trips exactly; it gets the next free id.
+ * 0 stands for a missing (null) part.
+ */
+public final class Term {
+
+    private static final InternTable<String> YEAR_LEVELS = new InternTable<>();
+    private static final InternTable<String> SEMESTERS = new InternTable<>();
+
+    static {
+        for (String yearLevel : new String[]{"1st Year", "2nd Year", "3rd Year", "4th Year", "5th Year"}) {
+            YEAR_LEVELS.id(yearLevel);
+        }
+        for (String semester : new String[]{"1st Semester", "2nd Semester", "Summer"}) {
+            SEMESTERS.id(semester);
+        }
+    }
+
+    private Term() {
+    }
+
+    public static int of(String yearLevel, String semester) {
+        return (id(YEAR_LEVELS, yearLevel) << 16) | id(SEMESTERS, semester);
+    }
+
+    public static String yearLevel(int term) {
+        return value(YEAR_LEVELS, term >>> 16);
+    }
+
+    public static String semester(int term) {
+        return value(SEMESTERS, term & 0xFFFF);
+    }
+
+    // Ids start at 1 so that 0 can stand for null
+    private static int id(InternTable<String> table, String value) {
+        return value == null ? 0 : table.id(value) + 1;
+    }
+
+    private static String value(InternTable<String> table, int id) {
+        return id == 0 ? null : table.get(id - 1);
+    }
+}
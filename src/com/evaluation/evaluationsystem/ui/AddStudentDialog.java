@@ -1,5 +1,7 @@
 package com.evaluation.evaluationsystem.ui; // Adjust package if needed
 
+import com.evaluation.evaluationsystem.curriculum.SeatLedger;
+import com.evaluation.evaluationsystem.curriculum.SubjectCatalog;
 import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.models.*;
 
@@ -11,7 +13,6 @@ import java.util.Random;
 import java.util.regex.Pattern;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class AddStudentDialog extends JDialog {
 
@@ -132,12 +133,15 @@ public class AddStudentDialog extends JDialog {
         User newUser = new User(id, password, "Student");
 
         try {
-            DataStorage.saveStudent(newStudent);
-            DataStorage.addUser(newUser);
-            System.out.println("Student and User account created for ID: " + id);
+            // Student, account and enrollment are written together; nothing is saved if any part fails
+            boolean initialEnrollmentCreated = DataStorage.callInTransaction(() -> {
+                DataStorage.saveStudent(newStudent);
+                DataStorage.addUser(newUser);
+                System.out.println("Student and User account created for ID: " + id);
 
-            // --- Create Initial Enrollment (1st Year, 1st Semester) ---
-            boolean initialEnrollmentCreated = createInitialEnrollment(id);
+                // --- Create Initial Enrollment (1st Year, 1st Semester) ---
+                return createInitialEnrollment(id);
+            });
 
             // --- Show Final Message ---
             String enrollmentMessage = initialEnrollmentCreated ?
@@ -167,14 +171,8 @@ public class AddStudentDialog extends JDialog {
         System.out.println("Attempting to create initial enrollment for: " + studentId + " - " + targetYear + " " + targetSemester);
 
         try {
-            // 1. Get all subjects from storage
-            List<Subject> allSubjects = DataStorage.getAllSubjects();
-
-            // 2. Filter subjects for 1st Year, 1st Semester
-            List<Subject> firstSemSubjects = allSubjects.stream()
-                    .filter(s -> targetYear.equalsIgnoreCase(s.getYearLevel()) &&
-                            targetSemester.equalsIgnoreCase(s.getSemester()))
-                    .collect(Collectors.toList());
+            // 1-2. Subjects for 1st Year, 1st Semester, from the catalog's term index
+            List<Subject> firstSemSubjects = SubjectCatalog.current().getSubjectsForTerm(targetYear, targetSemester);
 
             if (firstSemSubjects.isEmpty()) {
                 System.err.println("Warning: No subjects found defined for " + targetYear + ", " + targetSemester + " in subjects.json.");
@@ -183,16 +181,30 @@ public class AddStudentDialog extends JDialog {
 
             System.out.println("Found " + firstSemSubjects.size() + " subjects for initial enrollment.");
 
-            // 3. Create list of EnrolledSubject objects
+            // 3. Create list of EnrolledSubject objects, each with a seat held in one of its sections
+            SeatLedger ledger = SeatLedger.getInstance();
             List<EnrolledSubject> subjectsToEnroll = new ArrayList<>();
+            List<SeatLedger.Hold> holds = new ArrayList<>();
+            List<Subject> fullSubjects = new ArrayList<>();
             for (Subject subject : firstSemSubjects) {
+                SeatLedger.Hold hold = ledger.reserve(subject.getCode(), targetYear, targetSemester);
+                if (hold == null) {
+                    fullSubjects.add(subject); // Waitlisted below
+                    continue;
+                }
+                holds.add(hold);
                 subjectsToEnroll.add(new EnrolledSubject(
                         subject.getCode(),
                         subject.getName(),
                         subject.getUnits(),
-                        0.0 // Initial grade is 0.0 (NG)
+                        0.0, // Initial grade is 0.0 (NG)
+                        hold.getSection()
                 ));
             }
+            if (subjectsToEnroll.isEmpty()) {
+                System.err.println("Warning: Every section of the " + targetYear + ", " + targetSemester + " subjects is full.");
+                return false;
+            }
 
             // 4. Create the Enrollment object
             Enrollment initialEnrollment = new Enrollment(
@@ -203,9 +215,13 @@ public class AddStudentDialog extends JDialog {
                     subjectsToEnroll
             );
 
-            // 5. Save the Enrollment record
-            DataStorage.saveEnrollment(initialEnrollment);
+            // 5. Save the Enrollment record, taking the held seats
+            ledger.enroll(initialEnrollment, holds);
             System.out.println("Initial enrollment record saved successfully.");
+            for (Subject subject : fullSubjects) {
+                int position = ledger.joinWaitlist(studentId, subject.getCode(), targetYear, targetSemester);
+                System.out.println("Sections of " + subject.getCode() + " are full; waitlisted at #" + position + ".");
+            }
             return true; // Success
 
         } catch (Exception e) {
@@ -1,6 +1,7 @@
 package com.evaluation.evaluationsystem.ui; // Adjust package if needed
 
 import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.Section;
 import com.evaluation.evaluationsystem.models.Subject;
 
 import javax.swing.*;
@@ -20,6 +21,7 @@ public class AddSubjectDialog extends JDialog {
     private JTextField nameField;
     private JTextField unitsField; // Use JTextField for units, validate as integer later
     private JTextField departmentField;
+    private JTextField sectionsField;
     private JComboBox<String> yearLevelComboBox;
     private JComboBox<String> semesterComboBox;
 
@@ -57,6 +59,8 @@ public class AddSubjectDialog extends JDialog {
         nameField = new JTextField(20);
         unitsField = new JTextField(5);
         departmentField = new JTextField(15);
+        sectionsField = new JTextField(20);
+        sectionsField.setToolTipText("Sections and their capacities, e.g. A:40, B:35 (leave blank for no seat limit)");
 
         String[] yearLevels = {"1st Year", "2nd Year", "3rd Year", "4th Year", "Summer"}; // Added Summer
         yearLevelComboBox = new JComboBox<>(yearLevels);
@@ -126,6 +130,11 @@ public class AddSubjectDialog extends JDialog {
         gbc.gridx = 2; gbc.gridy = 2; gbc.fill = GridBagConstraints.NONE; formPanel.add(new JLabel("Semester:"), gbc);
         gbc.gridx = 3; gbc.gridy = 2; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(semesterComboBox, gbc);
 
+        // Sections (Row 3)
+        gbc.gridx = 0; gbc.gridy = 3; gbc.fill = GridBagConstraints.NONE; formPanel.add(new JLabel("Sections:"), gbc);
+        gbc.gridx = 1; gbc.gridy = 3; gbc.gridwidth = 3; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(sectionsField, gbc);
+        gbc.gridwidth = 1;
+
         // --- Center Panel for Prerequisite Selection ---
         JPanel prereqPanel = new JPanel(new GridBagLayout());
         prereqPanel.setBorder(BorderFactory.createTitledBorder("Select Prerequisites"));
@@ -242,8 +251,16 @@ public class AddSubjectDialog extends JDialog {
             return; // Stop if basic validation fails
         }
 
+        List<Section> sections;
+        try {
+            sections = Section.parseList(sectionsField.getText());
+        } catch (IllegalArgumentException ex) {
+            showError("Validation Error", ex.getMessage());
+            return;
+        }
+
         // 4. Create Subject object
-        Subject newSubject = new Subject(code, name, units, department, yearLevel, semester, prerequisiteCodes);
+        Subject newSubject = new Subject(code, name, units, department, yearLevel, semester, prerequisiteCodes, sections);
 
         // 5. Save using DataStorage
         try {
@@ -0,0 +1,204 @@
+package com.evaluation.evaluationsystem.ui;
+
+import com.evaluation.evaluationsystem.analytics.CohortAnalytics;
+import com.evaluation.evaluationsystem.analytics.GradeStats;
+import com.evaluation.evaluationsystem.analytics.RankedStudent;
+import com.evaluation.evaluationsystem.analytics.RankingCriteria;
+import com.evaluation.evaluationsystem.analytics.RankingService;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class AdminAnalyticsPanel extends JPanel {
+
+    private static final String[] GROUPINGS = {"Subject", "Term", "Department", "Teacher"};
+
+    private JComboBox<String> groupByComboBox;
+    private JButton refreshButton;
+    private JButton honorsButton;
+    private JTable statsTable;
+    private DefaultTableModel tableModel;
+    private JTextArea histogramArea;
+
+    private final List<GradeStats> rowStats = new ArrayList<>(); // Stats of each table row, by model index
+
+    public AdminAnalyticsPanel() {
+        setLayout(new BorderLayout(10, 10));
+        initComponents();
+        layoutComponents();
+        addListeners();
+
+        // Load data initially
+        loadStats();
+    }
+
+    private void initComponents() {
+        groupByComboBox = new JComboBox<>(GROUPINGS);
+        refreshButton = new JButton("Refresh");
+        honorsButton = new JButton("Honors List...");
+
+        String[] columnNames = {"Group", "Enrolled", "Passed", "Failed", "In Progress", "Pass Rate", "Mean Grade", "Weighted GPA"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : column <= 4 ? Integer.class : String.class; // Counts sort as numbers
+            }
+        };
+        statsTable = new JTable(tableModel);
+        statsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        statsTable.setAutoCreateRowSorter(true);
+        statsTable.getColumnModel().getColumn(0).setPreferredWidth(250);
+
+        histogramArea = new JTextArea(12, 40);
+        histogramArea.setEditable(false);
+        histogramArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+    }
+
+    private void layoutComponents() {
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        topPanel.add(new JLabel("Group by:"));
+        topPanel.add(groupByComboBox);
+        topPanel.add(refreshButton);
+        topPanel.add(honorsButton);
+        add(topPanel, BorderLayout.NORTH);
+
+        add(new JScrollPane(statsTable), BorderLayout.CENTER);
+
+        JScrollPane histogramScrollPane = new JScrollPane(histogramArea);
+        histogramScrollPane.setBorder(BorderFactory.createTitledBorder("Grade Distribution (select a row)"));
+        add(histogramScrollPane, BorderLayout.SOUTH);
+    }
+
+    private void addListeners() {
+        groupByComboBox.addActionListener(e -> loadStats());
+        refreshButton.addActionListener(e -> loadStats());
+        honorsButton.addActionListener(e -> showHonorsList());
+        statsTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showHistogram();
+            }
+        });
+    }
+
+    // Method to load or refresh the statistics for the selected grouping
+    public void loadStats() {
+        tableModel.setRowCount(0);
+        rowStats.clear();
+        histogramArea.setText("");
+
+        try {
+            CohortAnalytics analytics = CohortAnalytics.getInstance();
+            Map<String, GradeStats> stats;
+            switch ((String) groupByComboBox.getSelectedItem()) {
+                case "Term": stats = analytics.byTerm(); break;
+                case "Department": stats = analytics.byDepartment(); break;
+                case "Teacher": stats = analytics.byTeacher(); break;
+                default: stats = analytics.bySubject(); break;
+            }
+            for (Map.Entry<String, GradeStats> entry : stats.entrySet()) {
+                GradeStats group = entry.getValue();
+                boolean graded = group.getPassed() + group.getFailed() > 0;
+                tableModel.addRow(new Object[]{
+                        entry.getKey(),
+                        group.getCount(),
+                        group.getPassed(),
+                        group.getFailed(),
+                        group.getInProgress(),
+                        graded ? String.format("%.1f%%", group.getPassRate() * 100) : "--",
+                        graded ? String.format("%.2f", group.getMeanGrade()) : "--",
+                        graded ? String.format("%.2f", group.getWeightedGpa()) : "--"
+                });
+                rowStats.add(group);
+            }
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                    "Error computing grade statistics: " + e.getMessage(),
+                    "Analytics Error", JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        }
+    }
+
+    // Text bar chart of the selected group's graded subjects
+    private void showHistogram() {
+        int selectedRow = statsTable.getSelectedRow();
+        if (selectedRow == -1) {
+            histogramArea.setText("");
+            return;
+        }
+        int modelRow = statsTable.convertRowIndexToModel(selectedRow);
+        GradeStats stats = rowStats.get(modelRow);
+
+        int largest = 1;
+        for (int i = 0; i < GradeStats.HISTOGRAM_LABELS.length; i++) {
+            largest = Math.max(largest, stats.getHistogramCount(i));
+        }
+        StringBuilder text = new StringBuilder(tableModel.getValueAt(modelRow, 0) + "\n\n");
+        for (int i = 0; i < GradeStats.HISTOGRAM_LABELS.length; i++) {
+            int count = stats.getHistogramCount(i);
+            int bar = (int) Math.round(40.0 * count / largest);
+            text.append(String.format("%-7s %5d  ", GradeStats.HISTOGRAM_LABELS[i], count));
+            for (int j = 0; j < bar; j++) {
+                text.append('#');
+            }
+            text.append('\n');
+        }
+        text.append(String.format("%-7s %5d%n", "NG", stats.getInProgress()));
+        histogramArea.setText(text.toString());
+        histogramArea.setCaretPosition(0);
+    }
+
+    // Dean's list, or the top students of each year level, in a read-only text dialog
+    private void showHonorsList() {
+        String[] options = {"Dean's List", "Top 10 per Year Level"};
+        int choice = JOptionPane.showOptionDialog(this, "Which list would you like to see?", "Honors List",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (choice == JOptionPane.CLOSED_OPTION) {
+            return;
+        }
+
+        Map<String, List<RankedStudent>> lists;
+        try {
+            RankingService rankings = RankingService.getInstance();
+            lists = choice == 0 ? rankings.topK(Integer.MAX_VALUE, RankingCriteria.DEANS_LIST)
+                    : rankings.topK(10, RankingCriteria.CLASS_RANK);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this,
+                    "Error computing the honors list: " + e.getMessage(),
+                    "Analytics Error", JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        if (choice == 0) {
+            RankingCriteria criteria = RankingCriteria.DEANS_LIST;
+            text.append(String.format("GPA %.2f or better over at least %d graded units, no failed subjects%n",
+                    criteria.getMaxGpa(), criteria.getMinGradedUnits()));
+        }
+        if (lists.isEmpty()) {
+            text.append("\nNo students qualify.\n");
+        }
+        lists.forEach((yearLevel, students) -> {
+            text.append("\n").append(yearLevel).append("\n");
+            for (RankedStudent student : students) {
+                text.append(String.format("  %3d. %-30s %-12s GPA %.2f (%d units)%n", student.getRank(),
+                        student.getName(), student.getStudentId(), student.getGpa(), student.getGradedUnits()));
+            }
+        });
+
+        JTextArea listArea = new JTextArea(text.toString(), 20, 70);
+        listArea.setEditable(false);
+        listArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        listArea.setCaretPosition(0);
+        JOptionPane.showMessageDialog(this, new JScrollPane(listArea), options[choice], JOptionPane.PLAIN_MESSAGE);
+    }
+}
@@ -18,6 +18,7 @@ public class AdminDashboardFrame extends JFrame {
     private AdminStudentPanel studentManagementPanel;
     private JPanel teacherManagementPanel;
     private AdminSubjectPanel subjectManagementPanel;
+    private AdminAnalyticsPanel analyticsPanel;
     private JButton logoutButton;
     private JButton changePasswordButton;
 
@@ -61,6 +62,9 @@ public class AdminDashboardFrame extends JFrame {
         // Subject Panel
         subjectManagementPanel = new AdminSubjectPanel();
 
+        // Grade Analytics Panel
+        analyticsPanel = new AdminAnalyticsPanel();
+
         //edit password
         changePasswordButton = new JButton("Edit Password");
         // Logout Button
@@ -79,6 +83,7 @@ public class AdminDashboardFrame extends JFrame {
         tabbedPane.addTab("Students", null, studentManagementPanel, "Manage Students");
         tabbedPane.addTab("Teachers", null, teacherManagementPanel, "Manage Teachers");
         tabbedPane.addTab("Subjects", null, subjectManagementPanel, "Manage Subjects");
+        tabbedPane.addTab("Grade Analytics", null, analyticsPanel, "Pass rates and grade distributions");
 
         // Add tabbed pane to the center
         add(tabbedPane, BorderLayout.CENTER);
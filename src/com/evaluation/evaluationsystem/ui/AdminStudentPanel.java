@@ -1,5 +1,6 @@
 package com.evaluation.evaluationsystem.ui; // Adjust package if needed
 
+import com.evaluation.evaluationsystem.curriculum.AdvanceTermJob;
 import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.models.Student;
 
@@ -16,7 +17,7 @@ public class AdminStudentPanel extends JPanel {
 
     private JTable studentTable;
     private DefaultTableModel tableModel;
-    private JButton addButton, editButton, deleteButton, refreshButton;
+    private JButton addButton, editButton, deleteButton, refreshButton, advanceTermButton;
 
     public AdminStudentPanel() {
         setLayout(new BorderLayout(10, 10)); // Use BorderLayout
@@ -50,6 +51,8 @@ public class AdminStudentPanel extends JPanel {
         editButton = new JButton("Edit Selected");
         deleteButton = new JButton("Delete Selected");
         refreshButton = new JButton("Refresh List");
+        advanceTermButton = new JButton("Advance Term...");
+        advanceTermButton.setToolTipText("Enroll every student in their next term at once");
     }
 
     private void layoutComponents() {
@@ -63,12 +66,14 @@ public class AdminStudentPanel extends JPanel {
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(advanceTermButton);
 
         add(buttonPanel, BorderLayout.NORTH); // Add button panel to the top
     }
 
     private void addListeners() {
         refreshButton.addActionListener(e -> loadStudentData());
+        advanceTermButton.addActionListener(e -> handleAdvanceTerm());
 
         addButton.addActionListener(new ActionListener() {
             @Override
@@ -205,4 +210,42 @@ public class AdminStudentPanel extends JPanel {
             }
         }
     }
-}
\ No newline at end of file
+
+    // Plans the next term of every student, shows the plan as a dry run, and applies it on confirmation
+    private void handleAdvanceTerm() {
+        AdvanceTermJob job;
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        try {
+            job = AdvanceTermJob.plan();
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Error planning the next term: " + ex.getMessage(), "Advance Term Error", JOptionPane.ERROR_MESSAGE);
+            ex.printStackTrace();
+            return;
+        } finally {
+            setCursor(Cursor.getDefaultCursor());
+        }
+
+        JTextArea reportArea = new JTextArea(job.report(), 20, 70);
+        reportArea.setEditable(false);
+        reportArea.setCaretPosition(0);
+        if (job.getEnrollCount() == 0) {
+            JOptionPane.showMessageDialog(this, new JScrollPane(reportArea), "Advance Term - Nothing to Do", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        int confirmation = JOptionPane.showConfirmDialog(this, new JScrollPane(reportArea),
+                "Advance Term - Enroll " + job.getEnrollCount() + " Student(s)?",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (confirmation != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        try {
+            int enrolled = job.apply();
+            loadStudentData(); // Refresh table
+            JOptionPane.showMessageDialog(this, "Enrolled " + enrolled + " student(s) in their next term.", "Advance Term Complete", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Error saving enrollments (nothing was changed): " + ex.getMessage(), "Advance Term Error", JOptionPane.ERROR_MESSAGE);
+            ex.printStackTrace();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.evaluation.evaluationsystem.ui; // Adjust package if needed
 
+import com.evaluation.evaluationsystem.curriculum.SeatLedger;
+import com.evaluation.evaluationsystem.curriculum.SubjectCatalog;
 import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.models.Subject;
 
@@ -9,6 +11,7 @@ import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,7 +32,7 @@ public class AdminSubjectPanel extends JPanel {
 
     private void initComponents() {
         // Define table columns for subjects
-        String[] columnNames = {"Code", "Name", "Units", "Department", "Year Level", "Semester", "Prerequisites"};
+        String[] columnNames = {"Code", "Name", "Units", "Department", "Year Level", "Semester", "Prerequisites", "Seats"};
 
         // Create a non-editable table model
         tableModel = new DefaultTableModel(columnNames, 0) {
@@ -54,6 +57,7 @@ public class AdminSubjectPanel extends JPanel {
         subjectTable.getColumnModel().getColumn(4).setPreferredWidth(80);  // Year
         subjectTable.getColumnModel().getColumn(5).setPreferredWidth(100); // Semester
         subjectTable.getColumnModel().getColumn(6).setPreferredWidth(150); // Prerequisites
+        subjectTable.getColumnModel().getColumn(7).setPreferredWidth(200); // Seats
 
         // Initialize buttons
         addButton = new JButton("Add Subject");
@@ -101,6 +105,16 @@ public class AdminSubjectPanel extends JPanel {
                     String prereqs = subject.getPrerequisites().stream()
                             .collect(Collectors.joining(", "));
 
+                    // Free seats per section in the subject's own term, and how many students are waiting for one
+                    String seats = "No limit";
+                    if (!subject.getSections().isEmpty()) {
+                        seats = SeatLedger.getInstance().describeSeats(subject.getCode(), subject.getYearLevel(), subject.getSemester());
+                        int waiting = SeatLedger.getInstance().getWaitlist(subject.getCode()).size();
+                        if (waiting > 0) {
+                            seats += " (" + waiting + " waitlisted)";
+                        }
+                    }
+
                     tableModel.addRow(new Object[]{
                             subject.getCode(),
                             subject.getName(),
@@ -108,7 +122,8 @@ public class AdminSubjectPanel extends JPanel {
                             subject.getDepartment(),
                             subject.getYearLevel(),
                             subject.getSemester(),
-                            prereqs // Display formatted prerequisites
+                            prereqs, // Display formatted prerequisites
+                            seats
                     });
                 }
             }
@@ -171,11 +186,12 @@ public class AdminSubjectPanel extends JPanel {
         String subjectCode = (String) tableModel.getValueAt(selectedRowModel, 0);
         String subjectName = (String) tableModel.getValueAt(selectedRowModel, 1);
 
-        // Optional: Check if this subject is a prerequisite for others before deleting
-        boolean isPrereq = isSubjectPrerequisite(subjectCode);
+        // Check if this subject is a prerequisite for others before deleting
+        List<String> dependents = getDependentSubjects(subjectCode);
         String warning = "";
-        if (isPrereq) {
-            warning = "\n\nWarning: This subject is a prerequisite for other courses!";
+        if (!dependents.isEmpty()) {
+            warning = "\n\nWarning: This subject is a prerequisite for other courses!" +
+                    "\nIt will be removed from the prerequisites of: " + String.join(", ", dependents);
         }
 
         int confirmation = JOptionPane.showConfirmDialog(this,
@@ -196,19 +212,18 @@ public class AdminSubjectPanel extends JPanel {
         }
     }
 
-    // Helper method to check if a subject is used as a prerequisite
-    private boolean isSubjectPrerequisite(String subjectCodeToCheck) {
+    // Helper method to list the subjects that use a subject as a prerequisite
+    private List<String> getDependentSubjects(String subjectCode) {
         try {
-            List<Subject> allSubjects = DataStorage.getAllSubjects();
-            for (Subject subject : allSubjects) {
-                if (subject.getPrerequisites() != null && subject.getPrerequisites().contains(subjectCodeToCheck)) {
-                    return true; // Found it as a prerequisite
-                }
+            SubjectCatalog catalog = SubjectCatalog.current();
+            int index = catalog.indexOf(subjectCode);
+            if (index >= 0) {
+                return catalog.codes(catalog.dependents(index));
             }
         } catch (Exception e) {
             // Log error or ignore, depending on desired behavior
             System.err.println("Error checking prerequisites: " + e.getMessage());
         }
-        return false; // Not found as a prerequisite
+        return Collections.emptyList(); // Not found as a prerequisite
     }
-}
\ No newline at end of file
+}
@@ -179,20 +179,7 @@ public class EditAdminProfileDialog extends JDialog {
 
     // Helper method to update password in users.json (Identical to other dialogs)
     private void updateUserPassword(String username, String newPassword) {
-        JSONObject usersData = JsonUtils.loadUsers();
-        JSONArray usersArray = JsonUtils.getJSONArray(usersData, "users");
-        boolean found = false;
-        for (Object obj : usersArray) {
-            JSONObject userJson = (JSONObject) obj;
-            if (username.equals(JsonUtils.getString(userJson, "username", ""))) {
-                userJson.put("password", newPassword); // Update the password
-                found = true;
-                break;
-            }
-        }
-        if (found) {
-            JsonUtils.saveUsers(usersData); // Save the updated users file
-        } else {
+        if (!DataStorage.updateUserPassword(username, newPassword)) {
             throw new RuntimeException("Admin user '" + username + "' not found in users file during password update.");
         }
     }
@@ -1,8 +1,8 @@
 package com.evaluation.evaluationsystem.ui; // Adjust package if needed
 
 import com.evaluation.evaluationsystem.data.DataStorage;
-import com.evaluation.evaluationsystem.models.EnrolledSubject;
-import com.evaluation.evaluationsystem.models.Enrollment;
+import com.evaluation.evaluationsystem.models.GradeUpdateResult;
+import com.evaluation.evaluationsystem.models.RosterEntry;
 import com.evaluation.evaluationsystem.models.Student;
 
 import javax.swing.*;
@@ -14,7 +14,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class EditGradesDialog extends JDialog {
@@ -222,29 +225,17 @@ public class EditGradesDialog extends JDialog {
         gradeEntries.clear(); // Clear internal list
 
         try {
-            // Fetch all students and all enrollments (can be optimized in DataStorage)
-            List<Student> allStudents = DataStorage.getAllStudents();
-            List<Enrollment> allEnrollments = DataStorage.getAllEnrollments();
-
             List<StudentGradeEntry> tempEntries = new ArrayList<>();
 
-            for (Student student : allStudents) {
-                for (Enrollment enrollment : allEnrollments) {
-                    if (enrollment.getStudentId().equals(student.getId())) {
-                        for (EnrolledSubject enrolledSub : enrollment.getSubjects()) {
-                            if (enrolledSub.getCode().equals(this.subjectCode)) {
-                                // Create an entry for the internal list
-                                tempEntries.add(new StudentGradeEntry(
-                                        student.getId(),
-                                        student.getLastName(),
-                                        student.getFirstName(),
-                                        enrolledSub.getGrade() // Use the grade from storage
-                                ));
-                                break; // Found subject for this student's enrollment
-                            }
-                        }
-                    }
-                }
+            // Roster query returns only the students taking this subject, already joined with their grade
+            for (RosterEntry rosterEntry : DataStorage.getRosterForSubject(this.subjectCode)) {
+                Student student = rosterEntry.getStudent();
+                tempEntries.add(new StudentGradeEntry(
+                        student.getId(),
+                        student.getLastName(),
+                        student.getFirstName(),
+                        rosterEntry.getSubject().getGrade() // Use the grade from storage
+                ));
             }
 
             // Sort entries by student last name (optional)
@@ -277,6 +268,8 @@ public class EditGradesDialog extends JDialog {
 
         int changesMade = 0;
         List<String> errors = new ArrayList<>();
+        Map<String, Double> gradesToSave = new LinkedHashMap<>(); // studentId -> new grade
+        Map<String, Integer> rowByStudent = new HashMap<>();
 
         for (int i = 0; i < gradeEntries.size(); i++) {
             StudentGradeEntry entry = gradeEntries.get(i);
@@ -288,19 +281,31 @@ public class EditGradesDialog extends JDialog {
                     errors.add("Invalid grade entered for student " + entry.getStudentId() + ". Must be 1.0-5.0.");
                     continue; // Skip saving this invalid entry
                 }
+                gradesToSave.put(entry.getStudentId(), gradeToSave);
+                rowByStudent.put(entry.getStudentId(), i);
+            }
+        }
 
-                try {
-                    // Call DataStorage to update the grade in the JSON file
-                    DataStorage.updateSubjectGrade(entry.getStudentId(), this.subjectCode, gradeToSave);
-                    entry.currentGrade = gradeToSave; // Update the 'currentGrade' in our local model
-                    entry.gradeToSave = null; // Reset the edited state
-                    // Update the "Current Grade" display column in the table model
-                    gradesTableModel.setValueAt(entry.getCurrentGradeDisplay(), i, 3);
-                    changesMade++;
-                } catch (Exception ex) {
-                    errors.add("Error saving grade for student " + entry.getStudentId() + ": " + ex.getMessage());
-                    ex.printStackTrace();
+        if (!gradesToSave.isEmpty()) {
+            try {
+                // Post all edited grades in one batch (single write of the enrollments file)
+                List<GradeUpdateResult> results = DataStorage.updateSubjectGrades(this.subjectCode, gradesToSave);
+                for (GradeUpdateResult result : results) {
+                    int row = rowByStudent.get(result.getStudentId());
+                    StudentGradeEntry entry = gradeEntries.get(row);
+                    if (result.isSuccess()) {
+                        entry.currentGrade = gradesToSave.get(result.getStudentId()); // Update the 'currentGrade' in our local model
+                        entry.gradeToSave = null; // Reset the edited state
+                        // Update the "Current Grade" display column in the table model
+                        gradesTableModel.setValueAt(entry.getCurrentGradeDisplay(), row, 3);
+                        changesMade++;
+                    } else {
+                        errors.add("Error saving grade for student " + result.getStudentId() + ": " + result.getMessage());
+                    }
                 }
+            } catch (Exception ex) {
+                errors.add("Error saving grades: " + ex.getMessage());
+                ex.printStackTrace();
             }
         }
 
@@ -3,9 +3,6 @@ package com.evaluation.evaluationsystem.ui; // Corrected package
 import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.models.Student;
 import com.evaluation.evaluationsystem.models.User;
-import com.evaluation.evaluationsystem.utils.JsonUtils; // Needed for saving users
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 
 
 import javax.swing.*;
@@ -290,23 +287,7 @@ public class EditStudentProfileDialog extends JDialog {
 
     // Helper method to update password in users.json
     private void updateUserPassword(String username, String newPassword) {
-        JSONObject usersData = JsonUtils.loadUsers();
-        JSONArray usersArray = JsonUtils.getJSONArray(usersData, "users");
-        boolean found = false;
-
-        for (Object obj : usersArray) {
-            JSONObject userJson = (JSONObject) obj;
-            if (username.equals(JsonUtils.getString(userJson, "username", ""))) {
-                userJson.put("password", newPassword); // Update the password
-                found = true;
-                break;
-            }
-        }
-
-        if (found) {
-            JsonUtils.saveUsers(usersData); // Save the updated users file
-        } else {
-            // This should ideally not happen if the current password was verified
+        if (!DataStorage.updateUserPassword(username, newPassword)) {
             throw new RuntimeException("User '" + username + "' not found in users file during password update.");
         }
     }
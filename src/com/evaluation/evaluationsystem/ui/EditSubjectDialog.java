@@ -1,6 +1,7 @@
 package com.evaluation.evaluationsystem.ui; // Adjust package if needed
 
 import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.models.Section;
 import com.evaluation.evaluationsystem.models.Subject;
 
 import javax.swing.*;
@@ -21,6 +22,7 @@ public class EditSubjectDialog extends JDialog {
     private JTextField nameField;
     private JTextField unitsField;
     private JTextField departmentField;
+    private JTextField sectionsField;
     private JComboBox<String> yearLevelComboBox;
     private JComboBox<String> semesterComboBox;
 
@@ -62,6 +64,8 @@ public class EditSubjectDialog extends JDialog {
         nameField = new JTextField(20);
         unitsField = new JTextField(5);
         departmentField = new JTextField(15);
+        sectionsField = new JTextField(20);
+        sectionsField.setToolTipText("Sections and their capacities, e.g. A:40, B:35 (leave blank for no seat limit)");
 
         String[] yearLevels = {"1st Year", "2nd Year", "3rd Year", "4th Year", "Summer"};
         yearLevelComboBox = new JComboBox<>(yearLevels);
@@ -115,6 +119,7 @@ public class EditSubjectDialog extends JDialog {
             nameField.setText(subject.getName());
             unitsField.setText(String.valueOf(subject.getUnits())); // Convert int to String
             departmentField.setText(subject.getDepartment());
+            sectionsField.setText(Section.formatList(subject.getSections()));
             yearLevelComboBox.setSelectedItem(subject.getYearLevel());
             semesterComboBox.setSelectedItem(subject.getSemester());
 
@@ -169,6 +174,11 @@ public class EditSubjectDialog extends JDialog {
         gbc.gridx = 2; gbc.gridy = 2; gbc.fill = GridBagConstraints.NONE; formPanel.add(new JLabel("Semester:"), gbc);
         gbc.gridx = 3; gbc.gridy = 2; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(semesterComboBox, gbc);
 
+        // Sections (Row 3)
+        gbc.gridx = 0; gbc.gridy = 3; gbc.fill = GridBagConstraints.NONE; formPanel.add(new JLabel("Sections:"), gbc);
+        gbc.gridx = 1; gbc.gridy = 3; gbc.gridwidth = 3; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(sectionsField, gbc);
+        gbc.gridwidth = 1;
+
         // --- Center Panel for Prerequisite Selection ---
         JPanel prereqPanel = new JPanel(new GridBagLayout());
         prereqPanel.setBorder(BorderFactory.createTitledBorder("Select Prerequisites"));
@@ -282,8 +292,16 @@ public class EditSubjectDialog extends JDialog {
             return;
         }
 
+        List<Section> sections;
+        try {
+            sections = Section.parseList(sectionsField.getText());
+        } catch (IllegalArgumentException ex) {
+            showError("Validation Error", ex.getMessage());
+            return;
+        }
+
         // 4. Create Subject object with ORIGINAL code and updated details
-        Subject updatedSubject = new Subject(this.subjectCodeToEdit, name, units, department, yearLevel, semester, prerequisiteCodes);
+        Subject updatedSubject = new Subject(this.subjectCodeToEdit, name, units, department, yearLevel, semester, prerequisiteCodes, sections);
 
         // 5. Save using DataStorage (saveSubject handles updates)
         try {
@@ -291,6 +309,8 @@ public class EditSubjectDialog extends JDialog {
             saved = true;
             JOptionPane.showMessageDialog(this, "Subject updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             dispose(); // Close dialog
+        } catch (IllegalArgumentException ex) {
+            showError("Save Error", ex.getMessage()); // e.g. the prerequisites would form a cycle
         } catch (Exception ex) {
             showError("Save Error", "An unexpected error occurred: " + ex.getMessage());
             ex.printStackTrace();
@@ -3,9 +3,6 @@ package com.evaluation.evaluationsystem.ui; // Corrected package
 import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.models.Teacher;
 import com.evaluation.evaluationsystem.models.User;
-import com.evaluation.evaluationsystem.utils.JsonUtils; // Needed for saving users
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -278,20 +275,7 @@ public class EditTeacherProfileDialog extends JDialog {
 
     // Helper method to update password in users.json (same as in EditStudentProfileDialog)
     private void updateUserPassword(String username, String newPassword) {
-        JSONObject usersData = JsonUtils.loadUsers();
-        JSONArray usersArray = JsonUtils.getJSONArray(usersData, "users");
-        boolean found = false;
-        for (Object obj : usersArray) {
-            JSONObject userJson = (JSONObject) obj;
-            if (username.equals(JsonUtils.getString(userJson, "username", ""))) {
-                userJson.put("password", newPassword);
-                found = true;
-                break;
-            }
-        }
-        if (found) {
-            JsonUtils.saveUsers(usersData);
-        } else {
+        if (!DataStorage.updateUserPassword(username, newPassword)) {
             throw new RuntimeException("User '" + username + "' not found in users file during password update.");
         }
     }
@@ -1,6 +1,7 @@
 package com.evaluation.evaluationsystem.ui; // Corrected package
 
-import com.evaluation.evaluationsystem.data.DataStorage;
+import com.evaluation.evaluationsystem.curriculum.AcademicCalendar;
+import com.evaluation.evaluationsystem.curriculum.SeatLedger;
 import com.evaluation.evaluationsystem.models.EnrolledSubject;
 import com.evaluation.evaluationsystem.models.Enrollment;
 import com.evaluation.evaluationsystem.models.Student;
@@ -18,7 +19,9 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.Arrays;
@@ -31,7 +34,7 @@ import java.util.Arrays;
 public class EnrollmentDialog extends JDialog {
 
     // --- Constants ---
-    private static final int MAX_UNITS_PER_SEMESTER = 26;
+    private static final int MAX_UNITS_PER_SEMESTER = AcademicCalendar.MAX_UNITS_PER_SEMESTER;
 
     // --- Data Passed In ---
     private final Student currentStudent;
@@ -345,7 +348,11 @@ public class EnrollmentDialog extends JDialog {
             details.append("Code: ").append(subject.getCode()).append("\n");
             details.append("Name: ").append(subject.getName()).append("\n");
             details.append("Units: ").append(subject.getUnits()).append("\n");
-            details.append("Term: ").append(subject.getYearLevel()).append(" - ").append(subject.getSemester()).append("\n\n");
+            details.append("Term: ").append(subject.getYearLevel()).append(" - ").append(subject.getSemester()).append("\n");
+            if (!subject.getSections().isEmpty()) {
+                details.append("Sections: ").append(SeatLedger.getInstance().describeSeats(subject.getCode(), this.nextYear, this.nextSemester)).append("\n");
+            }
+            details.append("\n");
 
             // Determine status based on which list it came from originally
             if (mandatoryRetakeSubjects.contains(subject)) {
@@ -407,10 +414,39 @@ public class EnrollmentDialog extends JDialog {
         }
 
 
-        // Prepare list of subjects to enroll with initial grade 0.0
-        List<EnrolledSubject> subjectsToEnroll = finalSelectedSubjects.stream()
-                .map(subject -> new EnrolledSubject(
-                        subject.getCode(), subject.getName(), subject.getUnits(), 0.0))
+        // Hold a seat in each subject that has sections; subjects with every section full can be waitlisted
+        SeatLedger ledger = SeatLedger.getInstance();
+        Map<Subject, SeatLedger.Hold> holds = new LinkedHashMap<>();
+        List<Subject> fullSubjects = new ArrayList<>();
+        for (Subject subject : finalSelectedSubjects) {
+            SeatLedger.Hold hold = ledger.reserve(subject.getCode(), this.nextYear, this.nextSemester);
+            if (hold != null) {
+                holds.put(subject, hold);
+            } else {
+                fullSubjects.add(subject);
+            }
+        }
+        if (!fullSubjects.isEmpty()) {
+            String fullCodes = fullSubjects.stream().map(Subject::getCode).collect(Collectors.joining(", "));
+            if (holds.isEmpty()) {
+                showError("Enrollment Error", "Every section of the selected subjects is full: " + fullCodes);
+                return;
+            }
+            int choice = JOptionPane.showConfirmDialog(this,
+                    "Every section of these subjects is full: " + fullCodes + "\n\n"
+                            + "Enroll in the other subjects and join the waitlist for these?\n"
+                            + "You will be added to them when a seat frees up.",
+                    "Sections Full", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (choice != JOptionPane.YES_OPTION) {
+                holds.values().forEach(ledger::release);
+                return;
+            }
+        }
+
+        // Prepare list of subjects to enroll with initial grade 0.0, in the sections held for them
+        List<EnrolledSubject> subjectsToEnroll = holds.entrySet().stream()
+                .map(entry -> new EnrolledSubject(entry.getKey().getCode(), entry.getKey().getName(),
+                        entry.getKey().getUnits(), 0.0, entry.getValue().getSection()))
                 .collect(Collectors.toList());
 
         // Create the new enrollment record
@@ -419,20 +455,25 @@ public class EnrollmentDialog extends JDialog {
                 "Enrolled", subjectsToEnroll);
 
         try {
-            DataStorage.saveEnrollment(newEnrollment);
+            // Saves the enrollment and moves the student to the new term in one unit of work
+            ledger.enroll(newEnrollment, holds.values(), currentStudent);
 
-            currentStudent.setYearLevel(this.nextYear);
-            currentStudent.setSemester(this.nextSemester);
-            DataStorage.saveStudent(currentStudent);
+            StringBuilder waitlisted = new StringBuilder();
+            for (Subject subject : fullSubjects) {
+                int position = ledger.joinWaitlist(currentStudent.getId(), subject.getCode(), this.nextYear, this.nextSemester);
+                waitlisted.append("\n  ").append(subject.getCode()).append(" (#").append(position).append(" in line)");
+            }
 
             enrollmentSuccessful = true;
             JOptionPane.showMessageDialog(this,
                     "Successfully enrolled in " + subjectsToEnroll.size() + " subject(s) for " +
-                            this.nextYear + " - " + this.nextSemester + ".",
+                            this.nextYear + " - " + this.nextSemester + "." +
+                            (fullSubjects.isEmpty() ? "" : "\n\nWaitlisted:" + waitlisted),
                     "Enrollment Successful", JOptionPane.INFORMATION_MESSAGE);
             dispose();
 
         } catch (Exception ex) {
+            holds.values().forEach(ledger::release); // No-op for holds the enrollment already used
             showError("Enrollment Error", "An error occurred while saving enrollment: " + ex.getMessage());
             ex.printStackTrace();
         }
@@ -1,15 +1,23 @@
 package com.evaluation.evaluationsystem.ui; // Adjust package if needed
 
+import com.evaluation.evaluationsystem.analytics.AcademicSummary;
+import com.evaluation.evaluationsystem.analytics.GradeArchive;
+import com.evaluation.evaluationsystem.analytics.RankedStudent;
+import com.evaluation.evaluationsystem.analytics.RankingCriteria;
+import com.evaluation.evaluationsystem.analytics.RankingService;
+import com.evaluation.evaluationsystem.curriculum.AcademicCalendar;
+import com.evaluation.evaluationsystem.curriculum.DegreePlan;
+import com.evaluation.evaluationsystem.curriculum.DegreePlanner;
+import com.evaluation.evaluationsystem.curriculum.Eligibility;
+import com.evaluation.evaluationsystem.curriculum.StudentProgress;
+import com.evaluation.evaluationsystem.curriculum.SubjectCatalog;
 import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.models.EnrolledSubject;
 import com.evaluation.evaluationsystem.models.Enrollment;
 import com.evaluation.evaluationsystem.models.Student;
 import com.evaluation.evaluationsystem.models.Subject;
 import com.evaluation.evaluationsystem.utils.SessionManager;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.EtchedBorder;
@@ -47,11 +55,13 @@ public class StudentDashboardFrame extends JFrame {
     private JLabel gpaLabel;
     private JLabel unitsCompletedLabel;
     private JLabel unitsRemainingLabel; // Calculated
+    private JLabel classRankLabel;
     // private JProgressBar progressBar; // Optional visual progress
 
     // --- Actions/Controls ---
     private JButton enrollButton; // Button to launch enrollment process
     private JButton viewProspectusButton; // Button to view PDF
+    private JButton degreePlanButton; // Button to show the remaining terms
     private JButton refreshButton;
     private JButton logoutButton;
     private JButton editProfileButton;
@@ -146,11 +156,13 @@ public class StudentDashboardFrame extends JFrame {
         gpaLabel = new JLabel("GPA: --");
         unitsCompletedLabel = new JLabel("Units Completed: --");
         unitsRemainingLabel = new JLabel("Units Remaining: --");
+        classRankLabel = new JLabel("Class Rank: --");
         // progressBar = new JProgressBar(0, TOTAL_UNITS_REQUIRED);
 
         // --- Buttons ---
         enrollButton = new JButton("Enroll for Next Term");
         viewProspectusButton = new JButton("View Prospectus (PDF)");
+        degreePlanButton = new JButton("View Degree Plan");
         refreshButton = new JButton("Refresh Data");
         logoutButton = new JButton("Logout");
         editProfileButton = new JButton("Edit Profile");
@@ -192,6 +204,7 @@ public class StudentDashboardFrame extends JFrame {
         gpaLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         unitsCompletedLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         unitsRemainingLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        classRankLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         // progressBar.setAlignmentX(Component.LEFT_ALIGNMENT);
         // progressBar.setStringPainted(true);
 
@@ -200,6 +213,8 @@ public class StudentDashboardFrame extends JFrame {
         progressPanel.add(unitsCompletedLabel);
         progressPanel.add(Box.createRigidArea(new Dimension(0, 5)));
         progressPanel.add(unitsRemainingLabel);
+        progressPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+        progressPanel.add(classRankLabel);
         // progressPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         // progressPanel.add(progressBar);
         progressPanel.add(Box.createVerticalGlue()); // Pushes content up
@@ -220,12 +235,14 @@ public class StudentDashboardFrame extends JFrame {
         // Center buttons within the actions panel
         enrollButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         viewProspectusButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        degreePlanButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         refreshButton.setAlignmentX(Component.CENTER_ALIGNMENT);
         logoutButton.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Set max size for buttons to prevent stretching
         enrollButton.setMaximumSize(buttonSize);
         viewProspectusButton.setMaximumSize(buttonSize);
+        degreePlanButton.setMaximumSize(buttonSize);
         refreshButton.setMaximumSize(buttonSize);
         logoutButton.setMaximumSize(buttonSize);
 
@@ -234,6 +251,8 @@ public class StudentDashboardFrame extends JFrame {
         actionsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         actionsPanel.add(viewProspectusButton);
         actionsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        actionsPanel.add(degreePlanButton);
+        actionsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
         actionsPanel.add(refreshButton);
         actionsPanel.add(Box.createVerticalGlue()); // Pushes buttons up
         actionsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
@@ -256,6 +275,7 @@ public class StudentDashboardFrame extends JFrame {
             updateProgressSummary();
         });
         viewProspectusButton.addActionListener(e -> handleViewProspectus());
+        degreePlanButton.addActionListener(e -> handleViewDegreePlan());
         enrollButton.addActionListener(e -> handleEnroll());
         editProfileButton.addActionListener(e -> handleEditProfile());
         addWindowListener(new WindowAdapter() {
@@ -304,37 +324,22 @@ public class StudentDashboardFrame extends JFrame {
             gpaLabel.setText("GPA: N/A");
             unitsCompletedLabel.setText("Units Completed: 0");
             unitsRemainingLabel.setText("Units Remaining: " + TOTAL_UNITS_REQUIRED);
+            classRankLabel.setText("Class Rank: N/A");
             // progressBar.setValue(0);
             // progressBar.setString("0 / " + TOTAL_UNITS_REQUIRED);
             return;
         }
 
-        double totalGradePoints = 0;
-        int totalUnitsAttemptedWithGrade = 0; // Units for subjects that have a non-NG grade
-        int unitsCompleted = 0;
-
-        for (Enrollment enrollment : studentEnrollments) {
-            for (EnrolledSubject subject : enrollment.getSubjects()) {
-                double grade = subject.getGrade();
-                int units = subject.getUnits();
-
-                if (grade > 0.0) { // Only count subjects with actual grades (not NG) for GPA
-                    totalGradePoints += grade * units;
-                    totalUnitsAttemptedWithGrade += units;
-
-                    if (grade <= 3.0) { // Assuming 3.0 is the passing threshold
-                        unitsCompleted += units;
-                    }
-                }
-            }
-        }
+        // Maintained as grades and enrollments change, so this is a lookup rather than a pass over the history
+        AcademicSummary summary = GradeArchive.getInstance().summary(currentStudent.getId());
 
-        double gpa = (totalUnitsAttemptedWithGrade > 0) ? (totalGradePoints / totalUnitsAttemptedWithGrade) : 0.0;
-        int unitsRemaining = TOTAL_UNITS_REQUIRED - unitsCompleted;
+        gpaLabel.setText(String.format("GPA: %.2f", summary.getGpa()));
+        unitsCompletedLabel.setText("Units Completed: " + summary.getUnitsCompleted());
+        unitsRemainingLabel.setText("Units Remaining: " + summary.getUnitsRemaining(TOTAL_UNITS_REQUIRED)); // Never negative
 
-        gpaLabel.setText(String.format("GPA: %.2f", gpa));
-        unitsCompletedLabel.setText("Units Completed: " + unitsCompleted);
-        unitsRemainingLabel.setText("Units Remaining: " + Math.max(0, unitsRemaining)); // Don't show negative remaining
+        // Within the student's year level; N/A until something is graded
+        Optional<RankedStudent> rank = RankingService.getInstance().rankOf(currentStudent.getId(), RankingCriteria.CLASS_RANK);
+        classRankLabel.setText(rank.map(r -> "Class Rank: " + r.getRank() + " of " + r.getRankedCount()).orElse("Class Rank: N/A"));
 
         // Update progress bar (optional)
         // progressBar.setValue(unitsCompleted);
@@ -381,6 +386,22 @@ public class StudentDashboardFrame extends JFrame {
         }
     }
 
+    // Shows the fastest term-by-term route through the remaining subjects
+    private void handleViewDegreePlan() {
+        DegreePlan plan;
+        try {
+            plan = DegreePlanner.current().plan(currentStudent);
+        } catch (Exception e) {
+            showError("Degree Plan Error", "Could not compute the degree plan: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+        JTextArea planArea = new JTextArea(plan.describe(), 25, 60);
+        planArea.setEditable(false);
+        planArea.setCaretPosition(0);
+        JOptionPane.showMessageDialog(this, new JScrollPane(planArea), "Degree Plan", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     // Helper method for showing errors (add if not already present)
     private void showError(String title, String message) {
         JOptionPane.showMessageDialog(this, message, title, JOptionPane.ERROR_MESSAGE);
@@ -398,154 +419,11 @@ public class StudentDashboardFrame extends JFrame {
         }
     }
 
-    private String[] calculateNextTerm(String currentYear, String currentSemester) {
-        String nextYear = currentYear;
-        String nextSemester = currentSemester; // Start with current as fallback
-
-        if (currentSemester == null || currentYear == null) {
-            System.err.println("Cannot calculate next term: Current year or semester is null.");
-            return null; // Cannot determine next term
-        }
-
-        // Logic based on common progression
-        if (currentSemester.equals("1st Semester")) {
-            nextSemester = "2nd Semester";
-            // Year stays the same
-        } else if (currentSemester.equals("2nd Semester")) {
-            nextSemester = "1st Semester"; // Moving to next year's first sem
-            switch (currentYear) {
-                case "1st Year": nextYear = "2nd Year"; break;
-                case "2nd Year": nextYear = "3rd Year"; break;
-                case "3rd Year": nextYear = "4th Year"; break;
-                case "4th Year":
-                    // What happens after 4th year, 2nd sem? Graduation or stop?
-                    System.out.println("Student has completed 4th Year, 2nd Semester.");
-                    return null; // Or handle graduation state
-                default:
-                    System.err.println("Unknown current year level: " + currentYear);
-                    return null; // Cannot determine next year
-            }
-        } else if (currentSemester.equals("Summer")) {
-            // Assuming Summer comes after 2nd Sem, leads into next year's 1st Sem
-            // This might need adjustment based on specific rules
-            nextSemester = "1st Semester";
-            switch (currentYear) {
-                // Assuming summer might happen after 1st, 2nd, or 3rd year
-                case "1st Year": nextYear = "2nd Year"; break;
-                case "2nd Year": nextYear = "3rd Year"; break;
-                case "3rd Year": nextYear = "4th Year"; break;
-                case "4th Year": // Unlikely to have summer after 4th year 2nd sem
-                    System.out.println("Cannot determine term after 4th Year Summer.");
-                    return null;
-                default:
-                    System.err.println("Unknown current year level for Summer: " + currentYear);
-                    return null;
-            }
-        } else {
-            System.err.println("Unknown current semester: " + currentSemester);
-            return null; // Cannot determine next term
-        }
-
-        return new String[]{nextYear, nextSemester};
-    }
-
-    /**
-     * Gets a set of subject codes that the student has successfully passed.
-     * Uses the pre-loaded studentEnrollments list.
-     * @return A Set containing the codes of all passed subjects (grade <= 3.0).
-     */
-    private Set<String> getCompletedSubjectCodes() {
-        Set<String> completedCodes = new HashSet<>();
-        if (studentEnrollments == null) {
-            System.err.println("Cannot get completed subjects: Enrollment history not loaded.");
-            return completedCodes; // Return empty set
-        }
-
-        double passingGradeThreshold = 3.0; // Define passing grade
-
-        for (Enrollment enrollment : studentEnrollments) {
-            if (enrollment.getSubjects() != null) {
-                for (EnrolledSubject subject : enrollment.getSubjects()) {
-                    // Check if grade is valid (not NG) and passing
-                    if (subject.getGrade() > 0.0 && subject.getGrade() <= passingGradeThreshold) {
-                        completedCodes.add(subject.getCode());
-                    }
-                }
-            }
-        }
-        return completedCodes;
-    }
-
-    /**
-     * Retrieves a list of subjects offered for a specific academic term.
-     * Filters the master list of subjects loaded from DataStorage.
-     * @param targetYear The target year level (e.g., "2nd Year").
-     * @param targetSemester The target semester (e.g., "1st Semester").
-     * @return A List of Subject objects offered in that term.
-     */
-    private List<Subject> getSubjectsForTerm(String targetYear, String targetSemester) {
-        try {
-            List<Subject> allSubjects = DataStorage.getAllSubjects(); // Get all subjects
-            // Filter subjects based on year and semester
-            return allSubjects.stream()
-                    .filter(subject -> targetYear.equalsIgnoreCase(subject.getYearLevel()) &&
-                            targetSemester.equalsIgnoreCase(subject.getSemester()))
-                    .collect(Collectors.toList()); // Return the filtered list
-        } catch (Exception e) {
-            System.err.println("Error fetching subjects for term " + targetYear + "/" + targetSemester + ": " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>(); // Return empty list on error
-        }
-    }
-
-    /**
-     * Checks if all required prerequisite codes are present in the set of completed codes.
-     * @param completedCodes A Set of subject codes the student has passed.
-     * @param requiredCodes A List of prerequisite codes for a specific target subject.
-     * @return true if all prerequisites are met or if there are no prerequisites, false otherwise.
-     */
-    private boolean checkPrerequisites(Set<String> completedCodes, List<String> requiredCodes) {
-        if (requiredCodes == null || requiredCodes.isEmpty()) {
-            return true; // No prerequisites to meet
-        }
-        if (completedCodes == null) {
-            return false; // Cannot fulfill prerequisites if completed list is null
-        }
-
-        // Check if ALL required codes are contained within the completed codes set
-        return completedCodes.containsAll(requiredCodes);
-    }
-
-    private Set<String> getFailedSubjectCodes() {
-        Set<String> failedCodes = new HashSet<>();
-        // Ensure enrollment history is loaded before calling this
-        if (studentEnrollments == null) {
-            System.err.println("Cannot get failed subjects: Enrollment history not loaded.");
-            // Attempt to load it if needed, or handle the error appropriately
-            loadAcademicHistory(); // Try loading it now
-            if (studentEnrollments == null) return failedCodes; // Return empty if still null
-        }
-
-        double failingGradeThreshold = 3.0; // Grades strictly greater than this fail
-
-        for (Enrollment enrollment : studentEnrollments) {
-            if (enrollment.getSubjects() != null) {
-                for (EnrolledSubject subject : enrollment.getSubjects()) {
-                    // Check if grade is valid (not NG) and failing
-                    if (subject.getGrade() > failingGradeThreshold) {
-                        failedCodes.add(subject.getCode());
-                    }
-                }
-            }
-        }
-        return failedCodes;
-    }
-
     // --- MODIFIED handleEnroll Method (for testing eligibility logic) ---
 
     private void handleEnroll() {
         // 1. Calculate the next term
-        String[] nextTerm = calculateNextTerm(currentStudent.getYearLevel(), currentStudent.getSemester());
+        String[] nextTerm = AcademicCalendar.nextTerm(currentStudent.getYearLevel(), currentStudent.getSemester());
         if (nextTerm == null) {
             showError("Enrollment Error", "Cannot determine the next academic term for enrollment.");
             return;
@@ -554,78 +432,34 @@ public class StudentDashboardFrame extends JFrame {
         String nextSemester = nextTerm[1];
         System.out.println("Attempting enrollment for next term: " + nextYear + " - " + nextSemester);
 
-        // 2. Get completed AND failed subject codes
-        Set<String> completedCodes = getCompletedSubjectCodes();
-        Set<String> failedCodes = getFailedSubjectCodes(); // *** NEW CALL ***
+        // 2. Passed and failed subjects as bitsets over the compiled prerequisite graph
+        StudentProgress progress;
+        try {
+            progress = StudentProgress.of(SubjectCatalog.current(), currentStudent.getId());
+        } catch (Exception e) {
+            showError("Enrollment Error", "Could not load the subject list: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+        Set<String> completedCodes = progress.getPassedCodes();
         System.out.println("Student has completed codes: " + completedCodes);
-        System.out.println("Student has failed codes: " + failedCodes);
+        System.out.println("Blocked by failed subjects: " + progress.getCatalog().codes(progress.getBlocked()));
 
-        // 3. Get subjects scheduled for the next term
-        List<Subject> subjectsForNextTerm = getSubjectsForTerm(nextYear, nextSemester);
-        if (subjectsForNextTerm.isEmpty() && failedCodes.isEmpty()) { // Check if no scheduled and no failed
+        // 3. Sort the subjects of the next term and the failed subjects to retake into categories
+        Eligibility eligibility = Eligibility.forTerm(progress, nextYear, nextSemester);
+        if (eligibility.isEmpty()) {
             showInfo("Enrollment Info", "No subjects found offered or needing retake for the next term (" + nextYear + " - " + nextSemester + ").");
             return;
         }
-        System.out.println("Subjects scheduled in next term: " + subjectsForNextTerm.stream().map(Subject::getCode).collect(Collectors.toList()));
-
-        // 4. Combine scheduled subjects and relevant failed subjects
-        List<Subject> potentialSubjectsForEnrollment = new ArrayList<>(subjectsForNextTerm);
-        Set<String> potentialCodes = subjectsForNextTerm.stream().map(Subject::getCode).collect(Collectors.toSet());
-        List<Subject> failedSubjectsToConsider = new ArrayList<>(); // Store the actual failed Subject objects
-
-        for (String failedCode : failedCodes) {
-            Optional<Subject> failedSubjectOpt = DataStorage.getSubjectByCode(failedCode);
-            if (failedSubjectOpt.isPresent()) {
-                Subject failedSubject = failedSubjectOpt.get();
-                failedSubjectsToConsider.add(failedSubject); // Keep track of the failed subject object
-                // Add failed subject IF its semester matches the next semester type
-                // AND it's not already in the list from the scheduled subjects
-                if (failedSubject.getSemester().equalsIgnoreCase(nextSemester) && !potentialCodes.contains(failedCode)) {
-                    potentialSubjectsForEnrollment.add(failedSubject);
-                    potentialCodes.add(failedCode); // Add to set to prevent duplicates if scheduled AND failed
-                    System.out.println("Adding failed subject for retake (matches semester): " + failedCode);
-                } else {
-                    System.out.println("Skipping failed subject retake this term (semester mismatch): " + failedCode);
-                }
-            } else {
-                System.err.println("Warning: Failed subject code " + failedCode + " not found in master subject list.");
-            }
+        for (Subject subject : eligibility.getMandatoryRetakes()) {
+            System.out.println("  -> Mandatory Retake: " + subject.getCode() + " " + subject.getName());
         }
-        System.out.println("Potential subjects for enrollment: " + potentialCodes);
-
-
-        // 5. Determine eligibility for the combined list
-        List<Subject> eligibleSubjectsForDialog = new ArrayList<>();
-        List<Subject> ineligibleSubjectsForDialog = new ArrayList<>();
-        // List to specifically track which failed subjects MUST be retaken this term
-        List<Subject> mandatoryRetakeSubjects = new ArrayList<>();
-
-        for (Subject subject : potentialSubjectsForEnrollment) {
-            List<String> prereqs = subject.getPrerequisites();
-            boolean prerequisitesMet = checkPrerequisites(completedCodes, prereqs);
-            boolean alreadyPassed = completedCodes.contains(subject.getCode());
-            boolean isFailed = failedCodes.contains(subject.getCode());
-
-            // Determine if this failed subject should be a mandatory retake THIS term
-            boolean mustRetakeThisTerm = isFailed && subject.getSemester().equalsIgnoreCase(nextSemester);
-
-            if (mustRetakeThisTerm) {
-                // Failed subjects matching the term are usually eligible (assuming prereqs were met originally)
-                // We make them mandatory retakes.
-                mandatoryRetakeSubjects.add(subject);
-                System.out.println("  -> Mandatory Retake: " + subject.getCode() + " " + subject.getName());
-            } else if (prerequisitesMet && !alreadyPassed && !isFailed) {
-                // Standard eligible subject
-                eligibleSubjectsForDialog.add(subject);
-                System.out.println("  -> Eligible for: " + subject.getCode() + " " + subject.getName());
-            } else if (!alreadyPassed) { // Don't list ineligible if already passed
-                // Ineligible subject (either prereqs not met or failed but wrong semester)
-                ineligibleSubjectsForDialog.add(subject);
-                String reason = alreadyPassed ? " (Already Passed)" :
-                        !prerequisitesMet ? " (Prerequisites not met: " + prereqs + ")" :
-                                isFailed ? " (Failed - Retake in " + subject.getSemester() + ")" : "";
-                System.out.println("  -> Ineligible for: " + subject.getCode() + " " + subject.getName() + reason);
-            }
+        for (Subject subject : eligibility.getEligible()) {
+            System.out.println("  -> Eligible for: " + subject.getCode() + " " + subject.getName());
+        }
+        for (Subject subject : eligibility.getIneligible()) {
+            System.out.println("  -> Ineligible for: " + subject.getCode() + " " + subject.getName() +
+                    " (Prerequisites not met: " + eligibility.getMissingPrerequisites(subject.getCode()) + ")");
         }
 
         // --- Launch Enrollment Dialog ---
@@ -635,10 +469,10 @@ public class StudentDashboardFrame extends JFrame {
                 currentStudent,             // The student
                 nextYear,                   // Calculated next year
                 nextSemester,               // Calculated next semester
-                eligibleSubjectsForDialog,  // Subjects student can CHOOSE to take
-                ineligibleSubjectsForDialog,// Subjects student CANNOT take (for info)
+                eligibility.getEligible(),  // Subjects student can CHOOSE to take
+                eligibility.getIneligible(),// Subjects student CANNOT take (for info)
                 completedCodes,             // Set of completed codes (dialog might use for display)
-                mandatoryRetakeSubjects // Pass this new list
+                eligibility.getMandatoryRetakes() // Pass this new list
         );
         enrollmentDialog.setVisible(true);
 
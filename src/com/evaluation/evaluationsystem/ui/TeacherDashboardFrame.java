@@ -2,7 +2,7 @@ package com.evaluation.evaluationsystem.ui; // Corrected package
 
 import com.evaluation.evaluationsystem.data.DataStorage;
 import com.evaluation.evaluationsystem.models.EnrolledSubject;
-import com.evaluation.evaluationsystem.models.Enrollment;
+import com.evaluation.evaluationsystem.models.RosterEntry;
 import com.evaluation.evaluationsystem.models.Student;
 import com.evaluation.evaluationsystem.models.Subject;
 import com.evaluation.evaluationsystem.models.Teacher;
@@ -353,26 +353,16 @@ public class TeacherDashboardFrame extends JFrame {
         List<Object[]> rowData = new ArrayList<>();
 
         try {
-            List<Student> allStudents = DataStorage.getAllStudents();
-            List<Enrollment> allEnrollments = DataStorage.getAllEnrollments();
-
-            for (Student student : allStudents) {
-                for (Enrollment enrollment : allEnrollments) {
-                    if (enrollment.getStudentId().equals(student.getId())) {
-                        for (EnrolledSubject enrolledSub : enrollment.getSubjects()) {
-                            if (enrolledSub.getCode().equals(subjectCode)) {
-                                rowData.add(new Object[]{
-                                        student.getId(),
-                                        student.getLastName(),
-                                        student.getFirstName(),
-                                        enrollment.getYearLevel(),
-                                        enrolledSub.getGrade() == 0.0 ? "NG" : String.format("%.1f", enrolledSub.getGrade())
-                                });
-                                break; // Found subject in this enrollment
-                            }
-                        }
-                    }
-                }
+            for (RosterEntry entry : DataStorage.getRosterForSubject(subjectCode)) {
+                Student student = entry.getStudent();
+                EnrolledSubject enrolledSub = entry.getSubject();
+                rowData.add(new Object[]{
+                        student.getId(),
+                        student.getLastName(),
+                        student.getFirstName(),
+                        entry.getYearLevel(),
+                        enrolledSub.getGrade() == 0.0 ? "NG" : String.format("%.1f", enrolledSub.getGrade())
+                });
             }
 
             rowData.sort(Comparator.comparing(row -> (String) row[1])); // Sort by last name
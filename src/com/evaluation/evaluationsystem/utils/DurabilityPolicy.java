@@ -0,0 +1,17 @@
+package com.evaluation.evaluationsystem.utils;
+
+/**
+ * When saved data files are flushed to the physical disk (fsync).
+ * Saves are always atomic (temp file + rename) and a file's data is always forced to disk before
+ * it is renamed into place, so a crash never leaves a half-written file; the policy only decides
+ * how much recently saved data a power loss can roll back.
+ */
+public enum DurabilityPolicy {
+    /** Every save is forced to disk, and its rename made durable, before the save returns. Safest, slowest. */
+    SYNC_EVERY_WRITE,
+    /**
+     * Renames, and appends to journals, are made durable together on a short timer (group commit).
+     * A power loss can undo the saves of the last interval (the old complete file comes back), never corrupt them.
+     */
+    GROUPED
+}
@@ -0,0 +1,393 @@
+package com.evaluation.evaluationsystem.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming (pull) JSON reader, the counterpart of {@link JsonWriter}.
+ * Tokens are read straight from the underlying Reader as the caller asks for them, so a file
+ * can be bound directly into model objects without building a JSONObject/JSONArray tree first.
+ * Strict standard JSON; anything else raises {@link MalformedJsonException}.
+ *
+ * Usage: reader.beginObject(); while (reader.hasNext()) { String name = reader.nextName(); ... } reader.endObject();
+ */
+public class JsonReader implements Closeable {
+
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // Thrown for input that is not valid JSON, as opposed to I/O failures
+    public static class MalformedJsonException extends IOException {
+        public MalformedJsonException(String message) {
+            super(message);
+        }
+    }
+
+    // Where the reader is inside the current container (same scheme as JsonWriter)
+    private static final int EMPTY_OBJECT = 1;
+    private static final int NONEMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int EMPTY_ARRAY = 4;
+    private static final int NONEMPTY_ARRAY = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos = 0;
+    private int limit = 0;
+    private long consumed = 0; // Characters before buffer[0], for error positions
+
+    private int[] stack = new int[16];
+    private int stackSize = 0;
+
+    private Token peeked;        // Next token, once peek() has looked at it
+    private String peekedText;   // Its text for NAME, STRING and NUMBER
+    private boolean peekedBoolean;
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        push(EMPTY_DOCUMENT);
+    }
+
+    public Token peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    // True while the current object or array has more members
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return peekedText;
+    }
+
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        return peekedText;
+    }
+
+    public double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        return Double.parseDouble(peekedText);
+    }
+
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        return isIntegral(peekedText) ? parseLong(peekedText) : (long) Double.parseDouble(peekedText);
+    }
+
+    public int nextInt() throws IOException {
+        return (int) nextLong();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    // Skips the next value, including everything nested inside it
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of input");
+                default:
+                    peeked = null; // Names and scalars are consumed as they are
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // --- Internals ---
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private Token doPeek() throws IOException {
+        int context = stack[stackSize - 1];
+        if (context == EMPTY_ARRAY || context == NONEMPTY_ARRAY) {
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+            int c = nextNonWhitespace();
+            if (c == ']') {
+                return Token.END_ARRAY;
+            } else if (context == NONEMPTY_ARRAY) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+            } else {
+                pos--; // First element: let the value below read it
+            }
+        } else if (context == EMPTY_OBJECT || context == NONEMPTY_OBJECT) {
+            stack[stackSize - 1] = DANGLING_NAME;
+            int c = nextNonWhitespace();
+            if (c == '}') {
+                return Token.END_OBJECT;
+            } else if (context == NONEMPTY_OBJECT) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or '}'");
+                }
+                c = nextNonWhitespace();
+            }
+            if (c != '"') {
+                throw syntaxError("Expected a name");
+            }
+            peekedText = readString();
+            return Token.NAME;
+        } else if (context == DANGLING_NAME) {
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+            if (nextNonWhitespace() != ':') {
+                throw syntaxError("Expected ':'");
+            }
+        } else if (context == EMPTY_DOCUMENT) {
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+        } else if (context == NONEMPTY_DOCUMENT) {
+            if (nextNonWhitespace() != -1) {
+                throw syntaxError("Unexpected data after the end of the document");
+            }
+            return Token.END_DOCUMENT;
+        }
+        return readValue();
+    }
+
+    private Token readValue() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case -1:
+                if (stackSize == 1) {
+                    return Token.END_DOCUMENT; // Empty input
+                }
+                throw syntaxError("Unexpected end of input");
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                peekedText = readString();
+                return Token.STRING;
+            case 't':
+                readLiteral("rue");
+                peekedBoolean = true;
+                return Token.BOOLEAN;
+            case 'f':
+                readLiteral("alse");
+                peekedBoolean = false;
+                return Token.BOOLEAN;
+            case 'n':
+                readLiteral("ull");
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    peekedText = readNumber((char) c);
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    // Reads the rest of a string whose opening quote was consumed
+    private String readString() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    return scratch.toString();
+                } else if (c == '\\') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    scratch.append(readEscape());
+                    start = pos;
+                } else {
+                    pos++;
+                }
+            }
+            scratch.append(buffer, start, pos - start); // Copy the run of plain characters, then refill
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid \\u escape");
+                    }
+                    value = value * 16 + digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private String readNumber(char first) throws IOException {
+        scratch.setLength(0);
+        scratch.append(first);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                scratch.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        String text = scratch.toString();
+        try {
+            Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number " + text);
+        }
+        return text;
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw syntaxError("Invalid literal");
+            }
+        }
+    }
+
+    private static boolean isIntegral(String number) {
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseLong(String number) {
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            return (long) Double.parseDouble(number); // Beyond the long range
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private int read() throws IOException {
+        if (pos < limit || fill()) {
+            return buffer[pos++];
+        }
+        throw syntaxError("Unexpected end of input");
+    }
+
+    // Refills the buffer once everything in it was consumed; false at the end of the input
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int read;
+        while ((read = in.read(buffer, 0, buffer.length)) == 0) {
+            // Keep asking until the Reader makes progress or reports the end
+        }
+        if (read < 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private MalformedJsonException syntaxError(String message) {
+        return new MalformedJsonException(message + " at character " + (consumed + pos));
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stackSize * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = context;
+    }
+}
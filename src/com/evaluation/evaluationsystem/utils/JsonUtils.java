@@ -5,119 +5,332 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class JsonUtils {
 
     // Method to get the absolute path to the data file
     private static String getDataFilePath(String filename) {
+        return getDataFile(filename).toString();
+    }
+
+    // Path of a data file, used by callers that need to stat the file (e.g. cache freshness checks)
+    public static Path getDataFile(String filename) {
         // Assumes the 'data' folder is in the project root
-        Path path = Paths.get("data", filename);
-        return path.toAbsolutePath().toString();
+        return Paths.get("data", filename).toAbsolutePath();
     }
 
     // Load JSON data from file
     public static JSONObject loadJSON(String filename) {
         JSONParser parser = new JSONParser();
         String filePath = getDataFilePath(filename);
-        try (FileReader reader = new FileReader(filePath)) {
+        try (FileReader reader = new FileReader(filePath, StandardCharsets.UTF_8)) {
             Object obj = parser.parse(reader);
             if (obj instanceof JSONObject) {
                 return (JSONObject) obj;
             } else {
                 System.err.println("Warning: Root of " + filename + " is not a JSON object. Returning empty object.");
+                preserveUnreadableFile(filename);
                 return new JSONObject(); // Return empty if not an object or file is empty/invalid format
             }
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            System.err.println("Data file " + filePath + " not found. Returning empty JSON object.");
+            return new JSONObject(); // Missing file is treated as empty, it is created on the first save
         } catch (IOException e) {
             System.err.println("IOException reading " + filePath + ": " + e.getMessage() + ". Returning empty JSON object.");
             return new JSONObject(); // Return empty JSON if file is missing or other IO error
         } catch (ParseException e) {
             System.err.println("ParseException parsing " + filePath + ": " + e.getMessage() + ". Returning empty JSON object.");
+            preserveUnreadableFile(filename);
             return new JSONObject(); // Return empty JSON on parsing error
         }
     }
 
-    // Save JSON data to file with basic indentation (json-simple doesn't have built-in pretty print)
-    public static void saveJSON(String filename, JSONObject jsonData) {
-        String filePath = getDataFilePath(filename);
-        try (FileWriter file = new FileWriter(filePath)) {
-            // Basic pretty printing (can be improved)
-            file.write(toPrettyFormat(jsonData.toJSONString(), 4));
-            file.flush();
+    // Reads a document from a JsonReader; lets callers bind a file straight into model objects
+    public interface JsonSource {
+        void readFrom(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Streams a data file through the given source without building a JSONObject tree.
+     * Returns false (after logging) if the file is missing, unreadable or not a JSON object; like
+     * loadJSON, an unparseable file is backed up first. Whatever the source read is then incomplete.
+     */
+    public static boolean readJSON(String filename, JsonSource source) {
+        Path path = getDataFile(filename);
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(path, StandardCharsets.UTF_8))) {
+            if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                System.err.println("Warning: Root of " + filename + " is not a JSON object. Returning empty object.");
+                preserveUnreadableFile(filename);
+                return false;
+            }
+            source.readFrom(reader);
+            if (reader.peek() != JsonReader.Token.END_DOCUMENT) {
+                throw new JsonReader.MalformedJsonException("Unexpected data after the root object");
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            System.err.println("Data file " + path + " not found. Returning empty JSON object.");
+            return false;
+        } catch (JsonReader.MalformedJsonException e) {
+            System.err.println("ParseException parsing " + path + ": " + e.getMessage() + ". Returning empty JSON object.");
+            preserveUnreadableFile(filename);
+            return false;
+        } catch (IOException e) {
+            System.err.println("IOException reading " + path + ": " + e.getMessage() + ". Returning empty JSON object.");
+            return false;
+        }
+    }
+
+    // The next save would replace an unparseable file with (almost) nothing, so keep a copy of it first
+    private static void preserveUnreadableFile(String filename) {
+        Path path = getDataFile(filename);
+        Path backup = path.resolveSibling(path.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        try {
+            Files.copy(path, backup, StandardCopyOption.REPLACE_EXISTING);
+            System.err.println("Copied unreadable " + filename + " to " + backup.getFileName() + " before it can be overwritten.");
+        } catch (IOException e) {
+            System.err.println("Could not back up unreadable " + filename + ": " + e.getMessage());
+        }
+    }
+
+    // Writes a document into a JsonWriter; lets callers stream model objects without building a JSONObject first
+    public interface JsonContent {
+        void writeTo(JsonWriter writer) throws IOException;
+    }
+
+    // Pretty-printed by default; set -Devaluation.json.compact=true to write single-line JSON
+    private static volatile boolean compactOutput = Boolean.getBoolean("evaluation.json.compact");
+    private static final int INDENT = 4;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // Fsync policy; -Devaluation.durability=grouped batches fsyncs on a timer (see DurabilityPolicy)
+    private static volatile DurabilityPolicy durabilityPolicy =
+            "grouped".equalsIgnoreCase(System.getProperty("evaluation.durability"))
+                    ? DurabilityPolicy.GROUPED : DurabilityPolicy.SYNC_EVERY_WRITE;
+    private static final long GROUP_COMMIT_INTERVAL_MS = Long.getLong("evaluation.durability.groupMillis", 1000L);
+    private static final Set<Path> pendingSync = ConcurrentHashMap.newKeySet(); // Files appended to
+    private static final Set<Path> pendingDirectories = ConcurrentHashMap.newKeySet(); // Directories renamed into
+    private static ScheduledExecutorService groupCommitExecutor;
+
+    public static void setCompactOutput(boolean compact) {
+        compactOutput = compact;
+    }
+
+    public static void setDurabilityPolicy(DurabilityPolicy policy) {
+        if (policy == DurabilityPolicy.SYNC_EVERY_WRITE) {
+            syncPending(); // Don't leave earlier grouped saves unsynced when switching
+        }
+        durabilityPolicy = policy;
+    }
+
+    public static DurabilityPolicy getDurabilityPolicy() {
+        return durabilityPolicy;
+    }
+
+    // Save JSON data to file; returns false (after logging) if the file could not be written
+    public static boolean saveJSON(String filename, JSONObject jsonData) {
+        return saveJSON(filename, writer -> writer.value((Object) jsonData));
+    }
+
+    public static boolean saveJSON(String filename, JsonContent content) {
+        try {
+            writeJSON(filename, content);
+            return true;
         } catch (IOException e) {
-            System.err.println("IOException writing to " + filePath + ": " + e.getMessage());
+            System.err.println("IOException writing to " + getDataFilePath(filename) + ": " + e.getMessage());
             e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Crash-safe save. The document is streamed into a temp file next to the target, forced to
+     * disk and then atomically renamed over the target, so readers and crashes only ever see the
+     * old or the new complete file. The durability policy decides when the rename itself is synced.
+     */
+    public static void writeJSON(String filename, JsonContent content) throws IOException {
+        commitJSON(prepareJSON(filename, content), filename);
+    }
+
+    /**
+     * First half of a save, for writing several files as one unit: streams the document into a
+     * temp file next to the target without touching the target. Finish with commitJSON,
+     * or discardJSON if the unit is abandoned.
+     */
+    public static Path prepareJSON(String filename, JsonContent content) throws IOException {
+        return writeTempFile(getDataFile(filename), content);
+    }
+
+    // Second half of a save: atomically renames a prepared temp file over the target
+    public static void commitJSON(Path temp, String filename) throws IOException {
+        try {
+            moveIntoPlace(temp, getDataFile(filename));
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    public static void discardJSON(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            System.err.println("Could not delete temp file " + temp + ": " + e.getMessage());
+        }
+    }
+
+    // Streams the document into a sibling temp file: one pass, no intermediate String copies
+    private static Path writeTempFile(Path target, JsonContent content) throws IOException {
+        Path dir = target.getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, "." + target.getFileName(), ".tmp");
+        boolean written = false;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            JsonWriter writer = new JsonWriter(new BufferedWriter(
+                    Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE),
+                    compactOutput ? 0 : INDENT);
+            content.writeTo(writer);
+            writer.flush();
+            // Data must be on disk before the rename makes it visible, under either policy: otherwise a
+            // power loss can keep the rename and lose the data, leaving an empty or partial file
+            channel.force(durabilityPolicy == DurabilityPolicy.SYNC_EVERY_WRITE);
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return temp;
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        copyPermissions(target, temp); // Temp files are created owner-only; keep the data file's own mode
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (durabilityPolicy == DurabilityPolicy.SYNC_EVERY_WRITE) {
+            syncDirectory(target.getParent()); // Persist the rename itself
+        } else {
+            pendingDirectories.add(target.getParent()); // Only the rename waits for the group commit
+            scheduleGroupCommit();
+        }
+    }
+
+    /**
+     * Forces every journal append and rename made under the GROUPED policy since the last sync to disk.
+     * Runs on a timer and at shutdown; can also be called before an operation that must be durable.
+     */
+    public static void syncPending() {
+        if (pendingSync.isEmpty() && pendingDirectories.isEmpty()) {
+            return;
+        }
+        Set<Path> dirs = new HashSet<>();
+        for (Path dir : pendingDirectories) {
+            pendingDirectories.remove(dir);
+            dirs.add(dir);
+        }
+        for (Path path : pendingSync) {
+            pendingSync.remove(path);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                channel.force(true);
+                dirs.add(path.getParent());
+            } catch (IOException e) {
+                System.err.println("Could not sync " + path + ": " + e.getMessage());
+            }
+        }
+        for (Path dir : dirs) {
+            syncDirectory(dir);
         }
     }
 
-    // Simple pretty print helper
-    private static String toPrettyFormat(String jsonString, int indent) {
-        // This is a very basic implementation. For robust pretty printing,
-        // consider using a library like Gson or Jackson if allowed.
-        StringBuilder prettyJson = new StringBuilder();
-        String indentStr = " ".repeat(indent);
-        int level = 0;
-        boolean inQuote = false;
-
-        for (char c : jsonString.toCharArray()) {
-            switch (c) {
-                case '{':
-                case '[':
-                    prettyJson.append(c).append("\n");
-                    level++;
-                    appendIndent(prettyJson, level, indentStr);
-                    break;
-                case '}':
-                case ']':
-                    prettyJson.append("\n");
-                    level--;
-                    appendIndent(prettyJson, level, indentStr);
-                    prettyJson.append(c);
-                    break;
-                case ',':
-                    prettyJson.append(c).append("\n");
-                    appendIndent(prettyJson, level, indentStr);
-                    break;
-                case ':':
-                    prettyJson.append(c).append(" ");
-                    break;
-                case '"':
-                    prettyJson.append(c);
-                    inQuote = !inQuote;
-                    break;
-                default:
-                    prettyJson.append(c);
-                    break;
+    /**
+     * Makes data just appended to a file durable according to the current policy:
+     * forced now under SYNC_EVERY_WRITE, or included in the next group commit under GROUPED.
+     * Pass newFile = true after the first write to a file that did not exist, so its directory entry is synced too.
+     */
+    public static void syncAppended(FileChannel channel, Path path, boolean newFile) throws IOException {
+        if (durabilityPolicy == DurabilityPolicy.SYNC_EVERY_WRITE) {
+            channel.force(false);
+            if (newFile) {
+                syncDirectory(path.getParent());
             }
+        } else {
+            pendingSync.add(path);
+            scheduleGroupCommit();
+        }
+    }
+
+    private static synchronized void scheduleGroupCommit() {
+        if (groupCommitExecutor != null) {
+            return;
         }
-        return prettyJson.toString();
+        groupCommitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "json-group-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        groupCommitExecutor.scheduleWithFixedDelay(JsonUtils::syncPending,
+                GROUP_COMMIT_INTERVAL_MS, GROUP_COMMIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(JsonUtils::syncPending, "json-group-commit-shutdown"));
     }
 
-    private static void appendIndent(StringBuilder sb, int level, String indentStr) {
-        for (int i = 0; i < level; i++) {
-            sb.append(indentStr);
+    private static void copyPermissions(Path from, Path to) {
+        try {
+            if (Files.exists(from)) {
+                Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+            }
+        } catch (UnsupportedOperationException | IOException e) {
+            // Non-POSIX file system: nothing to preserve
+        }
+    }
+
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform (e.g. Windows); the rename is still atomic there
         }
     }
 
     // --- Convenience methods for specific files ---
     public static JSONObject loadUsers() { return loadJSON("users.json"); }
-    public static void saveUsers(JSONObject data) { saveJSON("users.json", data); }
+    public static boolean saveUsers(JSONObject data) { return saveJSON("users.json", data); }
 
     public static JSONObject loadStudents() { return loadJSON("students.json"); }
-    public static void saveStudents(JSONObject data) { saveJSON("students.json", data); }
+    public static boolean saveStudents(JSONObject data) { return saveJSON("students.json", data); }
 
     public static JSONObject loadTeachers() { return loadJSON("teachers.json"); }
-    public static void saveTeachers(JSONObject data) { saveJSON("teachers.json", data); }
+    public static boolean saveTeachers(JSONObject data) { return saveJSON("teachers.json", data); }
 
     public static JSONObject loadSubjects() { return loadJSON("subjects.json"); }
-    public static void saveSubjects(JSONObject data) { saveJSON("subjects.json", data); }
+    public static boolean saveSubjects(JSONObject data) { return saveJSON("subjects.json", data); }
 
     public static JSONObject loadEnrollments() { return loadJSON("enrollments.json"); }
-    public static void saveEnrollments(JSONObject data) { saveJSON("enrollments.json", data); }
+    public static boolean saveEnrollments(JSONObject data) { return saveJSON("enrollments.json", data); }
 
     // --- Safe extraction methods ---
     public static JSONArray getJSONArray(JSONObject obj, String key) {
@@ -164,4 +377,62 @@ public class JsonUtils {
         }
         return defaultValue;
     }
-}
\ No newline at end of file
+
+    // Streaming counterparts of the getters above: same leniency, reading the reader's next value
+    public static String nextString(JsonReader reader, String defaultValue) throws IOException {
+        if (reader.peek() == JsonReader.Token.STRING) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return defaultValue;
+    }
+
+    public static int nextInt(JsonReader reader, int defaultValue) throws IOException {
+        JsonReader.Token token = reader.peek();
+        if (token == JsonReader.Token.NUMBER) {
+            return reader.nextInt();
+        } else if (token == JsonReader.Token.STRING) {
+            try {
+                return Integer.parseInt(reader.nextString());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        reader.skipValue();
+        return defaultValue;
+    }
+
+    public static double nextDouble(JsonReader reader, double defaultValue) throws IOException {
+        JsonReader.Token token = reader.peek();
+        if (token == JsonReader.Token.NUMBER) {
+            return reader.nextDouble();
+        } else if (token == JsonReader.Token.STRING) {
+            try {
+                return Double.parseDouble(reader.nextString());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        reader.skipValue();
+        return defaultValue;
+    }
+
+    // Reads an array of strings, skipping other elements; anything but an array gives an empty list
+    public static List<String> nextStringList(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (reader.peek() != JsonReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return values;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonReader.Token.STRING) {
+                values.add(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return values;
+    }
+}
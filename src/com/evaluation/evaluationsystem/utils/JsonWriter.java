@@ -0,0 +1,261 @@
+package com.evaluation.evaluationsystem.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON writer.
+ * Tokens are written straight to the underlying Writer as they are produced, so a file
+ * is serialized in a single pass without building the whole document as a String first.
+ * Indentation is driven by the structure (not by scanning characters), so commas,
+ * braces or colons inside string values never affect the layout.
+ *
+ * Usage: writer.beginObject().name("students").beginArray() ... .endArray().endObject();
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    // What the writer expects next inside the current container
+    private static final int EMPTY_OBJECT = 1;    // '{' written, no members yet
+    private static final int NONEMPTY_OBJECT = 2; // at least one member written
+    private static final int DANGLING_NAME = 3;   // name written, value expected
+    private static final int EMPTY_ARRAY = 4;
+    private static final int NONEMPTY_ARRAY = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final Writer out;
+    private final String indent; // null = compact output
+
+    private int[] stack = new int[16];
+    private int stackSize = 0;
+
+    /**
+     * @param out    destination, ideally buffered
+     * @param indent number of spaces per nesting level; 0 writes compact JSON on a single line
+     */
+    public JsonWriter(Writer out, int indent) {
+        this.out = out;
+        this.indent = indent > 0 ? " ".repeat(indent) : null;
+        push(EMPTY_DOCUMENT);
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        out.write('{');
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        out.write('[');
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            out.write(',');
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("Names are only allowed inside an object");
+        }
+        newline();
+        string(name);
+        out.write(indent != null ? ": " : ":");
+        replaceTop(DANGLING_NAME);
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue(); // Not representable in JSON
+        }
+        beforeValue();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    /**
+     * Writes an arbitrary value tree as produced by json-simple
+     * (Map for objects, List for arrays, String, Number, Boolean or null).
+     */
+    public JsonWriter value(Object value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        } else if (value instanceof String) {
+            return value((String) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return value(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            return value(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            return value(((Boolean) value).booleanValue());
+        } else if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                name(String.valueOf(entry.getKey()));
+                value(entry.getValue());
+            }
+            return endObject();
+        } else if (value instanceof List) {
+            beginArray();
+            for (Object element : (List<?>) value) {
+                value(element);
+            }
+            return endArray();
+        }
+        return value(value.toString()); // Fallback for unexpected types
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // --- Internals ---
+
+    private JsonWriter close(int emptyContext, int nonEmptyContext, char bracket) throws IOException {
+        int context = peek();
+        if (context != emptyContext && context != nonEmptyContext) {
+            throw new IllegalStateException("Nesting problem: unexpected '" + bracket + "'");
+        }
+        stackSize--;
+        if (context == nonEmptyContext) {
+            newline(); // Empty containers stay on one line: {} or []
+        }
+        out.write(bracket);
+        return this;
+    }
+
+    // Writes the separator/indentation needed before a value in the current context
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+            case NONEMPTY_DOCUMENT:
+                throw new IllegalStateException("JSON must have only one top-level value");
+            case EMPTY_DOCUMENT:
+                replaceTop(NONEMPTY_DOCUMENT);
+                break;
+            case EMPTY_ARRAY:
+                replaceTop(NONEMPTY_ARRAY);
+                newline();
+                break;
+            case NONEMPTY_ARRAY:
+                out.write(',');
+                newline();
+                break;
+            case DANGLING_NAME:
+                replaceTop(NONEMPTY_OBJECT);
+                break;
+            default:
+                throw new IllegalStateException("A name is required before a value inside an object");
+        }
+    }
+
+    private void newline() throws IOException {
+        if (indent == null) {
+            return;
+        }
+        out.write('\n');
+        for (int i = 1; i < stackSize; i++) { // The document level itself is not indented
+            out.write(indent);
+        }
+    }
+
+    // Writes a quoted, escaped string
+    private void string(String value) throws IOException {
+        out.write('"');
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            } else if (c == '\r') {
+                replacement = "\\r";
+            } else if (c == '\t') {
+                replacement = "\\t";
+            } else if (c < 0x20 || c == 0x2028 || c == 0x2029) { // Control chars and JS line separators
+                replacement = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            // Copy the run of plain characters in one call instead of char by char
+            if (last < i) {
+                out.write(value, last, i - last);
+            }
+            out.write(replacement);
+            last = i + 1;
+        }
+        if (last < length) {
+            out.write(value, last, length - last);
+        }
+        out.write('"');
+    }
+
+    private int peek() {
+        return stack[stackSize - 1];
+    }
+
+    private void replaceTop(int context) {
+        stack[stackSize - 1] = context;
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stackSize * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+        stack[stackSize++] = context;
+    }
+}